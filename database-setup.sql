@@ -15,3 +15,23 @@ SELECT 'Database homeheaven created successfully!' AS Status;
 -- To run the migration scripts, execute:
 -- SOURCE src/main/resources/db/migration/V1__initial_schema.sql;
 -- SOURCE src/main/resources/db/migration/V2__seed_data.sql;
+-- SOURCE src/main/resources/db/migration/V3__otp_tokens.sql;
+-- SOURCE src/main/resources/db/migration/V4__email_outbox.sql;
+-- SOURCE src/main/resources/db/migration/V5__property_listings.sql;
+-- SOURCE src/main/resources/db/migration/V6__id_generators.sql;
+-- SOURCE src/main/resources/db/migration/V7__metric_rollups.sql;
+-- SOURCE src/main/resources/db/migration/V8__property_trending.sql;
+-- SOURCE src/main/resources/db/migration/V9__property_unique_viewers.sql;
+-- SOURCE src/main/resources/db/migration/V10__saved_searches.sql;
+-- SOURCE src/main/resources/db/migration/V11__listing_changes.sql;
+-- SOURCE src/main/resources/db/migration/V12__favorite_counts.sql;
+-- SOURCE src/main/resources/db/migration/V13__contact_requests.sql;
+-- SOURCE src/main/resources/db/migration/V14__property_locations.sql;
+-- SOURCE src/main/resources/db/migration/V15__property_fingerprints.sql;
+-- SOURCE src/main/resources/db/migration/V16__otp_lockout.sql;
+-- SOURCE src/main/resources/db/migration/V17__favorite_changes.sql;
+-- SOURCE src/main/resources/db/migration/V18__listing_change_positions.sql;
+-- SOURCE src/main/resources/db/migration/V19__email_outbox_leases.sql;
+-- SOURCE src/main/resources/db/migration/V20__file_cleanup_queue.sql;
+-- SOURCE src/main/resources/db/migration/V21__listing_projection_retry.sql;
+-- SOURCE src/main/resources/db/migration/V22__fingerprint_sync.sql;
@@ -2,8 +2,10 @@ package com.homeheaven;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class HomeHeavenApplication {
     public static void main(String[] args) {
         SpringApplication.run(HomeHeavenApplication.class, args);
@@ -0,0 +1,93 @@
+package com.homeheaven.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Periodically checks replication lag on the read replica. The replica is
+ * only used while it is reachable and within the allowed lag; otherwise
+ * read-only transactions fall back to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    
+    private final DataSource replica;
+    private final long maxLagSeconds;
+    private final boolean requireReplication;
+    
+    private volatile boolean usable;
+    private volatile long lagSeconds = -1;
+    
+    public ReplicaLagMonitor(DataSource replica,
+                             long maxLagSeconds,
+                             boolean requireReplication,
+                             MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+        this.requireReplication = requireReplication;
+        
+        Gauge.builder("datasource.replica.lag.seconds", this, m -> m.lagSeconds).register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, m -> m.usable ? 1 : 0).register(meterRegistry);
+    }
+    
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:5000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            Long lag = readLag(statement);
+            if (lag == null) {
+                // No replication configured (e.g. two independent local instances)
+                lagSeconds = -1;
+                usable = !requireReplication;
+            } else {
+                lagSeconds = lag;
+                usable = lag <= maxLagSeconds;
+            }
+        } catch (SQLException e) {
+            log.warn("Replica lag check failed: {}", e.getMessage());
+            lagSeconds = -1;
+            usable = false;
+        }
+        
+        if (wasUsable != usable) {
+            log.warn("Read replica is now {} (lag {}s)", usable ? "in use" : "bypassed", lagSeconds);
+        }
+    }
+    
+    /**
+     * Seconds behind the source, or null when the server is not a replica.
+     * A stopped replication thread reports NULL lag, which is treated as too far behind.
+     */
+    private Long readLag(Statement statement) throws SQLException {
+        ResultSet rs;
+        String column;
+        try {
+            rs = statement.executeQuery("SHOW REPLICA STATUS");
+            column = "Seconds_Behind_Source";
+        } catch (SQLException e) {
+            // MySQL older than 8.0.22
+            rs = statement.executeQuery("SHOW SLAVE STATUS");
+            column = "Seconds_Behind_Master";
+        }
+        try (rs) {
+            if (!rs.next()) {
+                return null;
+            }
+            long lag = rs.getLong(column);
+            return rs.wasNull() ? Long.MAX_VALUE : lag;
+        }
+    }
+}
@@ -67,7 +67,10 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 // Public endpoints
                 .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/properties/search", "/api/properties/{id}").permitAll()
+                .requestMatchers("/api/properties/search", "/api/properties/trending", "/api/properties/stream",
+                        "/api/properties/clusters", "/api/properties/{id}", "/api/properties/{id}/similar",
+                        "/api/properties/{id}/also-viewed").permitAll()
+                .requestMatchers("/api/market/**").permitAll()
                 
                 // Static resources
                 .requestMatchers("/uploads/**", "/static/**", "/css/**", "/js/**", "/images/**").permitAll()
@@ -76,6 +79,10 @@ public class SecurityConfig {
                 // Admin endpoints
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 
+                // Actuator (health is public, metrics are admin-only)
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+                
                 // All other requests require authentication
                 .anyRequest().authenticated()
             )
@@ -1,14 +1,30 @@
 package com.homeheaven.controller;
 
+import com.homeheaven.dto.response.DuplicateClusterResponse;
 import com.homeheaven.dto.response.PropertyResponse;
+import com.homeheaven.dto.response.TimeSeriesResponse;
 import com.homeheaven.dto.response.UserResponse;
 import com.homeheaven.service.AdminService;
+import com.homeheaven.service.CacheStatisticsService;
+import com.homeheaven.service.ExportService;
+import com.homeheaven.service.ListingProjectionService;
+import com.homeheaven.service.analytics.AnalyticsService;
+import com.homeheaven.service.duplicate.DuplicateDetectionService;
+import com.homeheaven.service.geo.GeocodingBackfillService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +36,15 @@ import java.util.Map;
 public class AdminController {
     
     private final AdminService adminService;
+    private final CacheStatisticsService cacheStatisticsService;
+    private final ListingProjectionService listingProjectionService;
+    private final ExportService exportService;
+    private final AnalyticsService analyticsService;
+    private final GeocodingBackfillService geocodingBackfillService;
+    private final DuplicateDetectionService duplicateDetectionService;
+    
+    @Value("${export.request-timeout:600000}")
+    private long exportTimeoutMillis;
     
     @GetMapping("/dashboard/stats")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
@@ -28,6 +53,40 @@ public class AdminController {
         return ResponseEntity.ok(stats);
     }
     
+    @GetMapping("/analytics/{metric}")
+    public ResponseEntity<TimeSeriesResponse> getAnalytics(
+            @PathVariable String metric,
+            @RequestParam(required = false) String dimension,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String granularity) {
+        log.info("GET /api/admin/analytics/{} - dimension: {}, from: {}, to: {}", metric, dimension, from, to);
+        return ResponseEntity.ok(analyticsService.getSeries(metric, dimension, from, to, granularity));
+    }
+    
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        log.info("GET /api/admin/cache/stats");
+        return ResponseEntity.ok(cacheStatisticsService.getCacheStats());
+    }
+    
+    @GetMapping("/export/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "csv") String format,
+                                                             NativeWebRequest request) {
+        log.info("GET /api/admin/export/users - format: {}", format);
+        ExportService.Format exportFormat = ExportService.Format.from(format);
+        return exportResponse(request, "users", exportFormat, out -> exportService.exportUsers(out, exportFormat));
+    }
+    
+    @GetMapping("/export/properties")
+    public ResponseEntity<StreamingResponseBody> exportProperties(@RequestParam(defaultValue = "csv") String format,
+                                                                  NativeWebRequest request) {
+        log.info("GET /api/admin/export/properties - format: {}", format);
+        ExportService.Format exportFormat = ExportService.Format.from(format);
+        return exportResponse(request, "properties", exportFormat,
+                out -> exportService.exportProperties(out, exportFormat));
+    }
+    
     @GetMapping("/users")
     public ResponseEntity<List<UserResponse>> getAllUsers() {
         log.info("GET /api/admin/users");
@@ -70,10 +129,62 @@ public class AdminController {
         return ResponseEntity.ok("Property deleted successfully");
     }
     
+    @PostMapping("/listings/rebuild")
+    public ResponseEntity<String> rebuildListings() {
+        log.info("POST /api/admin/listings/rebuild");
+        int rows = listingProjectionService.rebuild();
+        return ResponseEntity.ok("Listing read model rebuilt with " + rows + " rows");
+    }
+    
+    /**
+     * Geocode properties that have no coordinates yet
+     */
+    @PostMapping("/geocode")
+    public ResponseEntity<String> geocodeProperties() {
+        log.info("POST /api/admin/geocode");
+        int located = geocodingBackfillService.backfill();
+        return ResponseEntity.ok("Geocoded " + located + " properties");
+    }
+    
+    /**
+     * Groups of near-duplicate listings, largest first
+     */
+    @GetMapping("/duplicates")
+    public ResponseEntity<List<DuplicateClusterResponse>> getDuplicateClusters(
+            @RequestParam(defaultValue = "50") int limit) {
+        log.info("GET /api/admin/duplicates - limit: {}", limit);
+        return ResponseEntity.ok(duplicateDetectionService.clusters(limit));
+    }
+    
+    /**
+     * Fingerprint properties created before duplicate detection
+     */
+    @PostMapping("/duplicates/backfill")
+    public ResponseEntity<String> backfillFingerprints() {
+        log.info("POST /api/admin/duplicates/backfill");
+        int fingerprinted = duplicateDetectionService.backfill();
+        return ResponseEntity.ok("Fingerprinted " + fingerprinted + " properties");
+    }
+    
     @PutMapping("/properties/{id}/toggle-availability")
     public ResponseEntity<String> togglePropertyAvailability(@PathVariable Long id) {
         log.info("PUT /api/admin/properties/{}/toggle-availability", id);
         adminService.togglePropertyAvailability(id);
         return ResponseEntity.ok("Property availability toggled");
     }
+    
+    private ResponseEntity<StreamingResponseBody> exportResponse(NativeWebRequest request, String name,
+                                                                 ExportService.Format format,
+                                                                 StreamingResponseBody body) {
+        // Long downloads get their own async timeout instead of raising the global one
+        if (request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(exportTimeoutMillis);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + format.extension() + "\"")
+                .body(body);
+    }
 }
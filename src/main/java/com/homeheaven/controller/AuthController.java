@@ -13,6 +13,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * Authentication controller for user registration, login, and password reset
  */
@@ -34,6 +36,16 @@ public class AuthController {
         return ResponseEntity.ok("User registered successfully");
     }
     
+    /**
+     * Live username availability check for the register form. Emails are not
+     * checked here, so the endpoint can't be used to find registered emails.
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<Map<String, Boolean>> checkAvailability(@RequestParam String username) {
+        log.debug("GET /api/auth/availability - username: {}", username);
+        return ResponseEntity.ok(authService.checkAvailability(username));
+    }
+    
     /**
      * Login user
      */
@@ -0,0 +1,29 @@
+package com.homeheaven.controller;
+
+import com.homeheaven.dto.response.ChangeFeedResponse;
+import com.homeheaven.service.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Incremental listing change feed for mirrors and indexers
+ */
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeFeedController {
+    
+    private final ChangeFeedService changeFeedService;
+    
+    @GetMapping
+    public ResponseEntity<ChangeFeedResponse> getChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "500") int limit) {
+        
+        log.info("GET /api/changes - after: {}, limit: {}", after, limit);
+        return ResponseEntity.ok(changeFeedService.getChanges(after, limit));
+    }
+}
@@ -0,0 +1,78 @@
+package com.homeheaven.controller;
+
+import com.homeheaven.dto.request.ContactRequestRequest;
+import com.homeheaven.dto.request.ContactStatusRequest;
+import com.homeheaven.dto.response.ContactInboxResponse;
+import com.homeheaven.dto.response.ContactRequestResponse;
+import com.homeheaven.service.ContactRequestService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Contact requests: sent by users, handled by owners from their inbox
+ */
+@RestController
+@RequestMapping("/api/contact-requests")
+@RequiredArgsConstructor
+@Slf4j
+public class ContactRequestController {
+    
+    private final ContactRequestService contactRequestService;
+    
+    @PostMapping
+    public ResponseEntity<ContactRequestResponse> createRequest(
+            @Valid @RequestBody ContactRequestRequest request,
+            Authentication authentication) {
+        
+        log.info("POST /api/contact-requests - user: {}, property: {}", authentication.getName(), request.getPropertyId());
+        return ResponseEntity.ok(contactRequestService.createRequest(request, authentication.getName()));
+    }
+    
+    @GetMapping("/inbox")
+    public ResponseEntity<ContactInboxResponse> getInbox(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        
+        log.info("GET /api/contact-requests/inbox - user: {}, status: {}", authentication.getName(), status);
+        return ResponseEntity.ok(contactRequestService.getInbox(authentication.getName(), status, before, limit));
+    }
+    
+    @GetMapping("/inbox/counts")
+    public ResponseEntity<ContactInboxResponse.Counts> getCounts(Authentication authentication) {
+        log.info("GET /api/contact-requests/inbox/counts - user: {}", authentication.getName());
+        return ResponseEntity.ok(contactRequestService.getCounts(authentication.getName()));
+    }
+    
+    @GetMapping("/sent")
+    public ResponseEntity<ContactInboxResponse> getSent(
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        
+        log.info("GET /api/contact-requests/sent - user: {}", authentication.getName());
+        return ResponseEntity.ok(contactRequestService.getSent(authentication.getName(), before, limit));
+    }
+    
+    @PostMapping("/{id}/read")
+    public ResponseEntity<ContactRequestResponse> markRead(@PathVariable Long id, Authentication authentication) {
+        log.info("POST /api/contact-requests/{}/read - user: {}", id, authentication.getName());
+        return ResponseEntity.ok(contactRequestService.markRead(id, authentication.getName()));
+    }
+    
+    @PutMapping("/{id}/status")
+    public ResponseEntity<ContactRequestResponse> updateStatus(
+            @PathVariable Long id,
+            @Valid @RequestBody ContactStatusRequest request,
+            Authentication authentication) {
+        
+        log.info("PUT /api/contact-requests/{}/status - user: {}, status: {}", id, authentication.getName(),
+                request.getStatus());
+        return ResponseEntity.ok(contactRequestService.updateStatus(id, request.getStatus(), authentication.getName()));
+    }
+}
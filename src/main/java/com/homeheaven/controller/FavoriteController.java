@@ -0,0 +1,60 @@
+package com.homeheaven.controller;
+
+import com.homeheaven.dto.response.FavoriteResponse;
+import com.homeheaven.dto.response.PropertyResponse;
+import com.homeheaven.service.FavoriteService;
+import com.homeheaven.service.PropertyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Favorites of the signed-in user
+ */
+@RestController
+@RequestMapping("/api/favorites")
+@RequiredArgsConstructor
+@Slf4j
+public class FavoriteController {
+    
+    private static final int MAX_CONTAINS_IDS = 200;
+    
+    private final FavoriteService favoriteService;
+    private final PropertyService propertyService;
+    
+    @GetMapping
+    public ResponseEntity<List<PropertyResponse>> getFavorites(Authentication authentication) {
+        log.info("GET /api/favorites - user: {}", authentication.getName());
+        return ResponseEntity.ok(propertyService.getFavoriteProperties(authentication.getName()));
+    }
+    
+    /**
+     * Which of the given property ids are favorited, e.g. to mark a page of cards
+     */
+    @GetMapping("/contains")
+    public ResponseEntity<Set<Long>> getFavoritedAmong(
+            @RequestParam List<Long> ids,
+            Authentication authentication) {
+        
+        log.info("GET /api/favorites/contains - user: {}, ids: {}", authentication.getName(), ids.size());
+        List<Long> capped = ids.size() > MAX_CONTAINS_IDS ? ids.subList(0, MAX_CONTAINS_IDS) : ids;
+        return ResponseEntity.ok(favoriteService.getFavoritedAmong(capped, authentication.getName()));
+    }
+    
+    @PostMapping("/{propertyId}")
+    public ResponseEntity<FavoriteResponse> addFavorite(@PathVariable Long propertyId, Authentication authentication) {
+        log.info("POST /api/favorites/{} - user: {}", propertyId, authentication.getName());
+        return ResponseEntity.ok(favoriteService.addFavorite(propertyId, authentication.getName()));
+    }
+    
+    @DeleteMapping("/{propertyId}")
+    public ResponseEntity<FavoriteResponse> removeFavorite(@PathVariable Long propertyId, Authentication authentication) {
+        log.info("DELETE /api/favorites/{} - user: {}", propertyId, authentication.getName());
+        return ResponseEntity.ok(favoriteService.removeFavorite(propertyId, authentication.getName()));
+    }
+}
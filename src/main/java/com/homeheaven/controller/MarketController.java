@@ -0,0 +1,26 @@
+package com.homeheaven.controller;
+
+import com.homeheaven.dto.response.RentStatsResponse;
+import com.homeheaven.service.analytics.MarketStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/market")
+@RequiredArgsConstructor
+@Slf4j
+public class MarketController {
+    
+    private final MarketStatsService marketStatsService;
+    
+    @GetMapping("/rent-stats")
+    public ResponseEntity<RentStatsResponse> getRentStats(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String type) {
+        
+        log.info("GET /api/market/rent-stats - city: {}, type: {}", city, type);
+        return ResponseEntity.ok(marketStatsService.getRentStats(city, type));
+    }
+}
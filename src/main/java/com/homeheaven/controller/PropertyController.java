@@ -1,17 +1,34 @@
 package com.homeheaven.controller;
 
 import com.homeheaven.dto.request.PropertyRequest;
+import com.homeheaven.dto.response.BulkImportResponse;
+import com.homeheaven.dto.response.ClusterResponse;
 import com.homeheaven.dto.response.PropertyResponse;
+import com.homeheaven.dto.response.TimeSeriesResponse;
+import com.homeheaven.dto.response.UniqueViewersResponse;
+import com.homeheaven.service.ListingStreamService;
+import com.homeheaven.service.PropertyImportService;
 import com.homeheaven.service.PropertyService;
+import com.homeheaven.service.analytics.AnalyticsService;
+import com.homeheaven.service.geo.GeoQuery;
+import com.homeheaven.service.geo.MapClusterService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,6 +38,10 @@ import java.util.List;
 public class PropertyController {
     
     private final PropertyService propertyService;
+    private final PropertyImportService propertyImportService;
+    private final AnalyticsService analyticsService;
+    private final ListingStreamService listingStreamService;
+    private final MapClusterService mapClusterService;
     
     @PostMapping("/upload")
     public ResponseEntity<PropertyResponse> uploadProperty(
@@ -37,26 +58,122 @@ public class PropertyController {
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/import")
+    public ResponseEntity<BulkImportResponse> importProperties(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "images", required = false) MultipartFile images,
+            Authentication authentication) {
+        
+        log.info("POST /api/properties/import - user: {}, file: {}", authentication.getName(), file.getOriginalFilename());
+        BulkImportResponse response = propertyImportService.importListings(file, images, authentication.getName());
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/{id}")
-    public ResponseEntity<PropertyResponse> getProperty(@PathVariable Long id) {
+    public ResponseEntity<PropertyResponse> getProperty(
+            @PathVariable Long id,
+            Authentication authentication,
+            HttpServletRequest request) {
         log.info("GET /api/properties/{}", id);
-        PropertyResponse response = propertyService.getPropertyById(id);
+        PropertyResponse response = propertyService.getPropertyById(id, viewerKey(authentication, request));
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/{id}/analytics/views")
+    public ResponseEntity<TimeSeriesResponse> getPropertyViews(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String granularity,
+            Authentication authentication) {
+        log.info("GET /api/properties/{}/analytics/views - user: {}", id, authentication.getName());
+        return ResponseEntity.ok(analyticsService.getPropertyViews(id, authentication.getName(), from, to, granularity));
+    }
+    
     @GetMapping("/search")
     public ResponseEntity<List<PropertyResponse>> searchProperties(
             @RequestParam(required = false) String city,
             @RequestParam(required = false) BigDecimal minRent,
             @RequestParam(required = false) BigDecimal maxRent,
-            @RequestParam(required = false) String type) {
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String bbox,
+            Authentication authentication) {
         
-        log.info("GET /api/properties/search - city: {}, minRent: {}, maxRent: {}, type: {}", 
-                city, minRent, maxRent, type);
-        List<PropertyResponse> properties = propertyService.searchProperties(city, minRent, maxRent, type);
+        log.info("GET /api/properties/search - city: {}, minRent: {}, maxRent: {}, type: {}, lat: {}, lng: {}, " +
+                "radiusKm: {}, bbox: {}", city, minRent, maxRent, type, lat, lng, radiusKm, bbox);
+        List<PropertyResponse> properties = propertyService.searchProperties(city, minRent, maxRent, type,
+                new GeoQuery(lat, lng, radiusKm, bbox), isSignedIn(authentication) ? authentication.getName() : null);
         return ResponseEntity.ok(properties);
     }
     
+    @GetMapping("/{id}/analytics/unique-viewers")
+    public ResponseEntity<UniqueViewersResponse> getUniqueViewers(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        log.info("GET /api/properties/{}/analytics/unique-viewers - user: {}", id, authentication.getName());
+        return ResponseEntity.ok(analyticsService.getUniqueViewers(id, authentication.getName(), from, to));
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamProperties(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) BigDecimal minRent,
+            @RequestParam(required = false) BigDecimal maxRent,
+            @RequestParam(required = false) String type,
+            HttpServletRequest request) {
+        
+        log.info("GET /api/properties/stream - city: {}, minRent: {}, maxRent: {}, type: {}",
+                city, minRent, maxRent, type);
+        return listingStreamService.subscribe(city, minRent, maxRent, type, request.getRemoteAddr())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+    
+    @GetMapping("/trending")
+    public ResponseEntity<List<PropertyResponse>> getTrendingProperties(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        log.info("GET /api/properties/trending - city: {}, type: {}, limit: {}", city, type, limit);
+        return ResponseEntity.ok(propertyService.getTrendingProperties(city, type, limit));
+    }
+    
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<PropertyResponse>> getSimilarProperties(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        log.info("GET /api/properties/{}/similar - limit: {}", id, limit);
+        return ResponseEntity.ok(propertyService.getSimilarProperties(id, limit));
+    }
+    
+    @GetMapping("/{id}/also-viewed")
+    public ResponseEntity<List<PropertyResponse>> getAlsoViewedProperties(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        log.info("GET /api/properties/{}/also-viewed - limit: {}", id, limit);
+        return ResponseEntity.ok(propertyService.getAlsoViewedProperties(id, limit));
+    }
+    
+    /**
+     * Pre-aggregated map clusters for a viewport; bbox is minLat,minLng,maxLat,maxLng
+     */
+    @GetMapping("/clusters")
+    public ResponseEntity<ClusterResponse> getClusters(
+            @RequestParam String bbox,
+            @RequestParam int zoom) {
+        
+        log.info("GET /api/properties/clusters - bbox: {}, zoom: {}", bbox, zoom);
+        return ResponseEntity.ok(mapClusterService.getClusters(bbox, zoom));
+    }
+    
     @GetMapping("/my-properties")
     public ResponseEntity<List<PropertyResponse>> getMyProperties(Authentication authentication) {
         log.info("GET /api/properties/my-properties - user: {}", authentication.getName());
@@ -81,4 +198,17 @@ public class PropertyController {
         propertyService.deleteProperty(id, authentication.getName());
         return ResponseEntity.ok("Property deleted successfully");
     }
+    
+    private String viewerKey(Authentication authentication, HttpServletRequest request) {
+        if (isSignedIn(authentication)) {
+            return "u:" + authentication.getName();
+        }
+        // X-Forwarded-For is applied by the container only for trusted proxies (server.forward-headers-strategy)
+        return "ip:" + request.getRemoteAddr();
+    }
+    
+    private boolean isSignedIn(Authentication authentication) {
+        return authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+    }
 }
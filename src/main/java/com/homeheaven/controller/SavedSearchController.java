@@ -0,0 +1,47 @@
+package com.homeheaven.controller;
+
+import com.homeheaven.dto.request.SavedSearchRequest;
+import com.homeheaven.dto.response.SavedSearchResponse;
+import com.homeheaven.service.SavedSearchService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Saved searches; matching new listings are emailed in periodic digests
+ */
+@RestController
+@RequestMapping("/api/saved-searches")
+@RequiredArgsConstructor
+@Slf4j
+public class SavedSearchController {
+    
+    private final SavedSearchService savedSearchService;
+    
+    @GetMapping
+    public ResponseEntity<List<SavedSearchResponse>> getSavedSearches(Authentication authentication) {
+        log.info("GET /api/saved-searches - user: {}", authentication.getName());
+        return ResponseEntity.ok(savedSearchService.getSavedSearches(authentication.getName()));
+    }
+    
+    @PostMapping
+    public ResponseEntity<SavedSearchResponse> createSavedSearch(
+            @Valid @RequestBody SavedSearchRequest request,
+            Authentication authentication) {
+        
+        log.info("POST /api/saved-searches - user: {}", authentication.getName());
+        return ResponseEntity.ok(savedSearchService.createSavedSearch(request, authentication.getName()));
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> deleteSavedSearch(@PathVariable Long id, Authentication authentication) {
+        log.info("DELETE /api/saved-searches/{} - user: {}", id, authentication.getName());
+        savedSearchService.deleteSavedSearch(id, authentication.getName());
+        return ResponseEntity.ok("Saved search deleted successfully");
+    }
+}
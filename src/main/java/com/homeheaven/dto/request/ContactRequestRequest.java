@@ -0,0 +1,14 @@
+package com.homeheaven.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ContactRequestRequest {
+    @NotNull(message = "Property is required")
+    private Long propertyId;
+    
+    @Size(max = 2000, message = "Message must be at most 2000 characters")
+    private String message;
+}
@@ -0,0 +1,10 @@
+package com.homeheaven.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class ContactStatusRequest {
+    @NotBlank(message = "Status is required")
+    private String status;
+}
@@ -26,6 +26,15 @@ public class PropertyRequest {
     
     private String sharingOption;
     
+    /** Optional; when both are absent the address is geocoded */
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+    
     @NotBlank(message = "Description is required")
     @Size(min = 100, message = "Description must be at least 100 characters")
     private String description;
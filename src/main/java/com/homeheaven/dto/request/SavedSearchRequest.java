@@ -0,0 +1,24 @@
+package com.homeheaven.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class SavedSearchRequest {
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must be at most 100 characters")
+    private String name;
+    
+    @Size(max = 100, message = "City must be at most 100 characters")
+    private String city;
+    
+    private String propertyType;
+    
+    @DecimalMin(value = "0.0", message = "Minimum rent must not be negative")
+    private BigDecimal minRent;
+    
+    @DecimalMin(value = "0.0", message = "Maximum rent must not be negative")
+    private BigDecimal maxRent;
+}
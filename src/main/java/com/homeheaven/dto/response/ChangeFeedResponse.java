@@ -0,0 +1,35 @@
+package com.homeheaven.dto.response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedResponse {
+    private List<Change> changes;
+    private long nextCursor;
+    private boolean hasMore;
+    /** The cursor is older than purged tombstones; restart from cursor 0 */
+    private boolean resyncRequired;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private long cursor;
+        private Long propertyId;
+        /** UPSERT carries the full listing; DELETE is a tombstone without data */
+        private String type;
+        private LocalDateTime changedAt;
+        private JsonNode data;
+    }
+}
@@ -0,0 +1,33 @@
+package com.homeheaven.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterResponse {
+    /** Zoom level the clusters were taken from (coarser than requested if the box was too dense) */
+    private int zoom;
+    private List<Cluster> clusters;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cluster {
+        private double latitude;
+        private double longitude;
+        private int count;
+        private BigDecimal minRent;
+        private BigDecimal maxRent;
+        /** Set when the cluster is a single listing */
+        private Long propertyId;
+    }
+}
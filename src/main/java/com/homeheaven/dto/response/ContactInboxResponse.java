@@ -0,0 +1,30 @@
+package com.homeheaven.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContactInboxResponse {
+    private List<ContactRequestResponse> requests;
+    /** Pass as "before" to fetch the next (older) page; null on the last page */
+    private String nextCursor;
+    private Counts counts;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Counts {
+        private int unread;
+        private int pending;
+        private int contacted;
+        private int closed;
+    }
+}
@@ -0,0 +1,35 @@
+package com.homeheaven.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContactRequestResponse {
+    private Long id;
+    private Long propertyId;
+    private String propertyName;
+    private String message;
+    private String status;
+    private Boolean isRead;
+    /** Requester contact details, included for the owner only */
+    private Requester requester;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Requester {
+        private String username;
+        private String email;
+        private String phone;
+    }
+}
@@ -0,0 +1,34 @@
+package com.homeheaven.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateClusterResponse {
+    private int size;
+    /** Oldest first, so the first listing is most likely the original */
+    private List<Listing> listings;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Listing {
+        private Long propertyId;
+        private String name;
+        private String city;
+        private BigDecimal rent;
+        private String ownerUsername;
+        private Boolean isAvailable;
+        private LocalDateTime createdAt;
+    }
+}
@@ -0,0 +1,16 @@
+package com.homeheaven.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteResponse {
+    private Long propertyId;
+    private boolean favorited;
+    private Integer favoriteCount;
+}
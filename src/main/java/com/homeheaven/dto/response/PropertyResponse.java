@@ -27,6 +27,15 @@ public class PropertyResponse {
     private String images;
     private OwnerInfo owner;
     private LocalDateTime createdAt;
+    private Double latitude;
+    private Double longitude;
+    /** Distance from the search centre, on geo searches only */
+    private Double distanceKm;
+    private Integer favoriteCount;
+    /** Set on cards returned to a signed-in user */
+    private Boolean favorited;
+    /** Set on create/update when the listing was flagged as a near-duplicate of this one */
+    private Long duplicateOf;
     
     @Data
     @Builder
@@ -0,0 +1,23 @@
+package com.homeheaven.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchResponse {
+    private Long id;
+    private String name;
+    private String city;
+    private String propertyType;
+    private BigDecimal minRent;
+    private BigDecimal maxRent;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,31 @@
+package com.homeheaven.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniqueViewersResponse {
+    private Long propertyId;
+    private LocalDate from;
+    private LocalDate to;
+    private long uniqueViewers;
+    private double standardError;
+    private List<Day> days;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Day {
+        private LocalDate day;
+        private long uniqueViewers;
+    }
+}
@@ -0,0 +1,7 @@
+package com.homeheaven.event;
+
+/**
+ * Published when a user adds or removes a favorite
+ */
+public record FavoriteChangedEvent(Long userId, Long propertyId, boolean added) {
+}
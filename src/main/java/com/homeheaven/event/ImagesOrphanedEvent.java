@@ -0,0 +1,9 @@
+package com.homeheaven.event;
+
+import java.util.List;
+
+/**
+ * Published when image rows are deleted; the files are removed after commit
+ */
+public record ImagesOrphanedEvent(List<String> imagePaths) {
+}
@@ -0,0 +1,11 @@
+package com.homeheaven.event;
+
+import java.util.List;
+
+/**
+ * Published by bulk paths (user deletion, an import chunk) instead of one
+ * PropertyChangedEvent per property, so listeners can apply the changes
+ * together (one lock, one batched statement)
+ */
+public record PropertyBatchChangedEvent(List<PropertyChangedEvent> changes) {
+}
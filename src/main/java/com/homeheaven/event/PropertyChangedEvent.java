@@ -0,0 +1,39 @@
+package com.homeheaven.event;
+
+/**
+ * Published when a property is created, updated, deleted or its availability changes.
+ * before is null for CREATED, after is null for DELETED.
+ */
+public record PropertyChangedEvent(ChangeType type, PropertySnapshot before, PropertySnapshot after) {
+    
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED, AVAILABILITY_CHANGED
+    }
+    
+    public static PropertyChangedEvent created(PropertySnapshot after) {
+        return new PropertyChangedEvent(ChangeType.CREATED, null, after);
+    }
+    
+    public static PropertyChangedEvent updated(PropertySnapshot before, PropertySnapshot after) {
+        return new PropertyChangedEvent(ChangeType.UPDATED, before, after);
+    }
+    
+    public static PropertyChangedEvent deleted(PropertySnapshot before) {
+        return new PropertyChangedEvent(ChangeType.DELETED, before, null);
+    }
+    
+    public static PropertyChangedEvent availabilityChanged(PropertySnapshot before, PropertySnapshot after) {
+        return new PropertyChangedEvent(ChangeType.AVAILABILITY_CHANGED, before, after);
+    }
+    
+    public Long propertyId() {
+        return after != null ? after.id() : before.id();
+    }
+    
+    /**
+     * Current state, or the last known state for deletions
+     */
+    public PropertySnapshot latest() {
+        return after != null ? after : before;
+    }
+}
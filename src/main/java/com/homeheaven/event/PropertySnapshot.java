@@ -0,0 +1,65 @@
+package com.homeheaven.event;
+
+import com.homeheaven.model.Property;
+import com.homeheaven.model.PropertyImage;
+import com.homeheaven.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Immutable copy of a property's state, carried by domain events so
+ * listeners don't need to reload it after commit.
+ * Bulk deletions carry a reduced snapshot without address, description
+ * and primary image.
+ */
+public record PropertySnapshot(
+        Long id,
+        Long ownerId,
+        String ownerUsername,
+        String ownerPhone,
+        String name,
+        String address,
+        String city,
+        Property.PropertyType propertyType,
+        BigDecimal rent,
+        Integer sqft,
+        String sharingOption,
+        String description,
+        boolean available,
+        String primaryImage,
+        LocalDateTime createdAt,
+        Double latitude,
+        Double longitude
+) {
+    
+    public static PropertySnapshot of(Property property) {
+        User owner = property.getOwner();
+        String primaryImage = property.getImages().stream()
+                .min(Comparator.comparing((PropertyImage i) -> !Boolean.TRUE.equals(i.getIsPrimary()))
+                        .thenComparing(i -> i.getDisplayOrder() != null ? i.getDisplayOrder() : 0))
+                .map(PropertyImage::getImagePath)
+                .orElse(null);
+        
+        return new PropertySnapshot(
+                property.getId(),
+                owner.getId(),
+                owner.getUsername(),
+                owner.getPhone(),
+                property.getName(),
+                property.getAddress(),
+                property.getCity(),
+                property.getPropertyType(),
+                property.getRent(),
+                property.getSqft(),
+                property.getSharingOption(),
+                property.getDescription(),
+                Boolean.TRUE.equals(property.getIsAvailable()),
+                primaryImage,
+                property.getCreatedAt() != null ? property.getCreatedAt() : LocalDateTime.now(),
+                property.getLatitude(),
+                property.getLongitude()
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.homeheaven.event;
+
+import com.homeheaven.model.Property;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a property detail page is viewed.
+ * viewerKey is "u:" + username for signed-in users, otherwise "ip:" + client address.
+ */
+public record PropertyViewedEvent(
+        Long propertyId,
+        Long ownerId,
+        String city,
+        Property.PropertyType propertyType,
+        boolean available,
+        String viewerKey,
+        LocalDateTime viewedAt
+) {
+}
@@ -0,0 +1,23 @@
+package com.homeheaven.event;
+
+import com.homeheaven.model.Property;
+
+import java.math.BigDecimal;
+
+/**
+ * Published when a saved search is created or deleted
+ */
+public record SavedSearchChangedEvent(
+        ChangeType type,
+        Long searchId,
+        Long userId,
+        String city,
+        Property.PropertyType propertyType,
+        BigDecimal minRent,
+        BigDecimal maxRent
+) {
+    
+    public enum ChangeType {
+        CREATED, DELETED
+    }
+}
@@ -0,0 +1,23 @@
+package com.homeheaven.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a user registers, is blocked/unblocked or is deleted.
+ * wasActive is the state before the change (false for a registration), so
+ * blocking an already blocked user changes nothing.
+ */
+public record UserChangedEvent(
+        ChangeType type,
+        Long userId,
+        String username,
+        String email,
+        boolean active,
+        boolean wasActive,
+        LocalDateTime occurredAt
+) {
+    
+    public enum ChangeType {
+        REGISTERED, BLOCKED, UNBLOCKED, DELETED
+    }
+}
@@ -2,6 +2,8 @@ package com.homeheaven.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,14 +17,22 @@ import java.util.List;
  */
 @Entity
 @Table(name = "properties")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "homeheaven.property")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Property {
     
+    /**
+     * Ids are allocated in pools from id_generators (not IDENTITY) so inserts can be batched
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "property_ids")
+    @TableGenerator(name = "property_ids", table = "id_generators",
+            pkColumnName = "gen_name", valueColumnName = "next_val",
+            pkColumnValue = "properties", allocationSize = 100)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -57,9 +67,15 @@ public class Property {
     @Column(name = "is_available")
     private Boolean isAvailable = true;
     
-    @Column(name = "view_count")
+    /** Counted with an atomic UPDATE, never written back from a (possibly cached) entity */
+    @Column(name = "view_count", insertable = false, updatable = false)
     private Integer viewCount = 0;
     
+    /** Set by the owner or the offline geocoder; null if the city is unknown */
+    private Double latitude;
+    
+    private Double longitude;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -69,6 +85,7 @@ public class Property {
     private LocalDateTime updatedAt;
     
     @OneToMany(mappedBy = "property", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "homeheaven.property.images")
     @ToString.Exclude
     @Builder.Default
     private List<PropertyImage> images = new ArrayList<>();
@@ -2,6 +2,8 @@ package com.homeheaven.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -11,6 +13,8 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "property_images")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "homeheaven.property-image")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,7 +22,10 @@ import java.time.LocalDateTime;
 public class PropertyImage {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "property_image_ids")
+    @TableGenerator(name = "property_image_ids", table = "id_generators",
+            pkColumnName = "gen_name", valueColumnName = "next_val",
+            pkColumnValue = "property_images", allocationSize = 100)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,71 @@
+package com.homeheaven.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized listing card (read model). One flat row per property with
+ * the primary image and owner summary, maintained from domain events.
+ */
+@Entity
+@Table(name = "property_listings")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PropertyListing {
+    
+    @Id
+    @Column(name = "property_id")
+    private Long propertyId;
+    
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+    
+    @Column(name = "owner_username", nullable = false, length = 50)
+    private String ownerUsername;
+    
+    @Column(name = "owner_phone", length = 20)
+    private String ownerPhone;
+    
+    @Column(nullable = false, length = 200)
+    private String name;
+    
+    @Column(nullable = false, length = 100)
+    private String city;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "property_type", nullable = false)
+    private Property.PropertyType propertyType;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal rent;
+    
+    private Integer sqft;
+    
+    @Column(name = "sharing_option", length = 50)
+    private String sharingOption;
+    
+    @Column(length = 255)
+    private String summary;
+    
+    @Column(name = "is_available", nullable = false)
+    private Boolean isAvailable;
+    
+    @Column(name = "primary_image", length = 500)
+    private String primaryImage;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    private Double latitude;
+    
+    private Double longitude;
+    
+    /** Maintained by FavoriteService with atomic increments, never written through the entity */
+    @Column(name = "favorite_count", insertable = false, updatable = false)
+    private Integer favoriteCount;
+}
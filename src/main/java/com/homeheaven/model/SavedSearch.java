@@ -0,0 +1,52 @@
+package com.homeheaven.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A user's saved search; new and updated listings matching it are sent
+ * to the user in periodic digests
+ */
+@Entity
+@Table(name = "saved_searches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SavedSearch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    private User user;
+    
+    @Column(nullable = false, length = 100)
+    private String name;
+    
+    /** Null matches any city */
+    @Column(length = 100)
+    private String city;
+    
+    /** Null matches any type */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "property_type")
+    private Property.PropertyType propertyType;
+    
+    @Column(name = "min_rent", precision = 10, scale = 2)
+    private BigDecimal minRent;
+    
+    @Column(name = "max_rent", precision = 10, scale = 2)
+    private BigDecimal maxRent;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
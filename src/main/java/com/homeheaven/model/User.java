@@ -2,7 +2,11 @@ package com.homeheaven.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -14,6 +18,9 @@ import java.util.List;
  */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "homeheaven.user")
+@NaturalIdCache(region = "homeheaven.user.username")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,6 +31,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @NaturalId
     @Column(unique = true, nullable = false, length = 50)
     private String username;
     
@@ -54,7 +62,8 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    @Column(name = "last_login")
+    /** Written only by LastLoginTracker, never back from a (possibly cached) entity */
+    @Column(name = "last_login", insertable = false, updatable = false)
     private LocalDateTime lastLogin;
     
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, orphanRemoval = true)
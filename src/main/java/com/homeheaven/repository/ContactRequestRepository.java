@@ -0,0 +1,75 @@
+package com.homeheaven.repository;
+
+import com.homeheaven.model.ContactRequest;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ContactRequestRepository extends JpaRepository<ContactRequest, Long> {
+    
+    /**
+     * One inbox page: requests to an owner older than the (createdAt, id) cursor, newest first
+     */
+    @Query("SELECT c FROM ContactRequest c " +
+           "JOIN FETCH c.property JOIN FETCH c.requester " +
+           "WHERE c.owner.id = :ownerId " +
+           "AND (:status IS NULL OR c.status = :status) " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ContactRequest> findInboxPage(
+            @Param("ownerId") Long ownerId,
+            @Param("status") ContactRequest.Status status,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+    
+    /**
+     * One page of requests sent by a user, older than the (createdAt, id) cursor, newest first
+     */
+    @Query("SELECT c FROM ContactRequest c " +
+           "JOIN FETCH c.property " +
+           "WHERE c.requester.id = :requesterId " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ContactRequest> findSentPage(
+            @Param("requesterId") Long requesterId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+    
+    /**
+     * Load a request with a row lock, so concurrent status changes adjust the counters once each
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ContactRequest c WHERE c.id = :id")
+    Optional<ContactRequest> findByIdForUpdate(@Param("id") Long id);
+    
+    boolean existsByRequesterIdAndPropertyIdAndStatus(Long requesterId, Long propertyId, ContactRequest.Status status);
+    
+    /**
+     * Mark a request read; returns 1 only if it was unread
+     */
+    @Modifying
+    @Query("UPDATE ContactRequest c SET c.isRead = TRUE WHERE c.id = :id AND c.isRead = FALSE")
+    int markRead(@Param("id") Long id);
+    
+    @Modifying
+    @Query("DELETE FROM ContactRequest c WHERE c.property.id = :propertyId")
+    int deleteByPropertyId(@Param("propertyId") Long propertyId);
+    
+    @Modifying
+    @Query("DELETE FROM ContactRequest c WHERE c.requester.id = :requesterId")
+    int deleteByRequesterId(@Param("requesterId") Long requesterId);
+}
@@ -0,0 +1,42 @@
+package com.homeheaven.repository;
+
+import com.homeheaven.model.Favorite;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
+    
+    /**
+     * Insert a favorite unless it already exists; returns 1 if a row was added
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO favorites (user_id, property_id) VALUES (:userId, :propertyId)",
+           nativeQuery = true)
+    int insertIgnore(@Param("userId") Long userId, @Param("propertyId") Long propertyId);
+    
+    /**
+     * Delete a favorite; returns 1 if a row was removed
+     */
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.user.id = :userId AND f.property.id = :propertyId")
+    int deleteByUserIdAndPropertyId(@Param("userId") Long userId, @Param("propertyId") Long propertyId);
+    
+    /**
+     * Favorited property ids of a user, most recent first
+     */
+    @Query("SELECT f.property.id FROM Favorite f WHERE f.user.id = :userId ORDER BY f.createdAt DESC, f.id DESC")
+    List<Long> findPropertyIdsByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Delete all favorites of a user
+     */
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
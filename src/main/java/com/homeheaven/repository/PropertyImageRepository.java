@@ -3,6 +3,9 @@ package com.homeheaven.repository;
 import com.homeheaven.model.Property;
 import com.homeheaven.model.PropertyImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -33,4 +36,18 @@ public interface PropertyImageRepository extends JpaRepository<PropertyImage, Lo
      * Count images for a property
      */
     long countByProperty(Property property);
+    
+    /**
+     * Image paths of all properties of an owner
+     */
+    @Query("SELECT i.imagePath FROM PropertyImage i WHERE i.property.owner.id = :ownerId")
+    List<String> findImagePathsByOwnerId(@Param("ownerId") Long ownerId);
+    
+    /**
+     * Bulk delete images of all properties of an owner
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM PropertyImage i WHERE i.property.id IN " +
+           "(SELECT p.id FROM Property p WHERE p.owner.id = :ownerId)")
+    int deleteByOwnerId(@Param("ownerId") Long ownerId);
 }
@@ -0,0 +1,71 @@
+package com.homeheaven.repository;
+
+import com.homeheaven.model.Property;
+import com.homeheaven.model.PropertyListing;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repository for the PropertyListing read model
+ */
+@Repository
+public interface PropertyListingRepository extends JpaRepository<PropertyListing, Long> {
+    
+    /**
+     * Search listings with optional filters (single-table)
+     */
+    @Query("SELECT l FROM PropertyListing l WHERE " +
+           "(:city IS NULL OR LOWER(l.city) LIKE LOWER(CONCAT('%', :city, '%'))) AND " +
+           "(:minRent IS NULL OR l.rent >= :minRent) AND " +
+           "(:maxRent IS NULL OR l.rent <= :maxRent) AND " +
+           "(:type IS NULL OR l.propertyType = :type) " +
+           "ORDER BY l.createdAt DESC")
+    List<PropertyListing> search(
+            @Param("city") String city,
+            @Param("minRent") BigDecimal minRent,
+            @Param("maxRent") BigDecimal maxRent,
+            @Param("type") Property.PropertyType type
+    );
+    
+    /**
+     * Listings of an owner, newest first
+     */
+    List<PropertyListing> findByOwnerIdOrderByCreatedAtDesc(Long ownerId);
+    
+    /**
+     * Delete a listing row (no-op if already removed)
+     */
+    @Modifying
+    @Query("DELETE FROM PropertyListing l WHERE l.propertyId = :propertyId")
+    int deleteByPropertyId(@Param("propertyId") Long propertyId);
+    
+    /**
+     * Delete all listing rows of an owner
+     */
+    @Modifying
+    @Query("DELETE FROM PropertyListing l WHERE l.ownerId = :ownerId")
+    int deleteByOwnerId(@Param("ownerId") Long ownerId);
+    
+    /**
+     * Atomically adjust the favorite counter of a listing
+     */
+    @Modifying
+    @Query(value = "UPDATE property_listings SET favorite_count = GREATEST(favorite_count + :delta, 0) " +
+                   "WHERE property_id = :propertyId", nativeQuery = true)
+    int adjustFavoriteCount(@Param("propertyId") Long propertyId, @Param("delta") int delta);
+    
+    /**
+     * Decrement the favorite counters of every listing a user has favorited
+     */
+    @Modifying
+    @Query(value = "UPDATE property_listings l JOIN favorites f ON f.property_id = l.property_id " +
+                   "SET l.favorite_count = GREATEST(l.favorite_count - 1, 0) WHERE f.user_id = :userId",
+           nativeQuery = true)
+    int decrementFavoriteCountsOfUser(@Param("userId") Long userId);
+}
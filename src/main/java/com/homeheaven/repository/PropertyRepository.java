@@ -2,7 +2,10 @@ package com.homeheaven.repository;
 
 import com.homeheaven.model.Property;
 import com.homeheaven.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -68,4 +71,25 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
      * Count properties by availability
      */
     long countByIsAvailable(boolean isAvailable);
+    
+    /**
+     * Properties without coordinates after the given id, in id order (for the geocoding backfill)
+     */
+    @EntityGraph(attributePaths = "owner")
+    @Query("SELECT p FROM Property p WHERE p.latitude IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<Property> findUnlocatedAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Summary columns of an owner's properties (for events on bulk deletion)
+     */
+    @Query("SELECT p.id, p.name, p.city, p.propertyType, p.rent, p.sqft, p.sharingOption, p.isAvailable, p.createdAt " +
+           "FROM Property p WHERE p.owner.id = :ownerId")
+    List<Object[]> findSummariesByOwnerId(@Param("ownerId") Long ownerId);
+    
+    /**
+     * Bulk delete all properties of an owner
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Property p WHERE p.owner.id = :ownerId")
+    int deleteByOwnerId(@Param("ownerId") Long ownerId);
 }
@@ -0,0 +1,24 @@
+package com.homeheaven.repository;
+
+import com.homeheaven.model.SavedSearch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for SavedSearch entity
+ */
+@Repository
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+    
+    /**
+     * Saved searches of a user, newest first
+     */
+    List<SavedSearch> findByUserIdOrderByCreatedAtDesc(Long userId);
+    
+    /**
+     * Count saved searches of a user
+     */
+    long countByUserId(Long userId);
+}
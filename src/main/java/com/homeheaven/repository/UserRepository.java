@@ -1,7 +1,14 @@
 package com.homeheaven.repository;
 
 import com.homeheaven.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,12 +17,24 @@ import java.util.Optional;
  * Repository for User entity
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     
     /**
-     * Find user by username
+     * Load a user with a row lock (read from the database, not the cache), so
+     * status changes see the current state
      */
-    Optional<User> findByUsername(String username);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * Load a user for authentication, bypassing the second-level cache. The
+     * cache is node-local, so a password reset, block or delete made on
+     * another node would otherwise be missed until the entry expires
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheMode", value = "IGNORE"))
+    @Query("SELECT u FROM User u WHERE u.username = :username")
+    Optional<User> findByUsernameForAuthentication(@Param("username") String username);
     
     /**
      * Find user by email
@@ -41,4 +60,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Count users by active status
      */
     long countByIsActive(boolean isActive);
+    
+    /**
+     * Delete a user without loading its associations
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteByIdInBulk(@Param("id") Long id);
 }
@@ -0,0 +1,17 @@
+package com.homeheaven.repository;
+
+import com.homeheaven.model.User;
+
+import java.util.Optional;
+
+/**
+ * Custom User queries that go through the Hibernate Session API
+ */
+public interface UserRepositoryCustom {
+    
+    /**
+     * Find user by username (natural id, served from the natural-id cache).
+     * Authentication uses UserRepository.findByUsernameForAuthentication instead
+     */
+    Optional<User> findByUsername(String username);
+}
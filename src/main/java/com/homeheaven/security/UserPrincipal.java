@@ -0,0 +1,45 @@
+package com.homeheaven.security;
+
+import com.homeheaven.model.User.Role;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Authenticated principal carrying the user id and email alongside the
+ * standard Spring Security details, so callers don't need to reload the user
+ */
+@Getter
+public class UserPrincipal extends User {
+    
+    private final Long id;
+    private final String email;
+    
+    public UserPrincipal(Long id,
+                         String username,
+                         String email,
+                         String password,
+                         boolean active,
+                         Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, active, true, true, active, authorities);
+        this.id = id;
+        this.email = email;
+    }
+    
+    /**
+     * The user's role, matched exactly against the granted "ROLE_" authorities
+     */
+    public Role getRole() {
+        for (Role role : Role.values()) {
+            String expected = "ROLE_" + role.name();
+            for (GrantedAuthority authority : getAuthorities()) {
+                if (expected.equals(authority.getAuthority())) {
+                    return role;
+                }
+            }
+        }
+        throw new IllegalStateException("No role authority granted to " + getUsername());
+    }
+}
@@ -2,18 +2,26 @@ package com.homeheaven.service;
 
 import com.homeheaven.dto.response.PropertyResponse;
 import com.homeheaven.dto.response.UserResponse;
+import com.homeheaven.event.ImagesOrphanedEvent;
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.event.UserChangedEvent;
 import com.homeheaven.exception.ResourceNotFoundException;
 import com.homeheaven.model.Property;
 import com.homeheaven.model.PropertyImage;
 import com.homeheaven.model.User;
+import com.homeheaven.repository.PropertyImageRepository;
 import com.homeheaven.repository.PropertyRepository;
 import com.homeheaven.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -25,26 +33,14 @@ public class AdminService {
     
     private final UserRepository userRepository;
     private final PropertyRepository propertyRepository;
-    private final FileStorageService fileStorageService;
+    private final PropertyImageRepository propertyImageRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DashboardStatsService dashboardStatsService;
+    private final FavoriteService favoriteService;
+    private final ContactRequestService contactRequestService;
     
-    @Transactional(readOnly = true)
     public Map<String, Object> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.countByIsActive(true);
-        long totalProperties = propertyRepository.count();
-        long availableProperties = propertyRepository.countByIsAvailable(true);
-        
-        stats.put("totalUsers", totalUsers);
-        stats.put("activeUsers", activeUsers);
-        stats.put("blockedUsers", totalUsers - activeUsers);
-        stats.put("totalProperties", totalProperties);
-        stats.put("availableProperties", availableProperties);
-        stats.put("unavailableProperties", totalProperties - availableProperties);
-        
-        log.info("Dashboard stats retrieved: {} users, {} properties", totalUsers, totalProperties);
-        return stats;
+        return dashboardStatsService.getStats();
     }
     
     @Transactional(readOnly = true)
@@ -59,38 +55,54 @@ public class AdminService {
     
     @Transactional
     public void blockUser(Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findByIdForUpdate(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
+        boolean wasActive = Boolean.TRUE.equals(user.getIsActive());
         user.setIsActive(false);
         userRepository.save(user);
+        publishUserChanged(UserChangedEvent.ChangeType.BLOCKED, user, wasActive);
         log.info("User {} blocked", userId);
     }
     
     @Transactional
     public void unblockUser(Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findByIdForUpdate(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
+        boolean wasActive = Boolean.TRUE.equals(user.getIsActive());
         user.setIsActive(true);
         userRepository.save(user);
+        publishUserChanged(UserChangedEvent.ChangeType.UNBLOCKED, user, wasActive);
         log.info("User {} unblocked", userId);
     }
     
+    /**
+     * Delete a user with set-based statements (images, properties, user).
+     * Image files are removed asynchronously after commit.
+     */
     @Transactional
     public void deleteUser(Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findByIdForUpdate(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        // Delete all user's properties and their images
-        List<Property> properties = propertyRepository.findByOwner(user);
-        properties.forEach(property -> {
-            property.getImages().forEach(img -> fileStorageService.deleteFile(img.getImagePath()));
-            propertyRepository.delete(property);
-        });
+        List<PropertySnapshot> properties = propertyRepository.findSummariesByOwnerId(userId).stream()
+                .map(row -> toSummarySnapshot(row, user))
+                .collect(Collectors.toList());
+        List<String> imagePaths = propertyImageRepository.findImagePathsByOwnerId(userId);
+        
+        favoriteService.removeAllForUser(userId);
+        contactRequestService.removeAllForRequester(userId);
+        int deletedImages = propertyImageRepository.deleteByOwnerId(userId);
+        int deletedProperties = propertyRepository.deleteByOwnerId(userId);
+        userRepository.deleteByIdInBulk(userId);
         
-        userRepository.delete(user);
-        log.info("User {} and their {} properties deleted", userId, properties.size());
+        eventPublisher.publishEvent(new ImagesOrphanedEvent(imagePaths));
+        eventPublisher.publishEvent(new PropertyBatchChangedEvent(properties.stream()
+                .map(PropertyChangedEvent::deleted)
+                .collect(Collectors.toList())));
+        publishUserChanged(UserChangedEvent.ChangeType.DELETED, user, Boolean.TRUE.equals(user.getIsActive()));
+        log.info("User {} deleted with {} properties and {} images", userId, deletedProperties, deletedImages);
     }
     
     @Transactional(readOnly = true)
@@ -108,8 +120,14 @@ public class AdminService {
         Property property = propertyRepository.findById(propertyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Property not found"));
         
-        property.getImages().forEach(img -> fileStorageService.deleteFile(img.getImagePath()));
+        PropertySnapshot before = PropertySnapshot.of(property);
+        List<String> imagePaths = property.getImages().stream()
+                .map(PropertyImage::getImagePath)
+                .collect(Collectors.toList());
+        contactRequestService.removeAllForProperty(propertyId);
         propertyRepository.delete(property);
+        eventPublisher.publishEvent(new ImagesOrphanedEvent(imagePaths));
+        eventPublisher.publishEvent(PropertyChangedEvent.deleted(before));
         log.info("Property {} deleted by admin", propertyId);
     }
     
@@ -118,11 +136,41 @@ public class AdminService {
         Property property = propertyRepository.findById(propertyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Property not found"));
         
+        PropertySnapshot before = PropertySnapshot.of(property);
         property.setIsAvailable(!property.getIsAvailable());
         propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.availabilityChanged(before, PropertySnapshot.of(property)));
         log.info("Property {} availability toggled to {}", propertyId, property.getIsAvailable());
     }
     
+    // Reduced snapshot for bulk deletions: no address, description or image
+    private PropertySnapshot toSummarySnapshot(Object[] row, User owner) {
+        return new PropertySnapshot(
+                (Long) row[0],
+                owner.getId(),
+                owner.getUsername(),
+                owner.getPhone(),
+                (String) row[1],
+                null,
+                (String) row[2],
+                (Property.PropertyType) row[3],
+                (BigDecimal) row[4],
+                (Integer) row[5],
+                (String) row[6],
+                null,
+                Boolean.TRUE.equals(row[7]),
+                null,
+                (LocalDateTime) row[8],
+                null,
+                null
+        );
+    }
+    
+    private void publishUserChanged(UserChangedEvent.ChangeType type, User user, boolean wasActive) {
+        eventPublisher.publishEvent(new UserChangedEvent(type, user.getId(), user.getUsername(), user.getEmail(),
+                Boolean.TRUE.equals(user.getIsActive()), wasActive, LocalDateTime.now()));
+    }
+    
     private UserResponse mapToUserResponse(User user) {
         int propertyCount = propertyRepository.findByOwner(user).size();
         
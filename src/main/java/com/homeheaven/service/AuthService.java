@@ -2,13 +2,16 @@ package com.homeheaven.service;
 
 import com.homeheaven.dto.request.*;
 import com.homeheaven.dto.response.AuthResponse;
+import com.homeheaven.event.UserChangedEvent;
 import com.homeheaven.exception.BadRequestException;
-import com.homeheaven.exception.UnauthorizedException;
 import com.homeheaven.model.User;
 import com.homeheaven.repository.UserRepository;
 import com.homeheaven.security.JwtTokenProvider;
+import com.homeheaven.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -17,6 +20,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Authentication service for user registration, login, and password reset
@@ -31,6 +36,9 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
     private final OtpService otpService;
+    private final LastLoginTracker lastLoginTracker;
+    private final AvailabilityService availabilityService;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Register a new user
@@ -44,12 +52,11 @@ public class AuthService {
             throw new BadRequestException("Passwords do not match");
         }
         
-        // Check if username exists
+        // Indexed lookups, not the availability filter: it can lag behind other nodes
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new BadRequestException("Username already exists");
         }
         
-        // Check if email exists
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new BadRequestException("Email already exists");
         }
@@ -65,14 +72,33 @@ public class AuthService {
                 .isActive(true)
                 .build();
         
-        userRepository.save(user);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            // Registered concurrently since the checks above
+            throw new BadRequestException("Username or email already exists");
+        }
+        availabilityService.userRegistered(user.getUsername());
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.ChangeType.REGISTERED,
+                user.getId(), user.getUsername(), user.getEmail(), true, false, LocalDateTime.now()));
         log.info("User registered successfully: {}", user.getUsername());
     }
     
     /**
-     * Login user and generate JWT token
+     * Check username availability (empty result for a blank username)
+     */
+    public Map<String, Boolean> checkAvailability(String username) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        if (username != null && !username.isBlank()) {
+            result.put("usernameAvailable", !availabilityService.isUsernameTaken(username));
+        }
+        return result;
+    }
+    
+    /**
+     * Login user and generate JWT token.
+     * The last login time is recorded write-behind, so no writes happen here.
      */
-    @Transactional
     public AuthResponse login(LoginRequest request) {
         log.info("User login attempt: {}", request.getUsername());
         
@@ -87,27 +113,25 @@ public class AuthService {
         // Generate token
         String token = tokenProvider.generateToken(authentication);
         
-        // Update last login
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new UnauthorizedException("Invalid credentials"));
+        // Principal was already loaded by the authentication provider
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        lastLoginTracker.recordLogin(principal.getId(), LocalDateTime.now());
         
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
-        
-        log.info("User logged in successfully: {}", user.getUsername());
+        log.info("User logged in successfully: {}", principal.getUsername());
         
         // Return response
         return AuthResponse.builder()
                 .token(token)
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .role(user.getRole().name())
+                .username(principal.getUsername())
+                .email(principal.getEmail())
+                .role(principal.getRole().name())
                 .build();
     }
     
     /**
-     * Send OTP to email for password reset
+     * Send OTP to email for password reset (the email is queued in this transaction)
      */
+    @Transactional
     public void sendPasswordResetOtp(ForgotPasswordRequest request) {
         log.info("Sending OTP for password reset to email: {}", request.getEmail());
         
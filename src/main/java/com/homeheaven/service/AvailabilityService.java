@@ -0,0 +1,179 @@
+package com.homeheaven.service;
+
+import com.homeheaven.repository.UserRepository;
+import com.homeheaven.util.CountingBloomFilter;
+import com.homeheaven.util.RebuildableIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Username availability hint for the registration form, backed by an
+ * in-memory Bloom filter. A negative filter answer is taken as "available";
+ * only a "maybe taken" answer falls through to the indexed database lookup.
+ * The answer is only a hint: registration itself always checks the database.
+ * <p>
+ * The filter is built at startup and rebuilt larger when it fills up.
+ * Names registered on this node are added right away, and names registered
+ * on other nodes are picked up by polling the users table for new ids
+ * (rows are re-read until they are past the settle window, as in
+ * SavedSearchPercolator). Deleted names are left in the filter: this node
+ * may never have added them, and removing them could clear counters shared
+ * with other names. A leftover name only costs a database lookup.
+ */
+@Service
+@Slf4j
+public class AvailabilityService {
+    
+    private static final String SELECT_SQL = "SELECT id, username, " +
+            "created_at < TIMESTAMPADD(SECOND, -?, NOW()) AS settled FROM users ";
+    
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${auth.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${auth.availability.min-capacity:10000}")
+    private int minCapacity;
+    
+    @Value("${auth.availability.settle-seconds:10}")
+    private int settleSeconds;
+    
+    /** Null until the first build */
+    private final RebuildableIndex<Filter> filter = new RebuildableIndex<>(null);
+    
+    /** Highest user id whose row is past the settle window; -1 until the first build */
+    private long polledThrough = -1;
+    
+    public AvailabilityService(UserRepository userRepository, JdbcTemplate jdbcTemplate) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Build the filter from the users table once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long[] settledThrough = {0};
+        Filter fresh = filter.rebuild(() -> {
+            List<String> usernames = new ArrayList<>();
+            jdbcTemplate.query(SELECT_SQL, rs -> {
+                usernames.add(rs.getString("username"));
+                if (rs.getBoolean("settled")) {
+                    settledThrough[0] = Math.max(settledThrough[0], rs.getLong("id"));
+                }
+            }, settleSeconds);
+            
+            long capacity = Math.max(minCapacity, usernames.size() * 2L);
+            Filter loaded = new Filter(new CountingBloomFilter((int) capacity, falsePositiveRate), capacity,
+                    new AtomicLong());
+            usernames.forEach(loaded::add);
+            return loaded;
+        });
+        if (fresh == null) {
+            return;
+        }
+        synchronized (this) {
+            polledThrough = Math.max(polledThrough, settledThrough[0]);
+        }
+        log.info("Availability filter built for {} users (capacity {})", fresh.entries.get(), fresh.capacity);
+    }
+    
+    /**
+     * Add usernames registered on other nodes since the last poll
+     */
+    @Scheduled(initialDelayString = "${auth.availability.poll-interval:5000}",
+               fixedDelayString = "${auth.availability.poll-interval:5000}")
+    public void poll() {
+        long after;
+        synchronized (this) {
+            after = polledThrough;
+        }
+        if (after < 0) {
+            return;
+        }
+        
+        List<String> found = new ArrayList<>();
+        long[] settledThrough = {after};
+        jdbcTemplate.query(SELECT_SQL + "WHERE id > ? ORDER BY id", rs -> {
+            found.add(rs.getString("username"));
+            if (rs.getBoolean("settled")) {
+                settledThrough[0] = Math.max(settledThrough[0], rs.getLong("id"));
+            }
+        }, settleSeconds, after);
+        
+        filter.apply(current -> found.forEach(current::add));
+        synchronized (this) {
+            polledThrough = Math.max(polledThrough, settledThrough[0]);
+        }
+    }
+    
+    /**
+     * Rebuild with a larger capacity once registrations have filled the filter
+     */
+    @Scheduled(fixedDelayString = "${auth.availability.capacity-check-interval:60000}")
+    public void rebuildIfFull() {
+        Boolean full = filter.read(current -> current != null && current.entries.get() > current.capacity);
+        if (full) {
+            log.info("Availability filter over capacity, rebuilding");
+            rebuild();
+        }
+    }
+    
+    /**
+     * Whether a username is probably registered, for the availability hint
+     */
+    public boolean isUsernameTaken(String username) {
+        Boolean absent = filter.read(current ->
+                current != null && !current.usernames.mightContain(normalize(username)));
+        if (absent) {
+            return false;
+        }
+        return userRepository.existsByUsername(username);
+    }
+    
+    /**
+     * Add a newly registered username. Adding early is safe: a rolled back
+     * registration only leaves a false positive behind.
+     */
+    public void userRegistered(String username) {
+        filter.apply(current -> current.add(username));
+    }
+    
+    /**
+     * The users table uses utf8mb4_unicode_ci, which ignores case and accents
+     * ("José" and "jose" collide), so names are compared in that form
+     */
+    private static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+    
+    private record Filter(CountingBloomFilter usernames, long capacity, AtomicLong entries) {
+        
+        /**
+         * Names can arrive twice (registered here and then polled, or
+         * replayed onto a rebuild), so ones the filter may already hold are
+         * skipped to keep the entry count honest
+         */
+        void add(String username) {
+            String key = normalize(username);
+            if (!usernames.mightContain(key)) {
+                usernames.add(key);
+                entries.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.homeheaven.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes Hibernate second-level cache statistics per region
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsService {
+    
+    private final EntityManagerFactory entityManagerFactory;
+    
+    public Map<String, Object> getCacheStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            long requests = region.getHitCount() + region.getMissCount();
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            regionStats.put("hits", region.getHitCount());
+            regionStats.put("misses", region.getMissCount());
+            regionStats.put("puts", region.getPutCount());
+            regionStats.put("hitRatio", requests == 0 ? 0.0 : (double) region.getHitCount() / requests);
+            regionStats.put("elementsInMemory", region.getElementCountInMemory());
+            regions.put(regionName, regionStats);
+        }
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        stats.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        stats.put("naturalIdCacheHits", statistics.getNaturalIdCacheHitCount());
+        stats.put("naturalIdCacheMisses", statistics.getNaturalIdCacheMissCount());
+        stats.put("regions", regions);
+        return stats;
+    }
+}
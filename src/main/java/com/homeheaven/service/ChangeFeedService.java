@@ -0,0 +1,241 @@
+package com.homeheaven.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeheaven.dto.response.ChangeFeedResponse;
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only listing change log (listing_changes) for incremental mirrors.
+ * <p>
+ * Entries are written before commit, in the same transaction as the change
+ * itself, so the log never disagrees with the tables. Their auto-increment
+ * seq follows allocation order, and a transaction that took a lower seq can
+ * commit after a higher one, so readers do not page by seq. A sequencer
+ * (serialized across nodes by a lock on its meta row) gives committed
+ * entries a position in the order they become visible, and readers page by
+ * position: an entry is never positioned below one already served.
+ * Compaction keeps only the latest entry per property, and drops tombstones
+ * after a retention period; a consumer whose cursor is older than the purged
+ * tombstones is told to resync from cursor 0, which replays the latest state
+ * of every live listing.
+ * <p>
+ * In-memory indexes follow the same positions to pick up changes made on
+ * other nodes (see follow()).
+ */
+@Service
+@Slf4j
+public class ChangeFeedService {
+    
+    public static final String UPSERT = "UPSERT";
+    public static final String DELETE = "DELETE";
+    
+    private static final int MAX_LIMIT = 1000;
+    private static final int SEQUENCE_BATCH = 1000;
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO listing_changes (property_id, change_type, payload) VALUES (?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${changes.tombstone-retention-days:30}")
+    private int tombstoneRetentionDays;
+    
+    public ChangeFeedService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        jdbcTemplate.update(INSERT_SQL, toRow(event));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch.changes().stream().map(this::toRow).toList());
+    }
+    
+    /**
+     * Insert parameters of a change (no payload for a deletion)
+     */
+    private Object[] toRow(PropertyChangedEvent event) {
+        if (event.type() == PropertyChangedEvent.ChangeType.DELETED) {
+            return new Object[]{event.propertyId(), DELETE, null};
+        }
+        try {
+            return new Object[]{event.propertyId(), UPSERT, objectMapper.writeValueAsString(event.after())};
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public ChangeFeedResponse getChanges(long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Long purgedThrough = jdbcTemplate.queryForObject(
+                "SELECT value FROM listing_change_meta WHERE name = 'tombstones_purged_through'", Long.class);
+        if (after > 0 && purgedThrough != null && after < purgedThrough) {
+            return ChangeFeedResponse.builder()
+                    .changes(List.of())
+                    .nextCursor(0)
+                    .resyncRequired(true)
+                    .build();
+        }
+        
+        List<ChangeFeedResponse.Change> changes = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT position, property_id, change_type, changed_at, payload FROM listing_changes " +
+                "WHERE position > ? ORDER BY position LIMIT ?",
+                rs -> {
+                    String payload = rs.getString(5);
+                    changes.add(ChangeFeedResponse.Change.builder()
+                            .cursor(rs.getLong(1))
+                            .propertyId(rs.getLong(2))
+                            .type(rs.getString(3))
+                            .changedAt(rs.getTimestamp(4).toLocalDateTime())
+                            .data(payload != null ? readTree(payload) : null)
+                            .build());
+                },
+                after, pageSize + 1);
+        
+        boolean hasMore = changes.size() > pageSize;
+        if (changes.size() > pageSize) {
+            changes.remove(changes.size() - 1);
+        }
+        return ChangeFeedResponse.builder()
+                .changes(changes)
+                .nextCursor(changes.isEmpty() ? after : changes.get(changes.size() - 1).getCursor())
+                .hasMore(hasMore)
+                .build();
+    }
+    
+    /**
+     * The highest position handed out so far
+     */
+    public long lastPosition() {
+        return jdbcTemplate.queryForObject(
+                "SELECT value FROM listing_change_meta WHERE name = 'last_position'", Long.class);
+    }
+    
+    /**
+     * Pass the changes positioned after the given position to the consumer
+     * as events, oldest first and in pages; returns the position reached.
+     * Upserts arrive as UPDATED events without a before state. Changes made
+     * on this node come back too, so consumers must apply them idempotently.
+     */
+    public long follow(long after, Consumer<List<PropertyChangedEvent>> consumer) {
+        long position = after;
+        int read;
+        do {
+            List<PropertyChangedEvent> events = new ArrayList<>();
+            long[] last = {position};
+            jdbcTemplate.query(
+                    "SELECT position, property_id, change_type, payload FROM listing_changes " +
+                    "WHERE position > ? ORDER BY position LIMIT ?",
+                    rs -> {
+                        last[0] = rs.getLong(1);
+                        events.add(toEvent(rs.getLong(2), rs.getString(3), rs.getString(4)));
+                    },
+                    position, SEQUENCE_BATCH);
+            if (!events.isEmpty()) {
+                consumer.accept(events);
+            }
+            position = last[0];
+            read = events.size();
+        } while (read == SEQUENCE_BATCH);
+        return position;
+    }
+    
+    /**
+     * Position committed entries in the order they became visible. Entries of
+     * transactions still open are not visible yet and get a later position.
+     */
+    @Scheduled(fixedDelayString = "${changes.sequence-interval:1000}")
+    @Transactional
+    public void sequence() {
+        Long last = jdbcTemplate.queryForObject(
+                "SELECT value FROM listing_change_meta WHERE name = 'last_position' FOR UPDATE", Long.class);
+        List<Long> unpositioned = jdbcTemplate.queryForList(
+                "SELECT seq FROM listing_changes WHERE position IS NULL ORDER BY seq LIMIT ?",
+                Long.class, SEQUENCE_BATCH);
+        if (unpositioned.isEmpty()) {
+            return;
+        }
+        
+        List<Object[]> updates = new ArrayList<>(unpositioned.size());
+        long position = last;
+        for (Long seq : unpositioned) {
+            updates.add(new Object[]{++position, seq});
+        }
+        jdbcTemplate.batchUpdate("UPDATE listing_changes SET position = ? WHERE seq = ?", updates);
+        jdbcTemplate.update("UPDATE listing_change_meta SET value = ? WHERE name = 'last_position'", position);
+    }
+    
+    /**
+     * Drop superseded entries and expired tombstones
+     */
+    @Scheduled(fixedDelayString = "${changes.compact-interval:3600000}")
+    @Transactional
+    public void compact() {
+        // Changes to one property are serialized by its row lock, so seq order is commit order per property
+        int superseded = jdbcTemplate.update(
+                "DELETE c FROM listing_changes c " +
+                "JOIN (SELECT property_id, MAX(seq) AS latest FROM listing_changes GROUP BY property_id) x " +
+                "ON x.property_id = c.property_id " +
+                "WHERE c.seq < x.latest");
+        
+        Timestamp expired = Timestamp.valueOf(LocalDateTime.now().minusDays(tombstoneRetentionDays));
+        Long lastTombstone = jdbcTemplate.queryForObject(
+                "SELECT MAX(position) FROM listing_changes WHERE change_type = 'DELETE' AND changed_at < ?",
+                Long.class, expired);
+        int tombstones = 0;
+        if (lastTombstone != null) {
+            tombstones = jdbcTemplate.update(
+                    "DELETE FROM listing_changes WHERE change_type = 'DELETE' AND position <= ?", lastTombstone);
+            jdbcTemplate.update(
+                    "UPDATE listing_change_meta SET value = GREATEST(value, ?) WHERE name = 'tombstones_purged_through'",
+                    lastTombstone);
+        }
+        log.info("Change log compacted: {} superseded entries, {} tombstones removed", superseded, tombstones);
+    }
+    
+    private PropertyChangedEvent toEvent(long propertyId, String type, String payload) {
+        if (DELETE.equals(type)) {
+            return PropertyChangedEvent.deleted(new PropertySnapshot(propertyId, null, null, null, null, null, null,
+                    null, null, null, null, null, false, null, null, null, null));
+        }
+        try {
+            return PropertyChangedEvent.updated(null, objectMapper.readValue(payload, PropertySnapshot.class));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private JsonNode readTree(String payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.homeheaven.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Emails owners about new contact requests, one message per owner per batch.
+ * Queued notifications are claimed with SKIP LOCKED and deleted in the same
+ * transaction that writes the email outbox, as in SavedSearchDigestService.
+ */
+@Service
+@Slf4j
+public class ContactNotificationService {
+    
+    private static final String CLAIM_SQL =
+            "SELECT n.id, o.id, o.email, o.username, o.is_active, c.status, " +
+            "p.id, p.name, r.username, c.message " +
+            "FROM contact_request_notifications n " +
+            "JOIN contact_requests c ON c.id = n.contact_request_id " +
+            "JOIN users o ON o.id = c.owner_id " +
+            "JOIN users r ON r.id = c.requester_id " +
+            "JOIN properties p ON p.id = c.property_id " +
+            "ORDER BY o.id, n.id LIMIT ? FOR UPDATE OF n SKIP LOCKED";
+    
+    private static final int MESSAGE_PREVIEW = 200;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${contact.notify.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${contact.notify.max-requests:20}")
+    private int maxRequests;
+    
+    public ContactNotificationService(JdbcTemplate jdbcTemplate,
+                                      EmailService emailService,
+                                      PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Scheduled(initialDelayString = "${contact.notify.interval:300000}",
+               fixedDelayString = "${contact.notify.interval:300000}")
+    public void sendNotifications() {
+        int claimed;
+        int emails = 0;
+        do {
+            int[] result = transactionTemplate.execute(status -> sendBatch());
+            claimed = result[0];
+            emails += result[1];
+        } while (claimed == batchSize);
+        if (emails > 0) {
+            log.info("Queued {} contact request notifications", emails);
+        }
+    }
+    
+    /**
+     * Claim a batch of notifications, queue one email per owner and delete the notifications
+     */
+    private int[] sendBatch() {
+        List<Long> notificationIds = new ArrayList<>();
+        Map<Long, Batch> batches = new LinkedHashMap<>();
+        
+        jdbcTemplate.query(CLAIM_SQL, rs -> {
+            notificationIds.add(rs.getLong(1));
+            // Blocked owners and requests already handled are dropped silently
+            if (!rs.getBoolean(5) || !"PENDING".equals(rs.getString(6))) {
+                return;
+            }
+            String email = rs.getString(3);
+            String username = rs.getString(4);
+            batches.computeIfAbsent(rs.getLong(2), id -> new Batch(email, username))
+                    .add(new Line(rs.getLong(7), rs.getString(8), rs.getString(9), rs.getString(10)));
+        }, batchSize);
+        
+        batches.values().forEach(batch ->
+                emailService.enqueue(batch.email, "HomeHeaven - New contact requests", build(batch)));
+        
+        if (!notificationIds.isEmpty()) {
+            List<Object[]> ids = notificationIds.stream().map(id -> new Object[]{id}).toList();
+            jdbcTemplate.batchUpdate("DELETE FROM contact_request_notifications WHERE id = ?", ids);
+        }
+        return new int[]{notificationIds.size(), batches.size()};
+    }
+    
+    private String build(Batch batch) {
+        StringBuilder body = new StringBuilder();
+        body.append("Hello ").append(batch.username).append(",\n\n");
+        body.append("You have new contact requests:\n\n");
+        
+        int shown = 0;
+        for (Line line : batch.lines) {
+            if (shown++ == maxRequests) {
+                body.append("...and ").append(batch.lines.size() - maxRequests).append(" more.\n");
+                break;
+            }
+            body.append(String.format("%s about %s (listing #%d)%n", line.requester, line.propertyName,
+                    line.propertyId));
+            if (line.message != null) {
+                String preview = line.message.length() > MESSAGE_PREVIEW
+                        ? line.message.substring(0, MESSAGE_PREVIEW) + "..." : line.message;
+                body.append("  \"").append(preview).append("\"\n");
+            }
+        }
+        
+        body.append("\nLog in to HomeHeaven to reply from your inbox.\n\n");
+        body.append("Best regards,\nHomeHeaven Team\n");
+        return body.toString();
+    }
+    
+    private record Line(long propertyId, String propertyName, String requester, String message) {
+    }
+    
+    private static class Batch {
+        private final String email;
+        private final String username;
+        private final List<Line> lines = new ArrayList<>();
+        
+        Batch(String email, String username) {
+            this.email = email;
+            this.username = username;
+        }
+        
+        void add(Line line) {
+            lines.add(line);
+        }
+    }
+}
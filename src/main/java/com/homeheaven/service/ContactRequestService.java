@@ -0,0 +1,289 @@
+package com.homeheaven.service;
+
+import com.homeheaven.dto.request.ContactRequestRequest;
+import com.homeheaven.dto.response.ContactInboxResponse;
+import com.homeheaven.dto.response.ContactRequestResponse;
+import com.homeheaven.exception.BadRequestException;
+import com.homeheaven.exception.ResourceNotFoundException;
+import com.homeheaven.exception.UnauthorizedException;
+import com.homeheaven.model.ContactRequest;
+import com.homeheaven.model.Property;
+import com.homeheaven.model.User;
+import com.homeheaven.repository.ContactRequestRepository;
+import com.homeheaven.repository.PropertyRepository;
+import com.homeheaven.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Contact requests and the owner inbox.
+ *
+ * The inbox is paginated by a (created_at, id) keyset cursor, so deep pages
+ * cost the same as the first. Per-owner unread and status counts live in
+ * contact_inbox_counters and are adjusted in the same transaction as the
+ * request they count. New requests are queued for ContactNotificationService,
+ * which emails owners in batches.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContactRequestService {
+    
+    private static final String ADJUST_SQL =
+            "INSERT INTO contact_inbox_counters (owner_id, unread, pending, contacted, closed) " +
+            "VALUES (?, GREATEST(?, 0), GREATEST(?, 0), GREATEST(?, 0), GREATEST(?, 0)) " +
+            "ON DUPLICATE KEY UPDATE unread = GREATEST(unread + ?, 0), pending = GREATEST(pending + ?, 0), " +
+            "contacted = GREATEST(contacted + ?, 0), closed = GREATEST(closed + ?, 0)";
+    
+    /** Subtract the requests about to be deleted (selected by the %s column) from their owners' counters */
+    private static final String RELEASE_SQL =
+            "UPDATE contact_inbox_counters k JOIN (" +
+            "SELECT owner_id, SUM(is_read = FALSE) AS unread, SUM(status = 'PENDING') AS pending, " +
+            "SUM(status = 'CONTACTED') AS contacted, SUM(status = 'CLOSED') AS closed " +
+            "FROM contact_requests WHERE %s = ? GROUP BY owner_id) d ON d.owner_id = k.owner_id " +
+            "SET k.unread = GREATEST(k.unread - d.unread, 0), k.pending = GREATEST(k.pending - d.pending, 0), " +
+            "k.contacted = GREATEST(k.contacted - d.contacted, 0), k.closed = GREATEST(k.closed - d.closed, 0)";
+    
+    private static final LocalDateTime FIRST_PAGE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
+    private final ContactRequestRepository contactRequestRepository;
+    private final PropertyRepository propertyRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${contact.inbox.max-page-size:100}")
+    private int maxPageSize;
+    
+    @Transactional
+    public ContactRequestResponse createRequest(ContactRequestRequest request, String username) {
+        User requester = findUser(username);
+        Property property = propertyRepository.findById(request.getPropertyId())
+                .orElseThrow(() -> new ResourceNotFoundException("Property not found"));
+        
+        if (property.getOwner().getId().equals(requester.getId())) {
+            throw new BadRequestException("You cannot send a contact request for your own property");
+        }
+        if (!Boolean.TRUE.equals(property.getIsAvailable())) {
+            throw new BadRequestException("Property is not available");
+        }
+        if (contactRequestRepository.existsByRequesterIdAndPropertyIdAndStatus(
+                requester.getId(), property.getId(), ContactRequest.Status.PENDING)) {
+            throw new BadRequestException("You already have a pending request for this property");
+        }
+        
+        String message = request.getMessage() != null && !request.getMessage().isBlank()
+                ? request.getMessage().trim() : null;
+        ContactRequest contactRequest = contactRequestRepository.save(ContactRequest.builder()
+                .property(property)
+                .requester(requester)
+                .owner(property.getOwner())
+                .message(message)
+                .build());
+        
+        adjustCounters(property.getOwner().getId(), 1, 1, 0, 0);
+        jdbcTemplate.update("INSERT INTO contact_request_notifications (contact_request_id) VALUES (?)",
+                contactRequest.getId());
+        log.info("Contact request {} from {} for property {}", contactRequest.getId(), username, property.getId());
+        return mapToResponse(contactRequest, false);
+    }
+    
+    /**
+     * One page of the owner's inbox, newest first, optionally filtered by status
+     */
+    @Transactional(readOnly = true)
+    public ContactInboxResponse getInbox(String username, String status, String before, int limit) {
+        User owner = findUser(username);
+        ContactRequest.Status statusFilter = parseStatus(status);
+        Cursor cursor = decodeCursor(before);
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        
+        List<ContactRequest> page = contactRequestRepository.findInboxPage(owner.getId(), statusFilter,
+                cursor.createdAt(), cursor.id(), PageRequest.of(0, pageSize));
+        
+        return ContactInboxResponse.builder()
+                .requests(page.stream().map(c -> mapToResponse(c, true)).collect(Collectors.toList()))
+                .nextCursor(nextCursor(page, pageSize))
+                .counts(getCounts(owner.getId()))
+                .build();
+    }
+    
+    /**
+     * One page of requests the user has sent, newest first
+     */
+    @Transactional(readOnly = true)
+    public ContactInboxResponse getSent(String username, String before, int limit) {
+        User requester = findUser(username);
+        Cursor cursor = decodeCursor(before);
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        
+        List<ContactRequest> page = contactRequestRepository.findSentPage(requester.getId(),
+                cursor.createdAt(), cursor.id(), PageRequest.of(0, pageSize));
+        
+        return ContactInboxResponse.builder()
+                .requests(page.stream().map(c -> mapToResponse(c, false)).collect(Collectors.toList()))
+                .nextCursor(nextCursor(page, pageSize))
+                .build();
+    }
+    
+    @Transactional(readOnly = true)
+    public ContactInboxResponse.Counts getCounts(String username) {
+        return getCounts(findUser(username).getId());
+    }
+    
+    @Transactional
+    public ContactRequestResponse markRead(Long id, String username) {
+        ContactRequest contactRequest = findOwned(contactRequestRepository.findById(id), username);
+        if (contactRequestRepository.markRead(id) == 1) {
+            adjustCounters(contactRequest.getOwner().getId(), -1, 0, 0, 0);
+            contactRequest.setIsRead(true);
+        }
+        return mapToResponse(contactRequest, true);
+    }
+    
+    /**
+     * Move a request to another status; this also marks it read
+     */
+    @Transactional
+    public ContactRequestResponse updateStatus(Long id, String status, String username) {
+        ContactRequest.Status newStatus = parseStatus(status);
+        if (newStatus == null) {
+            throw new BadRequestException("Status is required");
+        }
+        ContactRequest contactRequest = findOwned(contactRequestRepository.findByIdForUpdate(id), username);
+        ContactRequest.Status oldStatus = contactRequest.getStatus();
+        
+        int unread = Boolean.TRUE.equals(contactRequest.getIsRead()) ? 0 : -1;
+        if (oldStatus == newStatus && unread == 0) {
+            return mapToResponse(contactRequest, true);
+        }
+        
+        contactRequest.setStatus(newStatus);
+        contactRequest.setIsRead(true);
+        contactRequest = contactRequestRepository.save(contactRequest);
+        
+        int[] delta = new int[ContactRequest.Status.values().length];
+        delta[oldStatus.ordinal()]--;
+        delta[newStatus.ordinal()]++;
+        adjustCounters(contactRequest.getOwner().getId(), unread,
+                delta[ContactRequest.Status.PENDING.ordinal()],
+                delta[ContactRequest.Status.CONTACTED.ordinal()],
+                delta[ContactRequest.Status.CLOSED.ordinal()]);
+        log.info("Contact request {} moved from {} to {} by {}", id, oldStatus, newStatus, username);
+        return mapToResponse(contactRequest, true);
+    }
+    
+    /**
+     * Delete the requests for a property being deleted, releasing their counts.
+     * Must run before the property row is deleted (the foreign key cascade would skip the counters).
+     */
+    @Transactional
+    public void removeAllForProperty(Long propertyId) {
+        jdbcTemplate.update(String.format(RELEASE_SQL, "property_id"), propertyId);
+        contactRequestRepository.deleteByPropertyId(propertyId);
+    }
+    
+    /**
+     * Delete the requests sent by a user being deleted, releasing their counts
+     */
+    @Transactional
+    public void removeAllForRequester(Long userId) {
+        jdbcTemplate.update(String.format(RELEASE_SQL, "requester_id"), userId);
+        contactRequestRepository.deleteByRequesterId(userId);
+    }
+    
+    private void adjustCounters(Long ownerId, int unread, int pending, int contacted, int closed) {
+        jdbcTemplate.update(ADJUST_SQL, ownerId, unread, pending, contacted, closed,
+                unread, pending, contacted, closed);
+    }
+    
+    private ContactInboxResponse.Counts getCounts(Long ownerId) {
+        List<ContactInboxResponse.Counts> rows = jdbcTemplate.query(
+                "SELECT unread, pending, contacted, closed FROM contact_inbox_counters WHERE owner_id = ?",
+                (rs, i) -> new ContactInboxResponse.Counts(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4)),
+                ownerId);
+        return rows.isEmpty() ? new ContactInboxResponse.Counts() : rows.get(0);
+    }
+    
+    private ContactRequest findOwned(Optional<ContactRequest> found, String username) {
+        ContactRequest contactRequest = found
+                .orElseThrow(() -> new ResourceNotFoundException("Contact request not found"));
+        if (!contactRequest.getOwner().getUsername().equals(username)) {
+            throw new UnauthorizedException("You don't have permission to manage this contact request");
+        }
+        return contactRequest;
+    }
+    
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+    
+    private ContactRequest.Status parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        return Arrays.stream(ContactRequest.Status.values())
+                .filter(s -> s.name().equalsIgnoreCase(status.trim()))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Unknown contact request status: " + status));
+    }
+    
+    private String nextCursor(List<ContactRequest> page, int pageSize) {
+        if (page.size() < pageSize) {
+            return null;
+        }
+        ContactRequest last = page.get(page.size() - 1);
+        String raw = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private Cursor decodeCursor(String before) {
+        if (before == null || before.isBlank()) {
+            return new Cursor(FIRST_PAGE, Long.MAX_VALUE);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(before), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+    
+    private ContactRequestResponse mapToResponse(ContactRequest contactRequest, boolean forOwner) {
+        User requester = contactRequest.getRequester();
+        return ContactRequestResponse.builder()
+                .id(contactRequest.getId())
+                .propertyId(contactRequest.getProperty().getId())
+                .propertyName(contactRequest.getProperty().getName())
+                .message(contactRequest.getMessage())
+                .status(contactRequest.getStatus().name())
+                .isRead(contactRequest.getIsRead())
+                .requester(forOwner ? ContactRequestResponse.Requester.builder()
+                        .username(requester.getUsername())
+                        .email(requester.getEmail())
+                        .phone(requester.getPhone())
+                        .build() : null)
+                .createdAt(contactRequest.getCreatedAt())
+                .updatedAt(contactRequest.getUpdatedAt())
+                .build();
+    }
+    
+    private record Cursor(LocalDateTime createdAt, Long id) {
+    }
+}
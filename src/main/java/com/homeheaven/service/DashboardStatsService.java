@@ -0,0 +1,209 @@
+package com.homeheaven.service;
+
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.event.UserChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Dashboard counters kept in memory and maintained from user and property
+ * change events, so the admin dashboard costs no queries. A periodic
+ * reconcile recounts from the database (one grouped query per table) and
+ * replaces the in-memory state, which heals any drift from missed events
+ * or changes made outside the application. The counters are deltas, so an
+ * event that lands during the recount can't be told apart from one the
+ * recount already saw; such a recount is discarded and retried, and after
+ * RECONCILE_ATTEMPTS busy recounts the incremental state is kept until the
+ * next run.
+ */
+@Service
+@Slf4j
+public class DashboardStatsService {
+    
+    private static final int RECONCILE_ATTEMPTS = 3;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter driftCorrections;
+    
+    @Value("${stats.registration-days:30}")
+    private int registrationDays;
+    
+    private Counts counts = new Counts();
+    private LocalDateTime lastReconciledAt;
+    
+    /** Incremented by every applied event, to detect events during a recount */
+    private long eventsApplied;
+    
+    public DashboardStatsService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.driftCorrections = meterRegistry.counter("dashboard.stats.drift");
+    }
+    
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalUsers", counts.totalUsers);
+        stats.put("activeUsers", counts.activeUsers);
+        stats.put("blockedUsers", counts.totalUsers - counts.activeUsers);
+        stats.put("totalProperties", counts.totalProperties);
+        stats.put("availableProperties", counts.availableProperties);
+        stats.put("unavailableProperties", counts.totalProperties - counts.availableProperties);
+        stats.put("propertiesByCity", new TreeMap<>(counts.byCity));
+        stats.put("propertiesByType", new TreeMap<>(counts.byType));
+        stats.put("registrationsPerDay", registrationsSince(LocalDate.now().minusDays(registrationDays - 1L)));
+        stats.put("lastReconciledAt", lastReconciledAt);
+        return stats;
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        eventsApplied++;
+        switch (event.type()) {
+            case REGISTERED -> {
+                counts.totalUsers++;
+                counts.activeUsers += event.active() ? 1 : 0;
+                counts.registrations.merge(event.occurredAt().toLocalDate(), 1L, Long::sum);
+            }
+            // Relative to the previous state, so re-blocking a blocked user is a no-op
+            case BLOCKED, UNBLOCKED -> counts.activeUsers += (event.active() ? 1 : 0) - (event.wasActive() ? 1 : 0);
+            case DELETED -> {
+                counts.totalUsers--;
+                counts.activeUsers -= event.wasActive() ? 1 : 0;
+            }
+        }
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertyChanged(PropertyChangedEvent event) {
+        eventsApplied++;
+        if (event.before() != null) {
+            counts.apply(event.before(), -1);
+        }
+        if (event.after() != null) {
+            counts.apply(event.after(), 1);
+        }
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        batch.changes().forEach(this::onPropertyChanged);
+    }
+    
+    /**
+     * Recount from the database and replace the in-memory state
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${stats.reconcile-interval:300000}",
+               fixedDelayString = "${stats.reconcile-interval:300000}")
+    public void reconcile() {
+        for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+            long eventsBefore;
+            synchronized (this) {
+                eventsBefore = eventsApplied;
+            }
+            Counts fresh = recount();
+            synchronized (this) {
+                if (eventsApplied != eventsBefore) {
+                    continue;
+                }
+                if (lastReconciledAt != null && !fresh.sameTotals(counts)) {
+                    driftCorrections.increment();
+                    log.warn("Dashboard stats drift corrected: users {} -> {}, properties {} -> {}",
+                            counts.totalUsers, fresh.totalUsers, counts.totalProperties, fresh.totalProperties);
+                }
+                counts = fresh;
+                lastReconciledAt = LocalDateTime.now();
+            }
+            log.debug("Dashboard stats reconciled: {} users, {} properties", fresh.totalUsers, fresh.totalProperties);
+            return;
+        }
+        log.info("Dashboard stats reconcile skipped: changes kept arriving during {} recounts", RECONCILE_ATTEMPTS);
+    }
+    
+    private Counts recount() {
+        Counts fresh = new Counts();
+        
+        jdbcTemplate.query("SELECT COUNT(*), COALESCE(SUM(is_active), 0) FROM users", rs -> {
+            fresh.totalUsers = rs.getLong(1);
+            fresh.activeUsers = rs.getLong(2);
+        });
+        jdbcTemplate.query(
+                "SELECT city, property_type, is_available, COUNT(*) FROM properties " +
+                "GROUP BY city, property_type, is_available", rs -> {
+            long count = rs.getLong(4);
+            fresh.totalProperties += count;
+            fresh.availableProperties += rs.getBoolean(3) ? count : 0;
+            fresh.byCity.merge(normalize(rs.getString(1)), count, Long::sum);
+            fresh.byType.merge(rs.getString(2), count, Long::sum);
+        });
+        jdbcTemplate.query(
+                "SELECT DATE(created_at), COUNT(*) FROM users WHERE created_at >= ? GROUP BY DATE(created_at)",
+                rs -> {
+                    fresh.registrations.put(rs.getDate(1).toLocalDate(), rs.getLong(2));
+                },
+                Date.valueOf(LocalDate.now().minusDays(registrationDays)));
+        return fresh;
+    }
+    
+    private Map<String, Long> registrationsSince(LocalDate from) {
+        Map<String, Long> perDay = new LinkedHashMap<>();
+        for (LocalDate day = from; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            perDay.put(day.toString(), counts.registrations.getOrDefault(day, 0L));
+        }
+        counts.registrations.headMap(from).clear();
+        return perDay;
+    }
+    
+    // Cities are counted case-insensitively, like every other city lookup
+    private static String normalize(String city) {
+        return city != null ? city.trim().toLowerCase(Locale.ROOT) : null;
+    }
+    
+    private static class Counts {
+        private long totalUsers;
+        private long activeUsers;
+        private long totalProperties;
+        private long availableProperties;
+        private final Map<String, Long> byCity = new HashMap<>();
+        private final Map<String, Long> byType = new HashMap<>();
+        private final TreeMap<LocalDate, Long> registrations = new TreeMap<>();
+        
+        void apply(PropertySnapshot snapshot, int delta) {
+            totalProperties += delta;
+            availableProperties += snapshot.available() ? delta : 0;
+            adjust(byCity, normalize(snapshot.city()), delta);
+            adjust(byType, snapshot.propertyType() != null ? snapshot.propertyType().name() : null, delta);
+        }
+        
+        private static void adjust(Map<String, Long> counts, String key, int delta) {
+            if (key != null) {
+                counts.merge(key, (long) delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+        
+        boolean sameTotals(Counts other) {
+            return totalUsers == other.totalUsers
+                    && activeUsers == other.activeUsers
+                    && totalProperties == other.totalProperties
+                    && availableProperties == other.availableProperties;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.homeheaven.service;
+
+import com.homeheaven.model.EmailOutbox;
+import com.homeheaven.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background delivery of the email outbox.
+ * Due messages are claimed in batches (SKIP LOCKED, so several nodes can
+ * run it): the claim marks them SENDING with a lease and commits, so no row
+ * lock is held while SMTP runs. A message whose lease runs out (its node
+ * died mid-send) is claimed again. Messages are sent over one SMTP
+ * connection that is kept open across batches and closed when idle.
+ * Failures are retried with exponential backoff; after the maximum number
+ * of attempts a message is dead-lettered.
+ */
+@Service
+@Slf4j
+public class EmailOutboxDispatcher {
+    
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSenderImpl mailSender;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter deadCounter;
+    private final Timer batchTimer;
+    private final Timer deliveryLatency;
+    private final AtomicLong pendingGauge;
+    
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+    
+    @Value("${mail.outbox.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+    
+    @Value("${mail.outbox.initial-backoff:5000}")
+    private long initialBackoffMillis;
+    
+    @Value("${mail.outbox.max-backoff:3600000}")
+    private long maxBackoffMillis;
+    
+    @Value("${mail.outbox.retention-days:7}")
+    private int retentionDays;
+    
+    @Value("${mail.outbox.lease:300000}")
+    private long leaseMillis;
+    
+    @Value("${mail.outbox.connection-idle:60000}")
+    private long connectionIdleMillis;
+    
+    /** SMTP connection kept open across batches (dispatcher thread only) */
+    private Transport transport;
+    private long transportUsedAt;
+    
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 JavaMailSenderImpl mailSender,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        
+        this.sentCounter = meterRegistry.counter("email.outbox.sent");
+        this.failedCounter = meterRegistry.counter("email.outbox.failed");
+        this.deadCounter = meterRegistry.counter("email.outbox.dead");
+        this.batchTimer = meterRegistry.timer("email.outbox.batch.duration");
+        this.deliveryLatency = meterRegistry.timer("email.outbox.delivery.latency");
+        this.pendingGauge = meterRegistry.gauge("email.outbox.pending", new AtomicLong());
+    }
+    
+    /**
+     * Drain due messages until a partial batch is seen
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:1000}")
+    public synchronized void dispatch() {
+        int claimed;
+        do {
+            List<EmailOutbox> batch = transactionTemplate.execute(status -> claim());
+            claimed = batch != null ? batch.size() : 0;
+            if (claimed > 0) {
+                deliver(batch);
+            }
+        } while (claimed == batchSize);
+        
+        if (transport != null && System.currentTimeMillis() - transportUsedAt > connectionIdleMillis) {
+            closeTransport();
+        }
+    }
+    
+    @PreDestroy
+    public synchronized void shutdown() {
+        closeTransport();
+    }
+    
+    /**
+     * Purge delivered messages past retention and refresh the pending gauge
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.cleanup-interval:60000}")
+    public void cleanup() {
+        Integer purged = transactionTemplate.execute(status ->
+                outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} delivered outbox messages", purged);
+        }
+        pendingGauge.set(outboxRepository.countByStatus(EmailOutbox.Status.PENDING));
+    }
+    
+    /**
+     * Mark a batch of due messages SENDING until the lease expires (committed by the caller)
+     */
+    private List<EmailOutbox> claim() {
+        List<EmailOutbox> batch = outboxRepository.findDueForUpdate(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        // Whole seconds, so the stored lease compares equal when the claim is finished
+        LocalDateTime leaseUntil = LocalDateTime.now().plus(Duration.ofMillis(leaseMillis))
+                .truncatedTo(ChronoUnit.SECONDS);
+        for (EmailOutbox outbox : batch) {
+            outbox.setStatus(EmailOutbox.Status.SENDING);
+            outbox.setNextAttemptAt(leaseUntil);
+        }
+        return outboxRepository.saveAll(batch);
+    }
+    
+    /**
+     * Send a claimed batch outside any transaction, then record the outcomes
+     */
+    private void deliver(List<EmailOutbox> batch) {
+        Map<Long, Exception> failures = new HashMap<>();
+        long start = System.nanoTime();
+        for (EmailOutbox outbox : batch) {
+            try {
+                MimeMessage message = toMessage(outbox);
+                transport().sendMessage(message, message.getAllRecipients());
+            } catch (Exception e) {
+                failures.put(outbox.getId(), e);
+                if (!(e instanceof SendFailedException)) {
+                    // Not a rejected recipient: the connection may be broken, reconnect for the next message
+                    closeTransport();
+                }
+            }
+        }
+        transportUsedAt = System.currentTimeMillis();
+        batchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        
+        transactionTemplate.executeWithoutResult(status -> finish(batch, failures));
+        log.debug("Outbox batch of {} processed, {} failed", batch.size(), failures.size());
+    }
+    
+    /**
+     * Record sent/failed outcomes on rows that are still under this claim's
+     * lease (a row whose lease ran out may have been claimed again elsewhere)
+     */
+    private void finish(List<EmailOutbox> batch, Map<Long, Exception> failures) {
+        Map<Long, EmailOutbox> claimed = batch.stream()
+                .collect(Collectors.toMap(EmailOutbox::getId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutbox outbox : outboxRepository.findAllById(claimed.keySet())) {
+            if (outbox.getStatus() != EmailOutbox.Status.SENDING
+                    || !outbox.getNextAttemptAt().equals(claimed.get(outbox.getId()).getNextAttemptAt())) {
+                log.warn("Email {} was claimed again after its lease expired", outbox.getId());
+                continue;
+            }
+            Exception failure = failures.get(outbox.getId());
+            if (failure == null) {
+                markSent(outbox, now);
+            } else {
+                markFailed(outbox, failure, now);
+            }
+        }
+    }
+    
+    private MimeMessage toMessage(EmailOutbox outbox) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(outbox.getRecipient());
+        helper.setSubject(outbox.getSubject());
+        helper.setText(outbox.getBody());
+        message.saveChanges();
+        return message;
+    }
+    
+    private Transport transport() throws MessagingException {
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        closeTransport();
+        Transport connected = mailSender.getSession().getTransport(mailSender.getProtocol());
+        connected.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(),
+                mailSender.getPassword());
+        transport = connected;
+        return connected;
+    }
+    
+    private void closeTransport() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection", e);
+        }
+        transport = null;
+    }
+    
+    private void markSent(EmailOutbox outbox, LocalDateTime now) {
+        outbox.setStatus(EmailOutbox.Status.SENT);
+        outbox.setAttempts(outbox.getAttempts() + 1);
+        outbox.setSentAt(now);
+        outbox.setLastError(null);
+        sentCounter.increment();
+        if (outbox.getCreatedAt() != null) {
+            deliveryLatency.record(Duration.between(outbox.getCreatedAt(), now));
+        }
+    }
+    
+    private void markFailed(EmailOutbox outbox, Exception failure, LocalDateTime now) {
+        int attempts = outbox.getAttempts() + 1;
+        outbox.setAttempts(attempts);
+        outbox.setLastError(truncate(failure.getMessage()));
+        failedCounter.increment();
+        
+        if (attempts >= maxAttempts) {
+            outbox.setStatus(EmailOutbox.Status.DEAD);
+            deadCounter.increment();
+            log.error("Email {} to {} dead-lettered after {} attempts", outbox.getId(), outbox.getRecipient(), attempts);
+        } else {
+            outbox.setStatus(EmailOutbox.Status.PENDING);
+            outbox.setNextAttemptAt(now.plus(Duration.ofMillis(backoff(attempts))));
+            log.warn("Email {} to {} failed (attempt {}), will retry", outbox.getId(), outbox.getRecipient(), attempts);
+        }
+    }
+    
+    // Exponential backoff with up to 20% jitter
+    private long backoff(int attempts) {
+        long delay = initialBackoffMillis << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, maxBackoffMillis);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+    
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -1,42 +1,47 @@
 package com.homeheaven.service;
 
+import com.homeheaven.model.EmailOutbox;
+import com.homeheaven.repository.EmailOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 /**
- * Email service for sending emails
+ * Email service. Messages are written to the outbox in the caller's
+ * transaction; EmailOutboxDispatcher delivers them in the background.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
     
-    private final JavaMailSender mailSender;
-    
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final EmailOutboxRepository outboxRepository;
     
     /**
-     * Send OTP email
+     * Queue OTP email
      */
+    @Transactional
     public void sendOtpEmail(String toEmail, String otp) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("HomeHeaven - Password Reset OTP");
-            message.setText(buildOtpEmailBody(otp));
-            
-            mailSender.send(message);
-            log.info("OTP email sent successfully to: {}", toEmail);
-        } catch (Exception e) {
-            log.error("Failed to send OTP email to: {}", toEmail, e);
-            throw new RuntimeException("Failed to send OTP email. Please try again later.");
-        }
+        enqueue(toEmail, "HomeHeaven - Password Reset OTP", buildOtpEmailBody(otp));
+    }
+    
+    /**
+     * Queue an email for delivery
+     */
+    @Transactional
+    public void enqueue(String toEmail, String subject, String body) {
+        EmailOutbox message = EmailOutbox.builder()
+                .recipient(toEmail)
+                .subject(subject)
+                .body(body)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        
+        outboxRepository.save(message);
+        log.info("Email queued for: {}", toEmail);
     }
     
     /**
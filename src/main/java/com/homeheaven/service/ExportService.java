@@ -0,0 +1,228 @@
+package com.homeheaven.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeheaven.exception.BadRequestException;
+import com.homeheaven.util.CsvWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams admin exports straight from a forward-only JDBC cursor into a
+ * gzip-compressed response, one row at a time, so memory use does not
+ * depend on table size. Password hashes and PINs are never exported.
+ */
+@Service
+@Slf4j
+public class ExportService {
+    
+    public enum Format {
+        CSV, NDJSON;
+        
+        public static Format from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported export format: " + value);
+            }
+        }
+        
+        public String extension() {
+            return this == CSV ? "csv" : "ndjson";
+        }
+        
+        public String contentType() {
+            return this == CSV ? "text/csv" : "application/x-ndjson";
+        }
+    }
+    
+    private static final String USERS_SQL =
+            "SELECT id, username, email, phone, role, is_active, created_at, last_login " +
+            "FROM users ORDER BY id";
+    
+    private static final String PROPERTIES_SQL =
+            "SELECT p.id, p.owner_id, u.username AS owner_username, p.name, p.address, p.city, " +
+            "p.property_type, p.rent, p.sqft, p.sharing_option, p.is_available, p.view_count, " +
+            "p.created_at, p.updated_at, p.description " +
+            "FROM properties p JOIN users u ON u.id = p.owner_id ORDER BY p.id";
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    
+    public ExportService(DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${export.fetch-size:" + Integer.MIN_VALUE + "}") int fetchSize) {
+        // Connector/J streams rows one by one when a forward-only, read-only
+        // statement has fetch size Integer.MIN_VALUE (or uses a server cursor
+        // with useCursorFetch=true and a positive fetch size)
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+    
+    public long exportUsers(OutputStream out, Format format) {
+        return export(USERS_SQL, out, format);
+    }
+    
+    public long exportProperties(OutputStream out, Format format) {
+        return export(PROPERTIES_SQL, out, format);
+    }
+    
+    private long export(String sql, OutputStream out, Format format) {
+        long start = System.currentTimeMillis();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE)) {
+            RowSink sink = format == Format.CSV ? new CsvSink(gzip) : new NdjsonSink(gzip);
+            // Metadata is read before the first row, so an empty export still gets its CSV header
+            Long rows = readOnlyTransaction.execute(status -> cursorTemplate.query(sql, rs -> {
+                long count = 0;
+                try {
+                    sink.begin(rs.getMetaData());
+                    while (rs.next()) {
+                        sink.write(rs);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            }));
+            sink.finish();
+            log.info("Exported {} rows as {} in {} ms", rows, format, System.currentTimeMillis() - start);
+            return rows != null ? rows : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private interface RowSink {
+        void begin(ResultSetMetaData meta) throws SQLException, IOException;
+        
+        void write(ResultSet rs) throws SQLException, IOException;
+        
+        void finish() throws IOException;
+    }
+    
+    private static class CsvSink implements RowSink {
+        private final Writer writer;
+        private final CsvWriter csv;
+        private int columns;
+        
+        CsvSink(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.csv = new CsvWriter(writer);
+        }
+        
+        @Override
+        public void begin(ResultSetMetaData meta) throws SQLException, IOException {
+            columns = meta.getColumnCount();
+            List<String> header = new ArrayList<>(columns);
+            for (int i = 1; i <= columns; i++) {
+                header.add(meta.getColumnLabel(i));
+            }
+            csv.writeRecord(header);
+        }
+        
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            List<String> record = new ArrayList<>(columns);
+            for (int i = 1; i <= columns; i++) {
+                record.add(rs.getString(i));
+            }
+            csv.writeRecord(record);
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+    
+    private class NdjsonSink implements RowSink {
+        private final JsonGenerator generator;
+        private String[] labels;
+        private int[] types;
+        
+        NdjsonSink(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.generator.setRootValueSeparator(null);
+        }
+        
+        @Override
+        public void begin(ResultSetMetaData meta) throws SQLException {
+            int columns = meta.getColumnCount();
+            labels = new String[columns];
+            types = new int[columns];
+            for (int i = 0; i < columns; i++) {
+                labels[i] = meta.getColumnLabel(i + 1);
+                types[i] = meta.getColumnType(i + 1);
+            }
+        }
+        
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                generator.writeFieldName(labels[i]);
+                writeValue(rs, i + 1, types[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        
+        private void writeValue(ResultSet rs, int column, int type) throws SQLException, IOException {
+            switch (type) {
+                case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> {
+                    long value = rs.getLong(column);
+                    if (rs.wasNull()) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeNumber(value);
+                    }
+                }
+                case Types.DECIMAL, Types.NUMERIC -> generator.writeNumber(rs.getBigDecimal(column));
+                case Types.BIT, Types.BOOLEAN -> {
+                    boolean value = rs.getBoolean(column);
+                    if (rs.wasNull()) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeBoolean(value);
+                    }
+                }
+                default -> generator.writeString(rs.getString(column));
+            }
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
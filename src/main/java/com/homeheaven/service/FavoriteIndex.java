@@ -0,0 +1,241 @@
+package com.homeheaven.service;
+
+import com.homeheaven.event.FavoriteChangedEvent;
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.UserChangedEvent;
+import com.homeheaven.repository.FavoriteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory favorite membership: one compressed bitmap of property ids per
+ * user, loaded on first use and kept for the most recently active users.
+ * Marking a page of cards is then a handful of bitmap probes instead of a
+ * query per card.
+ *
+ * Bitmaps are updated from committed FavoriteChangedEvents. Changes that
+ * commit while a user's bitmap is being loaded are queued and replayed
+ * on top of the loaded snapshot, so a load never loses a concurrent change.
+ * Every change is also logged in favorite_changes, which each node polls
+ * to drop its bitmaps of users whose favorites changed on another node.
+ * Entries are re-read until they are past the settle window, so one whose
+ * seq was taken before a lower one committed is not skipped.
+ */
+@Service
+@Slf4j
+public class FavoriteIndex {
+    
+    private final FavoriteRepository favoriteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate loadTransaction;
+    private final int settleSeconds;
+    
+    /** Access-ordered, bounded by favorites.cache.max-users */
+    private final LinkedHashMap<Long, RoaringBitmap> bitmaps;
+    
+    /** Users whose bitmap is being loaded, with the changes committed meanwhile */
+    private final Map<Long, Load> loading = new HashMap<>();
+    
+    /** Entries after polledThrough already acted on, so re-reads don't drop bitmaps again */
+    private final Set<Long> seen = new HashSet<>();
+    
+    /** Highest favorite_changes seq past the settle window; -1 until the first poll */
+    private long polledThrough = -1;
+    
+    public FavoriteIndex(FavoriteRepository favoriteRepository,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${favorites.cache.max-users:100000}") int maxUsers,
+                         @Value("${favorites.sync.settle-seconds:10}") int settleSeconds) {
+        this.favoriteRepository = favoriteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.settleSeconds = settleSeconds;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        // Own transaction so the snapshot is taken after registering in "loading";
+        // read-write so it runs on the primary and sees the latest commits
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.bitmaps = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RoaringBitmap> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+    
+    /**
+     * The subset of the given property ids the user has favorited
+     */
+    public Set<Long> favoritesAmong(Long userId, Collection<Long> propertyIds) {
+        if (propertyIds.isEmpty()) {
+            return Set.of();
+        }
+        RoaringBitmap bitmap = bitmapOf(userId);
+        synchronized (this) {
+            return propertyIds.stream()
+                    .filter(id -> bitmap.contains(Math.toIntExact(id)))
+                    .collect(Collectors.toSet());
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void logFavoriteChanged(FavoriteChangedEvent event) {
+        jdbcTemplate.update("INSERT INTO favorite_changes (user_id) VALUES (?)", event.userId());
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onFavoriteChanged(FavoriteChangedEvent event) {
+        RoaringBitmap bitmap = bitmaps.get(event.userId());
+        if (bitmap != null) {
+            apply(bitmap, event);
+        }
+        Load load = loading.get(event.userId());
+        if (load != null) {
+            load.queued.add(event);
+        }
+    }
+    
+    /**
+     * Drop the bitmaps of users whose favorites changed since the last poll
+     * (including on this node; they are reloaded on next use)
+     */
+    @Scheduled(initialDelayString = "${favorites.sync.poll-interval:2000}",
+               fixedDelayString = "${favorites.sync.poll-interval:2000}")
+    public void poll() {
+        long after;
+        synchronized (this) {
+            after = polledThrough;
+        }
+        if (after < 0) {
+            Long latest = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM favorite_changes " +
+                    "WHERE changed_at < TIMESTAMPADD(SECOND, -?, NOW(3))", Long.class, settleSeconds);
+            synchronized (this) {
+                polledThrough = Math.max(polledThrough, latest);
+            }
+            return;
+        }
+        
+        Map<Long, Long> userBySeq = new HashMap<>();
+        long[] settledThrough = {after};
+        jdbcTemplate.query("SELECT seq, user_id, changed_at < TIMESTAMPADD(SECOND, -?, NOW(3)) " +
+                "FROM favorite_changes WHERE seq > ? ORDER BY seq", rs -> {
+            userBySeq.put(rs.getLong(1), rs.getLong(2));
+            if (rs.getBoolean(3)) {
+                settledThrough[0] = Math.max(settledThrough[0], rs.getLong(1));
+            }
+        }, settleSeconds, after);
+        
+        synchronized (this) {
+            userBySeq.forEach((seq, userId) -> {
+                if (seen.add(seq)) {
+                    bitmaps.remove(userId);
+                    Load load = loading.get(userId);
+                    if (load != null) {
+                        load.stale = true;
+                    }
+                }
+            });
+            polledThrough = Math.max(polledThrough, settledThrough[0]);
+            seen.removeIf(seq -> seq <= polledThrough);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${favorites.sync.purge-interval:3600000}")
+    public void purgeChanges() {
+        jdbcTemplate.update("DELETE FROM favorite_changes WHERE changed_at < TIMESTAMPADD(DAY, -1, NOW(3))");
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.type() == PropertyChangedEvent.ChangeType.DELETED) {
+            int id = Math.toIntExact(event.propertyId());
+            bitmaps.values().forEach(bitmap -> bitmap.remove(id));
+        }
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        RoaringBitmap deleted = new RoaringBitmap();
+        batch.changes().stream()
+                .filter(event -> event.type() == PropertyChangedEvent.ChangeType.DELETED)
+                .forEach(event -> deleted.add(Math.toIntExact(event.propertyId())));
+        if (!deleted.isEmpty()) {
+            bitmaps.values().forEach(bitmap -> bitmap.andNot(deleted));
+        }
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.ChangeType.DELETED) {
+            bitmaps.remove(event.userId());
+        }
+    }
+    
+    private RoaringBitmap bitmapOf(Long userId) {
+        synchronized (this) {
+            RoaringBitmap cached = bitmaps.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            loading.putIfAbsent(userId, new Load());
+        }
+        
+        // On failure the queue is left for the next load of this user (it may be shared with a concurrent one)
+        List<Long> ids = loadTransaction.execute(status -> favoriteRepository.findPropertyIdsByUserId(userId));
+        
+        synchronized (this) {
+            Load load = loading.remove(userId);
+            RoaringBitmap cached = bitmaps.get(userId);
+            if (cached != null) {
+                // A concurrent load finished first and has been kept current since
+                return cached;
+            }
+            RoaringBitmap bitmap = new RoaringBitmap();
+            ids.forEach(id -> bitmap.add(Math.toIntExact(id)));
+            if (load != null) {
+                load.queued.forEach(event -> apply(bitmap, event));
+                if (load.stale) {
+                    // Changed on another node during the load; good for this request only
+                    return bitmap;
+                }
+            }
+            bitmap.runOptimize();
+            bitmaps.put(userId, bitmap);
+            log.debug("Loaded {} favorites of user {}", bitmap.getCardinality(), userId);
+            return bitmap;
+        }
+    }
+    
+    private void apply(RoaringBitmap bitmap, FavoriteChangedEvent event) {
+        int id = Math.toIntExact(event.propertyId());
+        if (event.added()) {
+            bitmap.add(id);
+        } else {
+            bitmap.remove(id);
+        }
+    }
+    
+    private static class Load {
+        private final List<FavoriteChangedEvent> queued = new ArrayList<>();
+        private boolean stale;
+    }
+}
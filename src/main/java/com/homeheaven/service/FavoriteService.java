@@ -0,0 +1,96 @@
+package com.homeheaven.service;
+
+import com.homeheaven.dto.response.FavoriteResponse;
+import com.homeheaven.event.FavoriteChangedEvent;
+import com.homeheaven.exception.ResourceNotFoundException;
+import com.homeheaven.model.PropertyListing;
+import com.homeheaven.model.User;
+import com.homeheaven.repository.FavoriteRepository;
+import com.homeheaven.repository.PropertyListingRepository;
+import com.homeheaven.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Adding and removing favorites. The per-listing favorite_count is adjusted
+ * in the same transaction as the favorites row, only when a row was actually
+ * inserted or deleted, so repeated requests are idempotent.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FavoriteService {
+    
+    private final FavoriteRepository favoriteRepository;
+    private final PropertyListingRepository listingRepository;
+    private final UserRepository userRepository;
+    private final FavoriteIndex favoriteIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Transactional
+    public FavoriteResponse addFavorite(Long propertyId, String username) {
+        User user = findUser(username);
+        if (!listingRepository.existsById(propertyId)) {
+            throw new ResourceNotFoundException("Property not found");
+        }
+        
+        if (favoriteRepository.insertIgnore(user.getId(), propertyId) == 1) {
+            listingRepository.adjustFavoriteCount(propertyId, 1);
+            eventPublisher.publishEvent(new FavoriteChangedEvent(user.getId(), propertyId, true));
+            log.info("User {} favorited property {}", username, propertyId);
+        }
+        return toResponse(propertyId, true);
+    }
+    
+    @Transactional
+    public FavoriteResponse removeFavorite(Long propertyId, String username) {
+        User user = findUser(username);
+        
+        if (favoriteRepository.deleteByUserIdAndPropertyId(user.getId(), propertyId) == 1) {
+            listingRepository.adjustFavoriteCount(propertyId, -1);
+            eventPublisher.publishEvent(new FavoriteChangedEvent(user.getId(), propertyId, false));
+            log.info("User {} unfavorited property {}", username, propertyId);
+        }
+        return toResponse(propertyId, false);
+    }
+    
+    /**
+     * The subset of the given property ids the user has favorited (served from memory)
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> getFavoritedAmong(Collection<Long> propertyIds, String username) {
+        return favoriteIndex.favoritesAmong(findUser(username).getId(), propertyIds);
+    }
+    
+    /**
+     * Remove all favorites of a user being deleted, releasing their counts.
+     * Must run before the user row is deleted (the foreign key cascade would skip the counters).
+     */
+    @Transactional
+    public void removeAllForUser(Long userId) {
+        listingRepository.decrementFavoriteCountsOfUser(userId);
+        int removed = favoriteRepository.deleteByUserId(userId);
+        log.debug("Removed {} favorites of user {}", removed, userId);
+    }
+    
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+    
+    private FavoriteResponse toResponse(Long propertyId, boolean favorited) {
+        return FavoriteResponse.builder()
+                .propertyId(propertyId)
+                .favorited(favorited)
+                .favoriteCount(listingRepository.findById(propertyId)
+                        .map(PropertyListing::getFavoriteCount)
+                        .orElse(0))
+                .build();
+    }
+}
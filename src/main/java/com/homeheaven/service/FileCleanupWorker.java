@@ -0,0 +1,90 @@
+package com.homeheaven.service;
+
+import com.homeheaven.event.ImagesOrphanedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Removes image files of deleted properties in the background. Orphaned
+ * paths are queued in file_cleanup_queue inside the deleting transaction,
+ * so they are only processed once it has committed and are not lost on a
+ * restart. Deletion is idempotent (missing files are ignored), so retries
+ * and several nodes working the same queue are safe.
+ */
+@Service
+@Slf4j
+public class FileCleanupWorker {
+    
+    private static final int BATCH_SIZE = 200;
+    
+    private final FileStorageService fileStorageService;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${file.cleanup.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${file.cleanup.retry-delay:5000}")
+    private long retryDelayMillis;
+    
+    public FileCleanupWorker(FileStorageService fileStorageService, JdbcTemplate jdbcTemplate) {
+        this.fileStorageService = fileStorageService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onImagesOrphaned(ImagesOrphanedEvent event) {
+        if (event.imagePaths().isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO file_cleanup_queue (image_path) VALUES (?)",
+                event.imagePaths().stream().map(path -> new Object[]{path}).toList());
+        log.info("Queued {} image files for deletion", event.imagePaths().size());
+    }
+    
+    /**
+     * Delete queued files that are due, until a partial batch is seen
+     */
+    @Scheduled(fixedDelayString = "${file.cleanup.poll-interval:5000}")
+    public void process() {
+        List<Task> due;
+        do {
+            due = jdbcTemplate.query("SELECT id, image_path, attempts FROM file_cleanup_queue " +
+                    "WHERE next_attempt_at <= NOW(3) ORDER BY id LIMIT ?",
+                    (rs, i) -> new Task(rs.getLong(1), rs.getString(2), rs.getInt(3)), BATCH_SIZE);
+            
+            List<Object[]> done = new ArrayList<>();
+            List<Object[]> retries = new ArrayList<>();
+            for (Task task : due) {
+                try {
+                    fileStorageService.deleteFile(task.path);
+                    done.add(new Object[]{task.id});
+                } catch (Exception e) {
+                    int attempt = task.attempts + 1;
+                    if (attempt < maxAttempts) {
+                        log.warn("Could not delete file {} (attempt {}), retrying", task.path, attempt);
+                        retries.add(new Object[]{attempt,
+                                new Timestamp(System.currentTimeMillis() + retryDelayMillis * attempt), task.id});
+                    } else {
+                        log.error("Giving up deleting file {} after {} attempts", task.path, attempt, e);
+                        done.add(new Object[]{task.id});
+                    }
+                }
+            }
+            jdbcTemplate.batchUpdate("DELETE FROM file_cleanup_queue WHERE id = ?", done);
+            jdbcTemplate.batchUpdate("UPDATE file_cleanup_queue SET attempts = ?, next_attempt_at = ? WHERE id = ?",
+                    retries);
+        } while (due.size() == BATCH_SIZE);
+    }
+    
+    private record Task(long id, String path, int attempts) {
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -32,13 +33,24 @@ public class FileStorageService {
     }
     
     public String storeFile(MultipartFile file) {
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
+        if (file.isEmpty()) {
+            throw new FileStorageException("Failed to store empty file " + file.getOriginalFilename());
+        }
+        
+        try (InputStream in = file.getInputStream()) {
+            return storeFile(in, file.getOriginalFilename());
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store file " + file.getOriginalFilename(), ex);
+        }
+    }
+    
+    /**
+     * Store a file from a stream (e.g. an entry of an uploaded archive)
+     */
+    public String storeFile(InputStream in, String name) {
+        String originalFilename = StringUtils.cleanPath(name);
         
         try {
-            if (file.isEmpty()) {
-                throw new FileStorageException("Failed to store empty file " + originalFilename);
-            }
-            
             if (originalFilename.contains("..")) {
                 throw new FileStorageException("Filename contains invalid path sequence " + originalFilename);
             }
@@ -47,7 +59,7 @@ public class FileStorageService {
             String filename = UUID.randomUUID().toString() + extension;
             
             Path targetLocation = this.fileStorageLocation.resolve(filename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(in, targetLocation, StandardCopyOption.REPLACE_EXISTING);
             
             log.info("File stored successfully: {}", filename);
             return filename;
@@ -56,6 +68,10 @@ public class FileStorageService {
         }
     }
     
+    public Path getFilePath(String filename) {
+        return this.fileStorageLocation.resolve(filename).normalize();
+    }
+    
     public void deleteFile(String filename) {
         try {
             Path filePath = this.fileStorageLocation.resolve(filename).normalize();
@@ -0,0 +1,80 @@
+package com.homeheaven.service;
+
+import com.homeheaven.model.User;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for last login timestamps.
+ * Logins only record into memory; repeated logins of the same user are
+ * coalesced and flushed as one batched UPDATE every few seconds.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LastLoginTracker {
+    
+    private static final String UPDATE_SQL = "UPDATE users SET last_login = ? WHERE id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    
+    // Pending updates: user id -> latest login time
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    
+    /**
+     * Record a login (no database access)
+     */
+    public void recordLogin(Long userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, next) -> next.isAfter(current) ? next : current);
+    }
+    
+    /**
+     * Flush coalesced timestamps to the database
+     */
+    @Scheduled(fixedDelayString = "${auth.last-login.flush-interval:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<Long> userIds = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        for (Long userId : new ArrayList<>(pending.keySet())) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                userIds.add(userId);
+                batch.add(new Object[]{Timestamp.valueOf(loginTime), userId});
+            }
+        }
+        
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+            // The update bypasses Hibernate, so drop stale second-level cache entries
+            userIds.forEach(id -> entityManagerFactory.getCache().evict(User.class, id));
+            log.debug("Flushed last login for {} users", batch.size());
+        } catch (Exception e) {
+            log.error("Failed to flush last login for {} users, will retry", batch.size(), e);
+            for (int i = 0; i < userIds.size(); i++) {
+                recordLogin(userIds.get(i), ((Timestamp) batch.get(i)[0]).toLocalDateTime());
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,202 @@
+package com.homeheaven.service;
+
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.event.UserChangedEvent;
+import com.homeheaven.model.PropertyListing;
+import com.homeheaven.repository.PropertyListingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the property_listings read model from after-commit domain
+ * events, and can rebuild it from scratch. If applying an event fails, the
+ * affected properties are queued in listing_projection_retry and
+ * re-projected from the source tables in the background, so a lost event
+ * cannot leave the read model permanently out of date.
+ */
+@Service
+@Slf4j
+public class ListingProjectionService {
+    
+    private static final int SUMMARY_LENGTH = 255;
+    
+    private static final String REBUILD_SQL =
+            "INSERT INTO property_listings (property_id, owner_id, owner_username, owner_phone, name, city, " +
+            "property_type, rent, sqft, sharing_option, summary, is_available, primary_image, created_at, favorite_count, " +
+            "latitude, longitude) " +
+            "SELECT p.id, p.owner_id, u.username, u.phone, p.name, p.city, p.property_type, p.rent, p.sqft, " +
+            "p.sharing_option, LEFT(p.description, " + SUMMARY_LENGTH + "), p.is_available, " +
+            "(SELECT i.image_path FROM property_images i WHERE i.property_id = p.id " +
+            " ORDER BY i.is_primary DESC, i.display_order, i.id LIMIT 1), p.created_at, " +
+            "(SELECT COUNT(*) FROM favorites f WHERE f.property_id = p.id), p.latitude, p.longitude " +
+            "FROM properties p JOIN users u ON u.id = p.owner_id";
+    
+    private static final int RETRY_BATCH_SIZE = 200;
+    
+    private final PropertyListingRepository listingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    
+    @Value("${listings.projection.retry-delay:5000}")
+    private long retryDelayMillis;
+    
+    @Value("${listings.projection.max-retry-delay:600000}")
+    private long maxRetryDelayMillis;
+    
+    public ListingProjectionService(PropertyListingRepository listingRepository, JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.listingRepository = listingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (event.type() == PropertyChangedEvent.ChangeType.DELETED) {
+                    listingRepository.deleteByPropertyId(event.propertyId());
+                } else {
+                    listingRepository.save(toListing(event.after()));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Projection of property {} failed, queued for retry", event.propertyId(), e);
+            queueRetry(List.of(event.propertyId()));
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        List<Long> deleted = new ArrayList<>();
+        List<PropertyListing> saved = new ArrayList<>();
+        for (PropertyChangedEvent event : batch.changes()) {
+            if (event.type() == PropertyChangedEvent.ChangeType.DELETED) {
+                deleted.add(event.propertyId());
+            } else {
+                saved.add(toListing(event.after()));
+            }
+        }
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (!deleted.isEmpty()) {
+                    listingRepository.deleteAllByIdInBatch(deleted);
+                }
+                listingRepository.saveAll(saved);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Projection of {} properties failed, queued for retry", batch.changes().size(), e);
+            queueRetry(batch.changes().stream().map(PropertyChangedEvent::propertyId).toList());
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() != UserChangedEvent.ChangeType.DELETED) {
+            return;
+        }
+        try {
+            newTransaction.executeWithoutResult(status -> listingRepository.deleteByOwnerId(event.userId()));
+        } catch (RuntimeException e) {
+            log.warn("Removing listings of deleted user {} failed, queued for retry", event.userId(), e);
+            queueRetry(jdbcTemplate.queryForList("SELECT property_id FROM property_listings WHERE owner_id = ?",
+                    Long.class, event.userId()));
+        }
+    }
+    
+    /**
+     * Re-project queued properties that are due from the source tables,
+     * each in its own transaction, until a partial batch is seen
+     */
+    @Scheduled(fixedDelayString = "${listings.projection.retry-interval:5000}")
+    public void processRetries() {
+        List<Retry> due;
+        do {
+            due = jdbcTemplate.query("SELECT property_id, attempts FROM listing_projection_retry " +
+                    "WHERE next_attempt_at <= NOW(3) ORDER BY next_attempt_at LIMIT ?",
+                    (rs, i) -> new Retry(rs.getLong(1), rs.getInt(2)), RETRY_BATCH_SIZE);
+            
+            for (Retry retry : due) {
+                try {
+                    newTransaction.executeWithoutResult(status -> {
+                        jdbcTemplate.update("DELETE FROM property_listings WHERE property_id = ?", retry.propertyId);
+                        jdbcTemplate.update(REBUILD_SQL + " WHERE p.id = ?", retry.propertyId);
+                        jdbcTemplate.update("DELETE FROM listing_projection_retry WHERE property_id = ?",
+                                retry.propertyId);
+                    });
+                } catch (RuntimeException e) {
+                    int attempt = retry.attempts + 1;
+                    log.warn("Re-projecting property {} failed (attempt {})", retry.propertyId, attempt, e);
+                    // Never give up: dropping the row would leave the listing stale until a full rebuild
+                    long delay = Math.min(retryDelayMillis * attempt, maxRetryDelayMillis);
+                    jdbcTemplate.update("UPDATE listing_projection_retry SET attempts = ?, next_attempt_at = ? " +
+                            "WHERE property_id = ?", attempt, new Timestamp(System.currentTimeMillis() + delay),
+                            retry.propertyId);
+                }
+            }
+        } while (due.size() == RETRY_BATCH_SIZE);
+    }
+    
+    /**
+     * Rebuild the read model from the source tables
+     */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update("DELETE FROM property_listings");
+        jdbcTemplate.update("DELETE FROM listing_projection_retry");
+        int rows = jdbcTemplate.update(REBUILD_SQL);
+        log.info("Listing read model rebuilt with {} rows", rows);
+        return rows;
+    }
+    
+    private void queueRetry(List<Long> propertyIds) {
+        try {
+            jdbcTemplate.batchUpdate("INSERT INTO listing_projection_retry (property_id) VALUES (?) " +
+                    "ON DUPLICATE KEY UPDATE next_attempt_at = LEAST(next_attempt_at, NOW(3))",
+                    propertyIds.stream().map(id -> new Object[]{id}).toList());
+        } catch (RuntimeException e) {
+            log.error("Could not queue {} properties for re-projection; rebuild the read model", propertyIds.size(), e);
+        }
+    }
+    
+    private PropertyListing toListing(PropertySnapshot snapshot) {
+        String description = snapshot.description();
+        return PropertyListing.builder()
+                .propertyId(snapshot.id())
+                .ownerId(snapshot.ownerId())
+                .ownerUsername(snapshot.ownerUsername())
+                .ownerPhone(snapshot.ownerPhone())
+                .name(snapshot.name())
+                .city(snapshot.city())
+                .propertyType(snapshot.propertyType())
+                .rent(snapshot.rent())
+                .sqft(snapshot.sqft())
+                .sharingOption(snapshot.sharingOption())
+                .summary(description != null && description.length() > SUMMARY_LENGTH
+                        ? description.substring(0, SUMMARY_LENGTH) : description)
+                .isAvailable(snapshot.available())
+                .primaryImage(snapshot.primaryImage())
+                .createdAt(snapshot.createdAt())
+                .latitude(snapshot.latitude())
+                .longitude(snapshot.longitude())
+                .build();
+    }
+    
+    private record Retry(long propertyId, int attempts) {
+    }
+}
@@ -0,0 +1,313 @@
+package com.homeheaven.service;
+
+import com.homeheaven.dto.response.PropertyResponse;
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.exception.BadRequestException;
+import com.homeheaven.model.Property;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events broadcaster for new and updated listings.
+ * <p>
+ * Committed changes are matched against each subscriber's filters and
+ * offered to that subscriber's bounded queue; the publishing thread never
+ * touches a socket. A small sender pool drains queues, at most one drain
+ * per subscriber at a time. A subscriber whose queue is full is too slow
+ * to keep up and is disconnected (the browser's EventSource reconnects
+ * and can refetch with a search). A send that blocks longer than
+ * stream.send-timeout is interrupted and its subscriber disconnected, so a
+ * stalled client cannot hold a sender thread. Connections per client
+ * address are capped. Heartbeat comments keep idle connections open
+ * through proxies and detect dead clients.
+ */
+@Service
+@Slf4j
+public class ListingStreamService {
+    
+    private static final int DESCRIPTION_PREVIEW = 200;
+    
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Integer> connectionsByClient = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final ExecutorService senders;
+    private final Counter evictions;
+    
+    @Value("${stream.max-subscribers:5000}")
+    private int maxSubscribers;
+    
+    @Value("${stream.max-per-client:4}")
+    private int maxPerClient;
+    
+    @Value("${stream.send-timeout:10000}")
+    private long sendTimeoutMillis;
+    
+    @Value("${stream.buffer-size:64}")
+    private int bufferSize;
+    
+    @Value("${stream.timeout:1800000}")
+    private long timeoutMillis;
+    
+    public ListingStreamService(MeterRegistry meterRegistry,
+                                @Value("${stream.sender-threads:4}") int senderThreads) {
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "listing-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictions = meterRegistry.counter("listing.stream.evicted");
+        meterRegistry.gaugeMapSize("listing.stream.subscribers", Tags.empty(), subscribers);
+    }
+    
+    /**
+     * Register a subscriber with search-style filters; empty when at capacity
+     * overall or for the client address
+     */
+    public Optional<SseEmitter> subscribe(String city, BigDecimal minRent, BigDecimal maxRent, String type,
+                                          String clientAddress) {
+        if (subscribers.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        
+        Property.PropertyType propertyType = null;
+        if (type != null && !type.isBlank()) {
+            propertyType = Arrays.stream(Property.PropertyType.values())
+                    .filter(t -> t.name().equalsIgnoreCase(type.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("Unknown property type: " + type));
+        }
+        
+        boolean[] admitted = {false};
+        connectionsByClient.compute(clientAddress, (key, count) -> {
+            int current = count != null ? count : 0;
+            admitted[0] = current < maxPerClient;
+            return admitted[0] ? current + 1 : count;
+        });
+        if (!admitted[0]) {
+            log.info("Stream subscription from {} rejected: {} connections open", clientAddress, maxPerClient);
+            return Optional.empty();
+        }
+        
+        long id = nextId.incrementAndGet();
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(id, emitter, clientAddress,
+                city != null && !city.isBlank() ? city.trim().toLowerCase(Locale.ROOT) : null,
+                minRent, maxRent, propertyType, new ArrayBlockingQueue<>(bufferSize));
+        
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribers.put(id, subscriber);
+        
+        enqueue(subscriber, SseEmitter.event().comment("connected").reconnectTime(5000));
+        return Optional.of(emitter);
+    }
+    
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        PropertySnapshot listing = event.after();
+        if (listing == null || !listing.available() || subscribers.isEmpty()) {
+            return;
+        }
+        if (event.type() != PropertyChangedEvent.ChangeType.CREATED
+                && event.type() != PropertyChangedEvent.ChangeType.UPDATED) {
+            return;
+        }
+        
+        String name = event.type() == PropertyChangedEvent.ChangeType.CREATED ? "listing-created" : "listing-updated";
+        PropertyResponse payload = toResponse(listing);
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.matches(listing)) {
+                enqueue(subscriber, SseEmitter.event()
+                        .id(String.valueOf(listing.id()))
+                        .name(name)
+                        .data(payload, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        batch.changes().forEach(this::onPropertyChanged);
+    }
+    
+    @Scheduled(fixedDelayString = "${stream.heartbeat-interval:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(subscriber -> {
+            // A heartbeat is only useful if nothing else is waiting to be sent
+            if (subscriber.queue.isEmpty()) {
+                enqueue(subscriber, SseEmitter.event().comment("keepalive"));
+            }
+        });
+    }
+    
+    /**
+     * Interrupt sends stuck on a client that stopped reading
+     */
+    @Scheduled(fixedDelayString = "${stream.send-timeout-check-interval:1000}")
+    public void checkSendTimeouts() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers.values()) {
+            long since = subscriber.sendingSince.get();
+            if (since > 0 && now - since > sendTimeoutMillis) {
+                evict(subscriber, "send timed out");
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        connectionsByClient.clear();
+        senders.shutdownNow();
+    }
+    
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue.offer(event)) {
+            evict(subscriber, "buffer full");
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        try {
+            subscriber.sender = Thread.currentThread();
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.sendingSince.set(System.currentTimeMillis());
+                subscriber.emitter.send(event);
+                subscriber.sendingSince.set(0);
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(subscriber);
+            log.debug("Stream subscriber {} disconnected: {}", subscriber.id, e.getMessage());
+            return;
+        } finally {
+            subscriber.sendingSince.set(0);
+            subscriber.sender = null;
+            // Clear an interrupt from the timeout check so it doesn't hit the next task on this thread
+            Thread.interrupted();
+            subscriber.draining.set(false);
+        }
+        // An event may have been queued after the last poll but before the flag was cleared
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void evict(Subscriber subscriber, String reason) {
+        if (remove(subscriber)) {
+            evictions.increment();
+            subscriber.queue.clear();
+            Thread sender = subscriber.sender;
+            if (sender != null && subscriber.sendingSince.get() > 0) {
+                // Completing would wait for the blocked send; interrupting makes it fail and end the response
+                sender.interrupt();
+            } else {
+                subscriber.emitter.complete();
+            }
+            log.info("Stream subscriber {} evicted: {}", subscriber.id, reason);
+        }
+    }
+    
+    /**
+     * Unregister once, releasing the client's connection slot
+     */
+    private boolean remove(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber.id, subscriber)) {
+            return false;
+        }
+        connectionsByClient.computeIfPresent(subscriber.clientAddress, (key, count) -> count > 1 ? count - 1 : null);
+        return true;
+    }
+    
+    private PropertyResponse toResponse(PropertySnapshot listing) {
+        String description = listing.description();
+        if (description != null && description.length() > DESCRIPTION_PREVIEW) {
+            description = description.substring(0, DESCRIPTION_PREVIEW);
+        }
+        return PropertyResponse.builder()
+                .id(listing.id())
+                .name(listing.name())
+                .city(listing.city())
+                .propertyType(listing.propertyType().name())
+                .rent(listing.rent())
+                .sqft(listing.sqft())
+                .sharingOption(listing.sharingOption())
+                .description(description)
+                .isAvailable(listing.available())
+                .images(listing.primaryImage())
+                .owner(PropertyResponse.OwnerInfo.builder()
+                        .username(listing.ownerUsername())
+                        .phone(listing.ownerPhone())
+                        .build())
+                .createdAt(listing.createdAt())
+                .build();
+    }
+    
+    private static class Subscriber {
+        private final long id;
+        private final SseEmitter emitter;
+        private final String clientAddress;
+        private final String city;
+        private final BigDecimal minRent;
+        private final BigDecimal maxRent;
+        private final Property.PropertyType type;
+        private final Queue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        /** Start of the send in progress, 0 when not sending */
+        private final AtomicLong sendingSince = new AtomicLong();
+        private volatile Thread sender;
+        
+        Subscriber(long id, SseEmitter emitter, String clientAddress, String city, BigDecimal minRent,
+                   BigDecimal maxRent, Property.PropertyType type, Queue<SseEmitter.SseEventBuilder> queue) {
+            this.id = id;
+            this.emitter = emitter;
+            this.clientAddress = clientAddress;
+            this.city = city;
+            this.minRent = minRent;
+            this.maxRent = maxRent;
+            this.type = type;
+            this.queue = queue;
+        }
+        
+        /**
+         * Same semantics as the search endpoint (city is a case-insensitive substring)
+         */
+        boolean matches(PropertySnapshot listing) {
+            return (city == null || (listing.city() != null && listing.city().toLowerCase(Locale.ROOT).contains(city)))
+                    && (minRent == null || listing.rent().compareTo(minRent) >= 0)
+                    && (maxRent == null || listing.rent().compareTo(maxRent) <= 0)
+                    && (type == null || type == listing.propertyType());
+        }
+    }
+}
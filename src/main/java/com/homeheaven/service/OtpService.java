@@ -1,43 +1,56 @@
 package com.homeheaven.service;
 
+import com.homeheaven.service.otp.OtpMetrics;
+import com.homeheaven.service.otp.OtpStore;
+import com.homeheaven.service.otp.OtpVerificationResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Locale;
 
 /**
- * OTP service for generating and validating OTPs (in-memory storage)
+ * OTP service for generating and validating OTPs.
+ * Storage is pluggable (see otp.store): in-memory for a single node, JDBC when shared.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OtpService {
     
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
     private final EmailService emailService;
+    private final OtpStore otpStore;
+    private final OtpMetrics otpMetrics;
+    private final MeterRegistry meterRegistry;
     
     @Value("${otp.expiration:600000}") // 10 minutes default
     private long otpExpiration;
     
-    // In-memory storage: email -> OtpData
-    private final Map<String, OtpData> otpStore = new ConcurrentHashMap<>();
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("otp.active", otpStore, OtpStore::activeCount)
+                .description("OTPs issued and not yet verified or expired")
+                .register(meterRegistry);
+    }
     
     /**
      * Generate and send 4-digit OTP
      */
     public void generateAndSendOtp(String email) {
         // Generate random 4-digit OTP
-        String otp = String.format("%04d", new Random().nextInt(10000));
-        
-        // Calculate expiration time
-        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(otpExpiration / 1000);
+        String otp = String.format("%04d", RANDOM.nextInt(10000));
         
         // Store OTP
-        otpStore.put(email, new OtpData(otp, expiresAt));
+        otpStore.save(normalize(email), otp, Duration.ofMillis(otpExpiration));
+        otpMetrics.issued();
         
         // Send email
         emailService.sendOtpEmail(email, otp);
@@ -49,55 +62,31 @@ public class OtpService {
      * Verify OTP
      */
     public boolean verifyOtp(String email, String otp) {
-        OtpData otpData = otpStore.get(email);
-        
-        if (otpData == null) {
-            log.warn("No OTP found for email: {}", email);
-            return false;
-        }
-        
-        if (otpData.isExpired()) {
-            log.warn("OTP expired for email: {}", email);
-            otpStore.remove(email);
-            return false;
-        }
+        OtpVerificationResult result = otpStore.verify(normalize(email), otp);
         
-        if (!otpData.getCode().equals(otp)) {
-            log.warn("Invalid OTP for email: {}", email);
-            return false;
+        switch (result) {
+            case VERIFIED -> {
+                otpMetrics.verified();
+                log.info("OTP verified successfully for email: {}", email);
+                return true;
+            }
+            case NOT_FOUND -> log.warn("No OTP found for email: {}", email);
+            case EXPIRED -> log.warn("OTP expired for email: {}", email);
+            case TOO_MANY_ATTEMPTS -> log.warn("Too many invalid OTP attempts for email: {}", email);
+            default -> log.warn("Invalid OTP for email: {}", email);
         }
-        
-        // OTP is valid, remove it
-        otpStore.remove(email);
-        log.info("OTP verified successfully for email: {}", email);
-        return true;
+        otpMetrics.rejected();
+        return false;
     }
     
     /**
      * Clear OTP for email
      */
     public void clearOtp(String email) {
-        otpStore.remove(email);
+        otpStore.remove(normalize(email));
     }
     
-    /**
-     * Inner class to store OTP data
-     */
-    private static class OtpData {
-        private final String code;
-        private final LocalDateTime expiresAt;
-        
-        public OtpData(String code, LocalDateTime expiresAt) {
-            this.code = code;
-            this.expiresAt = expiresAt;
-        }
-        
-        public String getCode() {
-            return code;
-        }
-        
-        public boolean isExpired() {
-            return LocalDateTime.now().isAfter(expiresAt);
-        }
+    private String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,470 @@
+package com.homeheaven.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeheaven.dto.request.PropertyRequest;
+import com.homeheaven.dto.response.BulkImportResponse;
+import com.homeheaven.event.ImagesOrphanedEvent;
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.exception.BadRequestException;
+import com.homeheaven.exception.ResourceNotFoundException;
+import com.homeheaven.model.Property;
+import com.homeheaven.model.PropertyImage;
+import com.homeheaven.model.User;
+import com.homeheaven.repository.PropertyRepository;
+import com.homeheaven.repository.UserRepository;
+import com.homeheaven.service.duplicate.DuplicateDetectionService;
+import com.homeheaven.service.duplicate.DuplicateMatch;
+import com.homeheaven.service.duplicate.Fingerprint;
+import com.homeheaven.service.geo.GazetteerGeocoder;
+import com.homeheaven.service.geo.GeoPoint;
+import com.homeheaven.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Bulk listing import from CSV or NDJSON, with an optional zip archive of
+ * images referenced by file name. Rows are parsed and validated one at a
+ * time and persisted in chunks, each chunk in its own transaction so the
+ * inserts go out as JDBC batches.
+ */
+@Service
+@Slf4j
+public class PropertyImportService {
+    
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private final PropertyRepository propertyRepository;
+    private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final GazetteerGeocoder geocoder;
+    private final DuplicateDetectionService duplicateDetectionService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${import.chunk-size:500}")
+    private int chunkSize;
+    
+    public PropertyImportService(PropertyRepository propertyRepository,
+                                 UserRepository userRepository,
+                                 FileStorageService fileStorageService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 GazetteerGeocoder geocoder,
+                                 DuplicateDetectionService duplicateDetectionService) {
+        this.propertyRepository = propertyRepository;
+        this.userRepository = userRepository;
+        this.fileStorageService = fileStorageService;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.geocoder = geocoder;
+        this.duplicateDetectionService = duplicateDetectionService;
+    }
+    
+    public BulkImportResponse importListings(MultipartFile file, MultipartFile imagesArchive, String username) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Import file is required");
+        }
+        User owner = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        
+        long start = System.nanoTime();
+        long rowNanos = 0;
+        ImportState state = new ImportState(owner.getId());
+        Path archivePath = null;
+        
+        try {
+            ZipFile archive = null;
+            if (imagesArchive != null && !imagesArchive.isEmpty()) {
+                archivePath = Files.createTempFile("listing-import-", ".zip");
+                imagesArchive.transferTo(archivePath);
+                archive = new ZipFile(archivePath.toFile());
+            }
+            
+            // The row rate covers reading, validating and saving rows, not staging the archive
+            long rowsStart = System.nanoTime();
+            try (InputStream in = file.getInputStream();
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                if (isNdjson(file)) {
+                    readNdjson(reader, archive, state);
+                } else {
+                    readCsv(reader, archive, state);
+                }
+                flushChunk(state);
+            } finally {
+                rowNanos = System.nanoTime() - rowsStart;
+                if (archive != null) {
+                    archive.close();
+                }
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Could not read import file: " + e.getMessage(), e);
+        } finally {
+            if (archivePath != null) {
+                try {
+                    Files.deleteIfExists(archivePath);
+                } catch (IOException e) {
+                    log.warn("Could not delete temp archive {}", archivePath);
+                }
+            }
+        }
+        
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Imported {} of {} rows for user {} in {} ms", state.imported, state.totalRows, username, elapsed);
+        
+        return BulkImportResponse.builder()
+                .totalRows(state.totalRows)
+                .imported(state.imported)
+                .failed(state.failed)
+                .elapsedMillis(elapsed)
+                .rowsPerSecond(state.totalRows * 1e9 / Math.max(rowNanos, 1))
+                .errorsTruncated(state.failed > state.errors.size())
+                .errors(state.errors)
+                .build();
+    }
+    
+    private boolean isNdjson(MultipartFile file) {
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        String contentType = file.getContentType() != null ? file.getContentType() : "";
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl") || contentType.contains("ndjson");
+    }
+    
+    private void readCsv(BufferedReader reader, ZipFile archive, ImportState state) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new BadRequestException("Import file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            state.totalRows++;
+            Map<String, String> row = new HashMap<>();
+            columns.forEach((name, index) -> row.put(name, index < record.size() ? record.get(index) : null));
+            List<String> images = splitImages(row.get("images"));
+            processRow(row, images, archive, state);
+        }
+    }
+    
+    private void readNdjson(BufferedReader reader, ZipFile archive, ImportState state) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            state.totalRows++;
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (IOException e) {
+                state.error("Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            
+            Map<String, String> row = new HashMap<>();
+            node.fields().forEachRemaining(field -> {
+                if (!field.getValue().isNull() && !field.getValue().isContainerNode()) {
+                    row.put(field.getKey(), field.getValue().asText());
+                }
+            });
+            List<String> images = new ArrayList<>();
+            JsonNode imagesNode = node.get("images");
+            if (imagesNode != null && imagesNode.isArray()) {
+                imagesNode.forEach(image -> images.add(image.asText()));
+            } else if (imagesNode != null && imagesNode.isTextual()) {
+                images.addAll(splitImages(imagesNode.asText()));
+            }
+            processRow(row, images, archive, state);
+        }
+    }
+    
+    private void processRow(Map<String, String> row, List<String> images, ZipFile archive, ImportState state) {
+        PropertyRequest request = new PropertyRequest();
+        request.setName(trim(row.get("name")));
+        request.setAddress(trim(row.get("address")));
+        request.setCity(trim(row.get("city")));
+        request.setPropertyType(trim(row.get("propertyType")));
+        request.setRent(trim(row.get("rent")));
+        request.setSharingOption(trim(row.get("sharingOption")));
+        request.setDescription(trim(row.get("description")));
+        
+        List<String> problems = new ArrayList<>();
+        String sqft = trim(row.get("sqft"));
+        if (sqft != null && !sqft.isEmpty()) {
+            try {
+                request.setSqft(Integer.valueOf(sqft));
+            } catch (NumberFormatException e) {
+                problems.add("sqft must be a whole number");
+            }
+        }
+        String latitude = trim(row.get("latitude"));
+        String longitude = trim(row.get("longitude"));
+        if (latitude != null && !latitude.isEmpty() && longitude != null && !longitude.isEmpty()) {
+            try {
+                request.setLatitude(Double.valueOf(latitude));
+                request.setLongitude(Double.valueOf(longitude));
+            } catch (NumberFormatException e) {
+                problems.add("latitude and longitude must be numbers");
+            }
+        }
+        
+        for (ConstraintViolation<PropertyRequest> violation : validator.validate(request)) {
+            problems.add(violation.getMessage());
+        }
+        Property.PropertyType type = parseType(request.getPropertyType());
+        if (request.getPropertyType() != null && type == null) {
+            problems.add("Property type must be one of " + Arrays.toString(Property.PropertyType.values()));
+        }
+        BigDecimal rent = null;
+        if (request.getRent() != null) {
+            try {
+                rent = new BigDecimal(request.getRent());
+            } catch (NumberFormatException e) {
+                problems.add("Rent must be a number");
+            }
+        }
+        for (String image : images) {
+            if (archive == null || archive.getEntry(image) == null) {
+                problems.add("Image not found in archive: " + image);
+            }
+        }
+        
+        if (!problems.isEmpty()) {
+            state.error(String.join("; ", problems));
+            return;
+        }
+        
+        List<InputStreamSource> imageSources = images.stream()
+                .map(image -> (InputStreamSource) () -> archive.getInputStream(archive.getEntry(image)))
+                .collect(Collectors.toList());
+        Fingerprint fingerprint = duplicateDetectionService.fingerprint(request.getName(), request.getDescription(),
+                duplicateDetectionService.hashImages(imageSources));
+        // Rows of the open chunk are not indexed yet: if one matches, commit the chunk first
+        // so the check below sees it (and a flagged row can point at its id)
+        if (state.chunk.stream().anyMatch(row -> duplicateDetectionService.isDuplicate(fingerprint, row.fingerprint))) {
+            flushChunk(state);
+        }
+        DuplicateMatch duplicate;
+        try {
+            duplicate = duplicateDetectionService.check(fingerprint, null).orElse(null);
+        } catch (BadRequestException e) {
+            state.error(e.getMessage());
+            return;
+        }
+        
+        state.chunk.add(new ImportRow(state.totalRows, request, type, rent, images, archive, fingerprint, duplicate));
+        if (state.chunk.size() >= chunkSize) {
+            flushChunk(state);
+        }
+    }
+    
+    /**
+     * Persist the current chunk in one transaction (batched inserts). If the
+     * chunk fails, its rows are saved one by one so only the failing rows are
+     * reported, each with its own cause.
+     */
+    private void flushChunk(ImportState state) {
+        if (state.chunk.isEmpty()) {
+            return;
+        }
+        List<ImportRow> rows = new ArrayList<>(state.chunk);
+        state.chunk.clear();
+        
+        try {
+            persist(rows, state.ownerId);
+            state.imported += rows.size();
+            return;
+        } catch (Exception e) {
+            if (rows.size() == 1) {
+                state.error(rows.get(0).rowNumber, "Could not save row: " + causeOf(e));
+                return;
+            }
+            log.warn("Import chunk of {} rows failed, saving its rows one by one", rows.size(), e);
+        }
+        for (ImportRow row : rows) {
+            try {
+                persist(List.of(row), state.ownerId);
+                state.imported++;
+            } catch (Exception e) {
+                state.error(row.rowNumber, "Could not save row: " + causeOf(e));
+            }
+        }
+    }
+    
+    private void persist(List<ImportRow> rows, Long ownerId) {
+        List<String> storedFiles = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                User owner = entityManager.getReference(User.class, ownerId);
+                List<Property> properties = new ArrayList<>(rows.size());
+                for (ImportRow row : rows) {
+                    properties.add(toProperty(row, owner, storedFiles));
+                }
+                propertyRepository.saveAll(properties);
+                entityManager.flush();
+                for (int i = 0; i < rows.size(); i++) {
+                    duplicateDetectionService.record(properties.get(i).getId(), rows.get(i).fingerprint,
+                            rows.get(i).duplicate);
+                }
+                
+                List<PropertyChangedEvent> changes = properties.stream()
+                        .map(property -> PropertyChangedEvent.created(PropertySnapshot.of(property)))
+                        .collect(Collectors.toList());
+                entityManager.clear();
+                eventPublisher.publishEvent(new PropertyBatchChangedEvent(changes));
+            });
+        } catch (RuntimeException e) {
+            eventPublisher.publishEvent(new ImagesOrphanedEvent(storedFiles));
+            throw e;
+        }
+    }
+    
+    private static String causeOf(Exception e) {
+        return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+    
+    private Property toProperty(ImportRow row, User owner, List<String> storedFiles) {
+        PropertyRequest request = row.request;
+        Property property = Property.builder()
+                .owner(owner)
+                .name(request.getName())
+                .address(request.getAddress())
+                .city(request.getCity())
+                .propertyType(row.type)
+                .rent(row.rent)
+                .sqft(request.getSqft())
+                .sharingOption(request.getSharingOption())
+                .description(request.getDescription())
+                .isAvailable(true)
+                .viewCount(0)
+                .build();
+        if (GeoPoint.isValid(request.getLatitude(), request.getLongitude())) {
+            property.setLatitude(request.getLatitude());
+            property.setLongitude(request.getLongitude());
+        } else {
+            geocoder.geocode(request.getAddress(), request.getCity()).ifPresent(point -> {
+                property.setLatitude(point.latitude());
+                property.setLongitude(point.longitude());
+            });
+        }
+        
+        for (int i = 0; i < row.images.size(); i++) {
+            ZipEntry entry = row.archive.getEntry(row.images.get(i));
+            String filename;
+            try (InputStream in = row.archive.getInputStream(entry)) {
+                filename = fileStorageService.storeFile(in, entry.getName());
+            } catch (IOException e) {
+                throw new BadRequestException("Could not read image " + entry.getName(), e);
+            }
+            storedFiles.add(filename);
+            property.getImages().add(PropertyImage.builder()
+                    .property(property)
+                    .imagePath(filename)
+                    .isPrimary(i == 0)
+                    .displayOrder(i)
+                    .build());
+        }
+        return property;
+    }
+    
+    private Property.PropertyType parseType(String value) {
+        if (value == null) {
+            return null;
+        }
+        return Arrays.stream(Property.PropertyType.values())
+                .filter(t -> t.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElse(null);
+    }
+    
+    private List<String> splitImages(String value) {
+        if (value == null || value.isBlank()) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(value.split(";"))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+    
+    private String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+    
+    private record ImportRow(long rowNumber, PropertyRequest request, Property.PropertyType type,
+                             BigDecimal rent, List<String> images, ZipFile archive,
+                             Fingerprint fingerprint, DuplicateMatch duplicate) {
+    }
+    
+    private static class ImportState {
+        private final Long ownerId;
+        private final List<ImportRow> chunk = new ArrayList<>();
+        private final List<BulkImportResponse.RowError> errors = new ArrayList<>();
+        private long totalRows;
+        private long imported;
+        private long failed;
+        
+        ImportState(Long ownerId) {
+            this.ownerId = ownerId;
+        }
+        
+        void error(String message) {
+            error(totalRows, message);
+        }
+        
+        void error(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(BulkImportResponse.RowError.builder().row(row).message(message).build());
+            }
+        }
+    }
+}
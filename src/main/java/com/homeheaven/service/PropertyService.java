@@ -3,20 +3,48 @@ package com.homeheaven.service;
 import com.homeheaven.dto.request.PropertyRequest;
 import com.homeheaven.dto.response.PropertyResponse;
 import com.homeheaven.exception.ResourceNotFoundException;
+import com.homeheaven.event.ImagesOrphanedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.event.PropertyViewedEvent;
+import com.homeheaven.exception.BadRequestException;
 import com.homeheaven.exception.UnauthorizedException;
 import com.homeheaven.model.Property;
 import com.homeheaven.model.PropertyImage;
+import com.homeheaven.model.PropertyListing;
 import com.homeheaven.model.User;
+import com.homeheaven.repository.FavoriteRepository;
+import com.homeheaven.repository.PropertyListingRepository;
 import com.homeheaven.repository.PropertyRepository;
 import com.homeheaven.repository.UserRepository;
+import com.homeheaven.service.analytics.TrendingService;
+import com.homeheaven.service.duplicate.DuplicateDetectionService;
+import com.homeheaven.service.duplicate.DuplicateMatch;
+import com.homeheaven.service.duplicate.Fingerprint;
+import com.homeheaven.service.geo.GazetteerGeocoder;
+import com.homeheaven.service.geo.GeoIndex;
+import com.homeheaven.service.geo.GeoPoint;
+import com.homeheaven.service.geo.GeoQuery;
+import com.homeheaven.service.recommend.CoViewService;
+import com.homeheaven.service.recommend.SimilarListingsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,7 +54,31 @@ public class PropertyService {
     
     private final PropertyRepository propertyRepository;
     private final UserRepository userRepository;
+    private final PropertyListingRepository listingRepository;
     private final FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TrendingService trendingService;
+    private final FavoriteRepository favoriteRepository;
+    private final FavoriteIndex favoriteIndex;
+    private final ContactRequestService contactRequestService;
+    private final GazetteerGeocoder geocoder;
+    private final GeoIndex geoIndex;
+    private final SimilarListingsService similarListingsService;
+    private final CoViewService coViewService;
+    private final DuplicateDetectionService duplicateDetectionService;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${geo.search.default-radius-km:10}")
+    private double defaultRadiusKm;
+    
+    @Value("${geo.search.max-radius-km:200}")
+    private double maxRadiusKm;
+    
+    @Value("${geo.search.max-results:200}")
+    private int maxGeoResults;
+    
+    @Value("${listings.cards.max-limit:50}")
+    private int maxCardLimit;
     
     @Transactional
     public PropertyResponse createProperty(PropertyRequest request, String username, List<MultipartFile> images) {
@@ -35,6 +87,11 @@ public class PropertyService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
+        // Rejected here (before anything is stored) when duplicates are blocked
+        Fingerprint fingerprint = duplicateDetectionService.fingerprint(request.getName(), request.getDescription(),
+                duplicateDetectionService.hashImages(images));
+        DuplicateMatch duplicate = duplicateDetectionService.check(fingerprint, null).orElse(null);
+        
         Property property = Property.builder()
                 .owner(user)
                 .name(request.getName())
@@ -48,6 +105,7 @@ public class PropertyService {
                 .isAvailable(true)
                 .viewCount(0)
                 .build();
+        setLocation(property, request, true);
         
         property = propertyRepository.save(property);
         log.info("Property created with ID: {}", property.getId());
@@ -66,66 +124,175 @@ public class PropertyService {
             property = propertyRepository.save(property);
             log.info("Uploaded {} images for property ID: {}", images.size(), property.getId());
         }
+        duplicateDetectionService.record(property.getId(), fingerprint, duplicate);
         
-        return mapToResponse(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.created(PropertySnapshot.of(property)));
+        PropertyResponse response = mapToResponse(property);
+        response.setDuplicateOf(duplicate != null ? duplicate.propertyId() : null);
+        return response;
     }
     
     @Transactional
-    public PropertyResponse getPropertyById(Long id) {
+    public PropertyResponse getPropertyById(Long id, String viewerKey) {
         Property property = propertyRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Property not found"));
         
+        // Atomic increment; the entity never writes view_count, so a stale cached copy can't undo it
+        jdbcTemplate.update("UPDATE properties SET view_count = view_count + 1 WHERE id = ?", id);
         property.setViewCount(property.getViewCount() + 1);
-        propertyRepository.save(property);
+        eventPublisher.publishEvent(new PropertyViewedEvent(property.getId(), property.getOwner().getId(),
+                property.getCity(), property.getPropertyType(), Boolean.TRUE.equals(property.getIsAvailable()),
+                viewerKey, LocalDateTime.now()));
         
         return mapToResponse(property);
     }
     
+    /**
+     * Search listing cards (served from the property_listings read model);
+     * with a geo query the matching ids and distances come from the in-memory
+     * GeoIndex, nearest first. When a username is given, cards the user has
+     * favorited are marked.
+     */
     @Transactional(readOnly = true)
-    public List<PropertyResponse> searchProperties(String city, BigDecimal minRent, BigDecimal maxRent, String type) {
+    public List<PropertyResponse> searchProperties(String city, BigDecimal minRent, BigDecimal maxRent, String type,
+                                                   GeoQuery geo, String username) {
         log.info("Searching properties - city: {}, minRent: {}, maxRent: {}, type: {}", city, minRent, maxRent, type);
         
-        List<Property> properties;
-        
-        if (city != null && !city.isEmpty()) {
-            properties = propertyRepository.findByCityContainingIgnoreCase(city);
-        } else {
-            properties = propertyRepository.findAll();
+        Property.PropertyType propertyType = null;
+        if (type != null && !type.isEmpty()) {
+            propertyType = Arrays.stream(Property.PropertyType.values())
+                    .filter(t -> t.name().equalsIgnoreCase(type))
+                    .findFirst()
+                    .orElse(null);
+            if (propertyType == null) {
+                return List.of();
+            }
         }
         
-        if (minRent != null) {
-            properties = properties.stream()
-                    .filter(p -> p.getRent().compareTo(minRent) >= 0)
-                    .collect(Collectors.toList());
-        }
-        if (maxRent != null) {
-            properties = properties.stream()
-                    .filter(p -> p.getRent().compareTo(maxRent) <= 0)
+        List<PropertyResponse> cards;
+        if (geo != null && geo.isPresent()) {
+            cards = searchNearby(new GeoIndex.Filter(city != null && !city.isEmpty() ? city : null,
+                    minRent, maxRent, propertyType), geo);
+        } else {
+            cards = listingRepository.search(
+                    city != null && !city.isEmpty() ? city : null, minRent, maxRent, propertyType).stream()
+                    .map(this::mapListingToResponse)
                     .collect(Collectors.toList());
         }
         
-        if (type != null && !type.isEmpty()) {
-            properties = properties.stream()
-                    .filter(p -> p.getPropertyType().name().equalsIgnoreCase(type))
-                    .collect(Collectors.toList());
+        log.info("Found {} properties", cards.size());
+        if (username != null) {
+            markFavorites(cards, username);
         }
+        return cards;
+    }
+    
+    /**
+     * Listing cards the user has favorited, most recently favorited first
+     */
+    @Transactional(readOnly = true)
+    public List<PropertyResponse> getFavoriteProperties(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        
+        List<Long> ids = favoriteRepository.findPropertyIdsByUserId(user.getId());
+        Map<Long, PropertyListing> listings = listingRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(PropertyListing::getPropertyId, Function.identity()));
         
-        log.info("Found {} properties", properties.size());
-        return properties.stream()
-                .map(this::mapToResponse)
+        return ids.stream()
+                .map(listings::get)
+                .filter(Objects::nonNull)
+                .map(this::mapListingToResponse)
+                .peek(card -> card.setFavorited(true))
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Listing cards of the user (served from the property_listings read model)
+     */
     @Transactional(readOnly = true)
     public List<PropertyResponse> getUserProperties(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        List<Property> properties = propertyRepository.findByOwner(user);
-        log.info("User {} has {} properties", username, properties.size());
+        List<PropertyListing> listings = listingRepository.findByOwnerIdOrderByCreatedAtDesc(user.getId());
+        log.info("User {} has {} properties", username, listings.size());
+        
+        return listings.stream()
+                .map(this::mapListingToResponse)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Trending listing cards, best first (ranking from TrendingService, cards from the read model)
+     */
+    @Transactional(readOnly = true)
+    public List<PropertyResponse> getTrendingProperties(String city, String type, int limit) {
+        Property.PropertyType propertyType = null;
+        if (type != null && !type.isEmpty()) {
+            propertyType = Arrays.stream(Property.PropertyType.values())
+                    .filter(t -> t.name().equalsIgnoreCase(type))
+                    .findFirst()
+                    .orElse(null);
+            if (propertyType == null) {
+                return List.of();
+            }
+        }
         
-        return properties.stream()
-                .map(this::mapToResponse)
+        List<Long> ids = trendingService.top(city, propertyType, cardLimit(limit)).stream()
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        return listingCards(ids);
+    }
+    
+    /**
+     * Listings most similar to this one (same city; type, rent, size and description), best first
+     */
+    @Transactional(readOnly = true)
+    public List<PropertyResponse> getSimilarProperties(Long id, int limit) {
+        if (!propertyRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Property not found");
+        }
+        // Ask for extra ids so that listings taken off the market since the last refresh can be skipped
+        return listingCards(similarListingsService.similar(id, cardLimit(limit) * 2)).stream()
+                .filter(card -> Boolean.TRUE.equals(card.getIsAvailable()))
+                .limit(cardLimit(limit))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Available listings most often viewed in the same session as this one, best first
+     */
+    @Transactional(readOnly = true)
+    public List<PropertyResponse> getAlsoViewedProperties(Long id, int limit) {
+        if (!propertyRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Property not found");
+        }
+        // Ask for extra ids so that unavailable listings can be skipped
+        return listingCards(coViewService.alsoViewed(id, cardLimit(limit) * 2)).stream()
+                .filter(card -> Boolean.TRUE.equals(card.getIsAvailable()))
+                .limit(cardLimit(limit))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * A requested card count clamped to 1..max-limit
+     */
+    private int cardLimit(int limit) {
+        return Math.max(1, Math.min(limit, maxCardLimit));
+    }
+    
+    /**
+     * Read-model cards for the ids, in the same order, skipping any that no longer exist
+     */
+    private List<PropertyResponse> listingCards(List<Long> ids) {
+        Map<Long, PropertyListing> listings = listingRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(PropertyListing::getPropertyId, Function.identity()));
+        
+        return ids.stream()
+                .map(listings::get)
+                .filter(Objects::nonNull)
+                .map(this::mapListingToResponse)
                 .collect(Collectors.toList());
     }
     
@@ -138,6 +305,22 @@ public class PropertyService {
             throw new UnauthorizedException("You don't have permission to update this property");
         }
         
+        PropertySnapshot before = PropertySnapshot.of(property);
+        
+        // Text edits are checked again; images are not changed by an update
+        boolean textChanged = !Objects.equals(property.getName(), request.getName())
+                || !Objects.equals(property.getDescription(), request.getDescription());
+        Fingerprint fingerprint = null;
+        DuplicateMatch duplicate = null;
+        if (textChanged) {
+            fingerprint = duplicateDetectionService.fingerprint(request.getName(), request.getDescription(),
+                    duplicateDetectionService.imageHashesOf(id));
+            duplicate = duplicateDetectionService.check(fingerprint, id).orElse(null);
+        }
+        // Stored coordinates (possibly placed by the owner) survive edits that don't move the property
+        boolean addressChanged = !Objects.equals(property.getAddress(), request.getAddress())
+                || !Objects.equals(property.getCity(), request.getCity());
+        
         property.setName(request.getName());
         property.setAddress(request.getAddress());
         property.setCity(request.getCity());
@@ -146,11 +329,19 @@ public class PropertyService {
         property.setSqft(request.getSqft());
         property.setSharingOption(request.getSharingOption());
         property.setDescription(request.getDescription());
+        setLocation(property, request, addressChanged);
         
         property = propertyRepository.save(property);
         log.info("Property {} updated by user {}", id, username);
+        if (textChanged) {
+            duplicateDetectionService.record(id, fingerprint, duplicate);
+        }
         
-        return mapToResponse(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.updated(before, PropertySnapshot.of(property)));
+        
+        PropertyResponse response = mapToResponse(property);
+        response.setDuplicateOf(duplicate != null ? duplicate.propertyId() : null);
+        return response;
     }
     
     @Transactional
@@ -162,10 +353,18 @@ public class PropertyService {
             throw new UnauthorizedException("You don't have permission to delete this property");
         }
         
-        property.getImages().forEach(img -> fileStorageService.deleteFile(img.getImagePath()));
+        PropertySnapshot before = PropertySnapshot.of(property);
+        List<String> imagePaths = property.getImages().stream()
+                .map(PropertyImage::getImagePath)
+                .collect(Collectors.toList());
         
+        contactRequestService.removeAllForProperty(id);
         propertyRepository.delete(property);
         log.info("Property {} deleted by user {}", id, username);
+        
+        // Files are removed after commit
+        eventPublisher.publishEvent(new ImagesOrphanedEvent(imagePaths));
+        eventPublisher.publishEvent(PropertyChangedEvent.deleted(before));
     }
     
     private PropertyResponse mapToResponse(Property property) {
@@ -186,9 +385,101 @@ public class PropertyService {
                         .collect(Collectors.joining(",")))
                 .owner(mapOwnerToResponse(property.getOwner()))
                 .createdAt(property.getCreatedAt())
+                .latitude(property.getLatitude())
+                .longitude(property.getLongitude())
+                .build();
+    }
+    
+    private PropertyResponse mapListingToResponse(PropertyListing listing) {
+        return PropertyResponse.builder()
+                .id(listing.getPropertyId())
+                .name(listing.getName())
+                .city(listing.getCity())
+                .propertyType(listing.getPropertyType().name())
+                .rent(listing.getRent())
+                .sqft(listing.getSqft())
+                .sharingOption(listing.getSharingOption())
+                .description(listing.getSummary())
+                .isAvailable(listing.getIsAvailable())
+                .images(listing.getPrimaryImage())
+                .owner(PropertyResponse.OwnerInfo.builder()
+                        .username(listing.getOwnerUsername())
+                        .phone(listing.getOwnerPhone())
+                        .build())
+                .createdAt(listing.getCreatedAt())
+                .latitude(listing.getLatitude())
+                .longitude(listing.getLongitude())
+                .favoriteCount(listing.getFavoriteCount())
                 .build();
     }
     
+    private List<PropertyResponse> searchNearby(GeoIndex.Filter filter, GeoQuery geo) {
+        if ((geo.latitude() == null) != (geo.longitude() == null)) {
+            throw new BadRequestException("Both lat and lng are required");
+        }
+        GeoPoint centre = geo.latitude() != null ? new GeoPoint(geo.latitude(), geo.longitude()) : null;
+        if (centre != null && !GeoPoint.isValid(centre.latitude(), centre.longitude())) {
+            throw new BadRequestException("Coordinates out of range");
+        }
+        
+        List<GeoIndex.Hit> hits;
+        if (geo.bbox() != null && !geo.bbox().isBlank()) {
+            double[] box = GeoQuery.parseBoundingBox(geo.bbox());
+            GeoPoint sortFrom = centre != null ? centre : new GeoPoint((box[0] + box[2]) / 2, (box[1] + box[3]) / 2);
+            hits = geoIndex.withinBox(box[0], box[1], box[2], box[3], sortFrom, filter, maxGeoResults);
+        } else if (centre != null) {
+            double radiusKm = geo.radiusKm() != null ? geo.radiusKm() : defaultRadiusKm;
+            if (radiusKm <= 0 || radiusKm > maxRadiusKm) {
+                throw new BadRequestException("radiusKm must be between 0 and " + maxRadiusKm);
+            }
+            hits = geoIndex.withinRadius(centre, radiusKm, filter, maxGeoResults);
+        } else {
+            throw new BadRequestException("A radius search needs lat and lng");
+        }
+        
+        Map<Long, PropertyListing> listings = listingRepository.findAllById(
+                        hits.stream().map(GeoIndex.Hit::propertyId).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(PropertyListing::getPropertyId, Function.identity()));
+        List<PropertyResponse> cards = new ArrayList<>(hits.size());
+        for (GeoIndex.Hit hit : hits) {
+            PropertyListing listing = listings.get(hit.propertyId());
+            if (listing != null) {
+                PropertyResponse card = mapListingToResponse(listing);
+                card.setDistanceKm(Math.round(hit.distanceKm() * 100) / 100.0);
+                cards.add(card);
+            }
+        }
+        return cards;
+    }
+    
+    /**
+     * Explicit coordinates win; otherwise the address is geocoded, but only if it is new or changed
+     */
+    private void setLocation(Property property, PropertyRequest request, boolean addressChanged) {
+        if (request.getLatitude() != null || request.getLongitude() != null) {
+            if (!GeoPoint.isValid(request.getLatitude(), request.getLongitude())) {
+                throw new BadRequestException("Both latitude and longitude are required");
+            }
+            property.setLatitude(request.getLatitude());
+            property.setLongitude(request.getLongitude());
+            return;
+        }
+        if (!addressChanged) {
+            return;
+        }
+        GeoPoint point = geocoder.geocode(request.getAddress(), request.getCity()).orElse(null);
+        property.setLatitude(point != null ? point.latitude() : null);
+        property.setLongitude(point != null ? point.longitude() : null);
+    }
+    
+    private void markFavorites(List<PropertyResponse> cards, String username) {
+        userRepository.findByUsername(username).ifPresent(user -> {
+            Set<Long> favorited = favoriteIndex.favoritesAmong(user.getId(),
+                    cards.stream().map(PropertyResponse::getId).collect(Collectors.toList()));
+            cards.forEach(card -> card.setFavorited(favorited.contains(card.getId())));
+        });
+    }
+    
     private PropertyResponse.OwnerInfo mapOwnerToResponse(User user) {
         return PropertyResponse.OwnerInfo.builder()
                 .username(user.getUsername())
@@ -0,0 +1,140 @@
+package com.homeheaven.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends queued saved-search matches as one digest email per user.
+ * Matches are claimed with SKIP LOCKED, and the digest is written to the
+ * email outbox in the same transaction that deletes the matches, so a
+ * match is emailed exactly once even with several nodes.
+ */
+@Service
+@Slf4j
+public class SavedSearchDigestService {
+    
+    private static final String CLAIM_SQL =
+            "SELECT m.id, u.id, u.email, u.username, u.is_active, s.name, " +
+            "l.property_id, l.name, l.city, l.property_type, l.rent " +
+            "FROM saved_search_matches m " +
+            "JOIN saved_searches s ON s.id = m.saved_search_id " +
+            "JOIN users u ON u.id = s.user_id " +
+            "LEFT JOIN property_listings l ON l.property_id = m.property_id AND l.is_available = TRUE " +
+            "ORDER BY u.id, m.id LIMIT ? FOR UPDATE OF m SKIP LOCKED";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${saved-search.digest.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${saved-search.digest.max-listings:20}")
+    private int maxListings;
+    
+    public SavedSearchDigestService(JdbcTemplate jdbcTemplate,
+                                    EmailService emailService,
+                                    PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Scheduled(initialDelayString = "${saved-search.digest.interval:3600000}",
+               fixedDelayString = "${saved-search.digest.interval:3600000}")
+    public void sendDigests() {
+        int claimed;
+        int digests = 0;
+        do {
+            int[] result = transactionTemplate.execute(status -> sendBatch());
+            claimed = result[0];
+            digests += result[1];
+        } while (claimed == batchSize);
+        if (digests > 0) {
+            log.info("Queued {} saved search digests", digests);
+        }
+    }
+    
+    /**
+     * Claim a batch of matches, queue one digest per user and delete the matches
+     */
+    private int[] sendBatch() {
+        List<Long> matchIds = new ArrayList<>();
+        Map<Long, Digest> digests = new LinkedHashMap<>();
+        
+        jdbcTemplate.query(CLAIM_SQL, rs -> {
+            matchIds.add(rs.getLong(1));
+            boolean active = rs.getBoolean(5);
+            long propertyId = rs.getLong(7);
+            // Blocked users and listings no longer available are dropped silently
+            if (!active || rs.wasNull()) {
+                return;
+            }
+            String email = rs.getString(3);
+            String username = rs.getString(4);
+            digests.computeIfAbsent(rs.getLong(2), id -> new Digest(email, username))
+                    .add(new Line(rs.getString(6), propertyId, rs.getString(8), rs.getString(9),
+                            rs.getString(10), rs.getBigDecimal(11)));
+        }, batchSize);
+        
+        digests.values().forEach(digest ->
+                emailService.enqueue(digest.email, "HomeHeaven - New listings for your saved searches", build(digest)));
+        
+        if (!matchIds.isEmpty()) {
+            List<Object[]> ids = matchIds.stream().map(id -> new Object[]{id}).toList();
+            jdbcTemplate.batchUpdate("DELETE FROM saved_search_matches WHERE id = ?", ids);
+        }
+        return new int[]{matchIds.size(), digests.size()};
+    }
+    
+    private String build(Digest digest) {
+        StringBuilder body = new StringBuilder();
+        body.append("Hello ").append(digest.username).append(",\n\n");
+        body.append("New listings match your saved searches:\n\n");
+        
+        int shown = 0;
+        for (Line line : digest.lines) {
+            if (shown++ == maxListings) {
+                body.append("...and ").append(digest.lines.size() - maxListings).append(" more.\n");
+                break;
+            }
+            body.append(String.format("[%s] %s - %s, %s, Rs. %s/month (listing #%d)%n",
+                    line.searchName, line.propertyName, line.city, line.propertyType,
+                    line.rent != null ? line.rent.toPlainString() : "-", line.propertyId));
+        }
+        
+        body.append("\nLog in to HomeHeaven to view them.\n\n");
+        body.append("Best regards,\nHomeHeaven Team\n");
+        return body.toString();
+    }
+    
+    private record Line(String searchName, long propertyId, String propertyName, String city,
+                        String propertyType, BigDecimal rent) {
+    }
+    
+    private static class Digest {
+        private final String email;
+        private final String username;
+        private final List<Line> lines = new ArrayList<>();
+        
+        Digest(String email, String username) {
+            this.email = email;
+            this.username = username;
+        }
+        
+        void add(Line line) {
+            lines.add(line);
+        }
+    }
+}
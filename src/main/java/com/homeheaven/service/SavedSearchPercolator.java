@@ -0,0 +1,269 @@
+package com.homeheaven.service;
+
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.event.SavedSearchChangedEvent;
+import com.homeheaven.event.UserChangedEvent;
+import com.homeheaven.model.Property;
+import com.homeheaven.util.IntervalTree;
+import com.homeheaven.util.RebuildableIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches listings against saved searches (the reverse of a search: the
+ * queries are indexed and each document is run against them). Searches
+ * are bucketed by (city, type), with "*" for "any", and each bucket holds
+ * an interval tree over the rent range. A listing probes its four buckets
+ * with one stabbing query each, so the cost is O(log n + matches).
+ * Matches are queued in saved_search_matches for the digest job.
+ * <p>
+ * Every node percolates the listings changed on it, so every node needs
+ * every search: local changes are applied from events, and searches saved
+ * on other nodes are picked up by polling saved_searches for new ids.
+ * Rows are re-read until they are older than the settle window, so a row
+ * whose id was taken before a lower one committed is not skipped (a
+ * transaction open for longer than the window can still be missed until
+ * the next reload). Searches deleted on other nodes stay indexed until the
+ * periodic reload; their matches fail the foreign key and are dropped.
+ */
+@Service
+@Slf4j
+public class SavedSearchPercolator {
+    
+    private static final String ANY = "*";
+    private static final String SELECT_SQL = "SELECT id, user_id, city, property_type, min_rent, max_rent, " +
+            "created_at < TIMESTAMPADD(SECOND, -?, NOW()) AS settled FROM saved_searches ";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int settleSeconds;
+    
+    private final RebuildableIndex<Index> index = new RebuildableIndex<>(new Index());
+    
+    /** Highest search id whose row is past the settle window */
+    private long polledThrough;
+    
+    public SavedSearchPercolator(JdbcTemplate jdbcTemplate,
+                                 @Value("${saved-search.percolator.settle-seconds:10}") int settleSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settleSeconds = settleSeconds;
+    }
+    
+    /**
+     * Load all saved searches from the primary into a fresh index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${saved-search.percolator.reload-interval:3600000}",
+               fixedDelayString = "${saved-search.percolator.reload-interval:3600000}")
+    public void load() {
+        long[] settledThrough = {0};
+        Index fresh = index.rebuild(() -> {
+            Index loaded = new Index();
+            jdbcTemplate.query(SELECT_SQL, rs -> {
+                loaded.put(toIndexed(rs));
+                if (rs.getBoolean("settled")) {
+                    settledThrough[0] = Math.max(settledThrough[0], rs.getLong("id"));
+                }
+            }, settleSeconds);
+            return loaded;
+        });
+        if (fresh == null) {
+            return;
+        }
+        synchronized (this) {
+            polledThrough = Math.max(polledThrough, settledThrough[0]);
+        }
+        log.info("Percolator indexed {} saved searches", fresh.size());
+    }
+    
+    /**
+     * Index searches saved on other nodes since the last poll
+     */
+    @Scheduled(initialDelayString = "${saved-search.percolator.poll-interval:5000}",
+               fixedDelayString = "${saved-search.percolator.poll-interval:5000}")
+    public void poll() {
+        long after;
+        synchronized (this) {
+            after = polledThrough;
+        }
+        List<IndexedSearch> found = new ArrayList<>();
+        long[] settledThrough = {after};
+        jdbcTemplate.query(SELECT_SQL + "WHERE id > ? ORDER BY id", rs -> {
+            found.add(toIndexed(rs));
+            if (rs.getBoolean("settled")) {
+                settledThrough[0] = Math.max(settledThrough[0], rs.getLong("id"));
+            }
+        }, settleSeconds, after);
+        
+        found.forEach(search -> index.apply(target -> target.put(search)));
+        synchronized (this) {
+            polledThrough = Math.max(polledThrough, settledThrough[0]);
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onSavedSearchChanged(SavedSearchChangedEvent event) {
+        if (event.type() == SavedSearchChangedEvent.ChangeType.CREATED) {
+            IndexedSearch search = new IndexedSearch(event.searchId(), event.userId(),
+                    bucketKey(event.city(), event.propertyType()), low(event.minRent()), high(event.maxRent()));
+            index.apply(target -> target.put(search));
+        } else {
+            index.apply(target -> target.remove(event.searchId()));
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.ChangeType.DELETED) {
+            index.apply(target -> target.removeUser(event.userId()));
+        }
+    }
+    
+    /**
+     * Queue matches for new listings, and for updated listings that now
+     * match searches they did not match before
+     */
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        queueMatches(List.of(event));
+    }
+    
+    @TransactionalEventListener
+    public void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        queueMatches(batch.changes());
+    }
+    
+    private void queueMatches(List<PropertyChangedEvent> events) {
+        List<Object[]> rows = new ArrayList<>();
+        for (PropertyChangedEvent event : events) {
+            PropertySnapshot after = event.after();
+            if (after == null || !after.available() || event.type() == PropertyChangedEvent.ChangeType.DELETED) {
+                continue;
+            }
+            Set<Long> matches = new HashSet<>(match(after));
+            if (event.before() != null && event.before().available()) {
+                matches.removeAll(match(event.before()));
+            }
+            matches.forEach(searchId -> rows.add(new Object[]{searchId, after.id()}));
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        
+        // IGNORE: the same listing is queued once per search; rows of a search
+        // deleted meanwhile fail the foreign key and are skipped
+        jdbcTemplate.batchUpdate(
+                "INSERT IGNORE INTO saved_search_matches (saved_search_id, property_id) VALUES (?, ?)", rows);
+        log.debug("{} property changes matched {} saved searches", events.size(), rows.size());
+    }
+    
+    /**
+     * Ids of saved searches matching the listing, excluding its owner's own searches
+     */
+    public List<Long> match(PropertySnapshot listing) {
+        if (listing.rent() == null || listing.propertyType() == null) {
+            return List.of();
+        }
+        return index.read(current -> match(current, listing));
+    }
+    
+    private static List<Long> match(Index current, PropertySnapshot listing) {
+        String city = normalize(listing.city());
+        String type = listing.propertyType().name();
+        double rent = listing.rent().doubleValue();
+        
+        List<Long> result = new ArrayList<>();
+        for (String key : List.of(city + "|" + type, city + "|" + ANY, ANY + "|" + type, ANY + "|" + ANY)) {
+            IntervalTree<IndexedSearch> tree = current.buckets.get(key);
+            if (tree == null) {
+                continue;
+            }
+            for (IndexedSearch search : tree.stab(rent)) {
+                if (!search.userId().equals(listing.ownerId())) {
+                    result.add(search.searchId());
+                }
+            }
+        }
+        return result;
+    }
+    
+    private static IndexedSearch toIndexed(ResultSet rs) throws SQLException {
+        String type = rs.getString("property_type");
+        return new IndexedSearch(rs.getLong("id"), rs.getLong("user_id"),
+                bucketKey(rs.getString("city"), type != null ? Property.PropertyType.valueOf(type) : null),
+                low(rs.getBigDecimal("min_rent")), high(rs.getBigDecimal("max_rent")));
+    }
+    
+    private static String bucketKey(String city, Property.PropertyType type) {
+        return (city != null ? normalize(city) : ANY) + "|" + (type != null ? type.name() : ANY);
+    }
+    
+    private static String normalize(String city) {
+        return city != null ? city.trim().toLowerCase(Locale.ROOT) : "";
+    }
+    
+    private static double low(BigDecimal minRent) {
+        return minRent != null ? minRent.doubleValue() : 0;
+    }
+    
+    private static double high(BigDecimal maxRent) {
+        return maxRent != null ? maxRent.doubleValue() : Double.MAX_VALUE;
+    }
+    
+    private record IndexedSearch(Long searchId, Long userId, String bucket, double low, double high) {
+    }
+    
+    private static class Index {
+        private final Map<String, IntervalTree<IndexedSearch>> buckets = new HashMap<>();
+        private final Map<Long, IndexedSearch> searches = new HashMap<>();
+        
+        void put(IndexedSearch search) {
+            remove(search.searchId());
+            buckets.computeIfAbsent(search.bucket(), key -> new IntervalTree<>())
+                    .insert(search.low(), search.high(), search.searchId(), search);
+            searches.put(search.searchId(), search);
+        }
+        
+        void remove(Long searchId) {
+            IndexedSearch existing = searches.remove(searchId);
+            if (existing == null) {
+                return;
+            }
+            IntervalTree<IndexedSearch> tree = buckets.get(existing.bucket());
+            tree.remove(existing.low(), existing.searchId());
+            if (tree.size() == 0) {
+                buckets.remove(existing.bucket());
+            }
+        }
+        
+        void removeUser(Long userId) {
+            searches.values().stream()
+                    .filter(search -> search.userId().equals(userId))
+                    .map(IndexedSearch::searchId)
+                    .toList()
+                    .forEach(this::remove);
+        }
+        
+        int size() {
+            return searches.size();
+        }
+    }
+}
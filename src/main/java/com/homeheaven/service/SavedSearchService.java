@@ -0,0 +1,112 @@
+package com.homeheaven.service;
+
+import com.homeheaven.dto.request.SavedSearchRequest;
+import com.homeheaven.dto.response.SavedSearchResponse;
+import com.homeheaven.event.SavedSearchChangedEvent;
+import com.homeheaven.exception.BadRequestException;
+import com.homeheaven.exception.ResourceNotFoundException;
+import com.homeheaven.exception.UnauthorizedException;
+import com.homeheaven.model.Property;
+import com.homeheaven.model.SavedSearch;
+import com.homeheaven.model.User;
+import com.homeheaven.repository.SavedSearchRepository;
+import com.homeheaven.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SavedSearchService {
+    
+    private final SavedSearchRepository savedSearchRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${saved-search.max-per-user:20}")
+    private int maxPerUser;
+    
+    @Transactional(readOnly = true)
+    public List<SavedSearchResponse> getSavedSearches(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        
+        return savedSearchRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional
+    public SavedSearchResponse createSavedSearch(SavedSearchRequest request, String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        
+        if (savedSearchRepository.countByUserId(user.getId()) >= maxPerUser) {
+            throw new BadRequestException("You can have at most " + maxPerUser + " saved searches");
+        }
+        if (request.getMinRent() != null && request.getMaxRent() != null
+                && request.getMinRent().compareTo(request.getMaxRent()) > 0) {
+            throw new BadRequestException("Minimum rent must not exceed maximum rent");
+        }
+        
+        Property.PropertyType propertyType = null;
+        if (request.getPropertyType() != null && !request.getPropertyType().isBlank()) {
+            propertyType = Arrays.stream(Property.PropertyType.values())
+                    .filter(t -> t.name().equalsIgnoreCase(request.getPropertyType().trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("Unknown property type: " + request.getPropertyType()));
+        }
+        
+        SavedSearch search = savedSearchRepository.save(SavedSearch.builder()
+                .user(user)
+                .name(request.getName().trim())
+                .city(request.getCity() != null && !request.getCity().isBlank() ? request.getCity().trim() : null)
+                .propertyType(propertyType)
+                .minRent(request.getMinRent())
+                .maxRent(request.getMaxRent())
+                .build());
+        
+        eventPublisher.publishEvent(toEvent(SavedSearchChangedEvent.ChangeType.CREATED, search, user.getId()));
+        log.info("Saved search {} created for user {}", search.getId(), username);
+        return mapToResponse(search);
+    }
+    
+    @Transactional
+    public void deleteSavedSearch(Long id, String username) {
+        SavedSearch search = savedSearchRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Saved search not found"));
+        
+        if (!search.getUser().getUsername().equals(username)) {
+            throw new UnauthorizedException("You don't have permission to delete this saved search");
+        }
+        
+        savedSearchRepository.delete(search);
+        eventPublisher.publishEvent(toEvent(SavedSearchChangedEvent.ChangeType.DELETED, search, search.getUser().getId()));
+        log.info("Saved search {} deleted", id);
+    }
+    
+    private SavedSearchChangedEvent toEvent(SavedSearchChangedEvent.ChangeType type, SavedSearch search, Long userId) {
+        return new SavedSearchChangedEvent(type, search.getId(), userId, search.getCity(),
+                search.getPropertyType(), search.getMinRent(), search.getMaxRent());
+    }
+    
+    private SavedSearchResponse mapToResponse(SavedSearch search) {
+        return SavedSearchResponse.builder()
+                .id(search.getId())
+                .name(search.getName())
+                .city(search.getCity())
+                .propertyType(search.getPropertyType() != null ? search.getPropertyType().name() : null)
+                .minRent(search.getMinRent())
+                .maxRent(search.getMaxRent())
+                .createdAt(search.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.homeheaven.service.analytics;
+
+import com.homeheaven.dto.response.TimeSeriesResponse;
+import com.homeheaven.dto.response.UniqueViewersResponse;
+import com.homeheaven.exception.BadRequestException;
+import com.homeheaven.exception.ResourceNotFoundException;
+import com.homeheaven.exception.UnauthorizedException;
+import com.homeheaven.model.PropertyListing;
+import com.homeheaven.repository.PropertyListingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Analytics queries for admins and property owners
+ */
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+    
+    private static final int DEFAULT_RANGE_DAYS = 7;
+    
+    private final RollupService rollupService;
+    private final UniqueViewerService uniqueViewerService;
+    private final PropertyListingRepository listingRepository;
+    
+    public TimeSeriesResponse getSeries(String metric, String dimension, LocalDateTime from, LocalDateTime to,
+                                        String granularity) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS);
+        return rollupService.query(parse(RollupMetric.class, metric), dimension, start, end,
+                granularity != null ? parse(Granularity.class, granularity) : null);
+    }
+    
+    /**
+     * View series for a property, visible to its owner only
+     */
+    @Transactional(readOnly = true)
+    public TimeSeriesResponse getPropertyViews(Long propertyId, String username, LocalDateTime from,
+                                               LocalDateTime to, String granularity) {
+        requireOwner(propertyId, username);
+        return getSeries(RollupMetric.PROPERTY_VIEWS.name(), String.valueOf(propertyId), from, to, granularity);
+    }
+    
+    /**
+     * Distinct viewers of a property over a day range, visible to its owner only
+     */
+    public UniqueViewersResponse getUniqueViewers(Long propertyId, String username, LocalDate from, LocalDate to) {
+        requireOwner(propertyId, username);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1L);
+        return uniqueViewerService.query(propertyId, start, end);
+    }
+    
+    PropertyListing requireOwner(Long propertyId, String username) {
+        PropertyListing listing = listingRepository.findById(propertyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Property not found"));
+        if (!listing.getOwnerUsername().equals(username)) {
+            throw new UnauthorizedException("You don't have permission to view analytics for this property");
+        }
+        return listing;
+    }
+    
+    private <E extends Enum<E>> E parse(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown " + type.getSimpleName() + ": " + value);
+        }
+    }
+}
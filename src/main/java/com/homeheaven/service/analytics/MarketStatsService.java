@@ -0,0 +1,166 @@
+package com.homeheaven.service.analytics;
+
+import com.homeheaven.dto.response.RentStatsResponse;
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.exception.BadRequestException;
+import com.homeheaven.model.Property;
+import com.homeheaven.util.QuantileSketch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rent distribution of available listings per (city, type), kept as
+ * quantile sketches and updated from property change events. Sketches are
+ * also kept per city, per type and overall, so every query reads exactly
+ * one sketch. They are rebuilt from property_listings at startup and
+ * periodically. Sketch updates are additive, so a rebuild during which an
+ * event was applied is discarded and retried rather than replaying events
+ * the query may already have seen.
+ */
+@Service
+@Slf4j
+public class MarketStatsService {
+    
+    private static final String ANY = "*";
+    private static final int REBUILD_ATTEMPTS = 3;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final double relativeAccuracy;
+    
+    private Map<String, QuantileSketch> sketches = new HashMap<>();
+    
+    /** Incremented by every applied event, to detect events during a rebuild */
+    private long eventsApplied;
+    
+    public MarketStatsService(JdbcTemplate jdbcTemplate,
+                              @Value("${market.rent-stats.relative-accuracy:0.01}") double relativeAccuracy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.relativeAccuracy = relativeAccuracy;
+    }
+    
+    /**
+     * Rebuild all sketches in one pass over the listing read model
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${market.rent-stats.rebuild-interval:21600000}",
+               fixedDelayString = "${market.rent-stats.rebuild-interval:21600000}")
+    public void rebuild() {
+        for (int attempt = 1; attempt <= REBUILD_ATTEMPTS; attempt++) {
+            long eventsBefore;
+            synchronized (this) {
+                eventsBefore = eventsApplied;
+            }
+            Map<String, QuantileSketch> fresh = load();
+            synchronized (this) {
+                if (eventsApplied != eventsBefore) {
+                    continue;
+                }
+                sketches = fresh;
+            }
+            log.info("Rent sketches rebuilt ({} sketches)", fresh.size());
+            return;
+        }
+        log.info("Rent sketch rebuild skipped: listings kept changing during {} attempts", REBUILD_ATTEMPTS);
+    }
+    
+    private Map<String, QuantileSketch> load() {
+        Map<String, QuantileSketch> fresh = new HashMap<>();
+        jdbcTemplate.query("SELECT city, property_type, rent FROM property_listings WHERE is_available = TRUE", rs -> {
+            BigDecimal rent = rs.getBigDecimal(3);
+            if (rent != null && rent.signum() > 0) {
+                for (String key : keys(normalize(rs.getString(1)), rs.getString(2))) {
+                    fresh.computeIfAbsent(key, k -> new QuantileSketch(relativeAccuracy)).add(rent.doubleValue());
+                }
+            }
+        });
+        return fresh;
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertyChanged(PropertyChangedEvent event) {
+        eventsApplied++;
+        if (event.before() != null) {
+            apply(event.before(), false);
+        }
+        if (event.after() != null) {
+            apply(event.after(), true);
+        }
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        batch.changes().forEach(this::onPropertyChanged);
+    }
+    
+    public synchronized RentStatsResponse getRentStats(String city, String type) {
+        String cityKey = city != null && !city.isBlank() ? normalize(city) : ANY;
+        String typeKey = ANY;
+        if (type != null && !type.isBlank()) {
+            typeKey = Arrays.stream(Property.PropertyType.values())
+                    .filter(t -> t.name().equalsIgnoreCase(type.trim()))
+                    .findFirst()
+                    .map(Enum::name)
+                    .orElseThrow(() -> new BadRequestException("Unknown property type: " + type));
+        }
+        
+        QuantileSketch sketch = sketches.get(cityKey + "|" + typeKey);
+        RentStatsResponse.RentStatsResponseBuilder response = RentStatsResponse.builder()
+                .city(ANY.equals(cityKey) ? null : cityKey)
+                .propertyType(ANY.equals(typeKey) ? null : typeKey)
+                .relativeAccuracy(relativeAccuracy);
+        if (sketch == null || sketch.getCount() == 0) {
+            return response.count(0).build();
+        }
+        return response
+                .count(sketch.getCount())
+                .mean(round(sketch.getMean()))
+                .p25(round(sketch.quantile(0.25)))
+                .p50(round(sketch.quantile(0.50)))
+                .p75(round(sketch.quantile(0.75)))
+                .p90(round(sketch.quantile(0.90)))
+                .build();
+    }
+    
+    private void apply(PropertySnapshot snapshot, boolean add) {
+        if (!snapshot.available() || snapshot.rent() == null || snapshot.rent().signum() <= 0
+                || snapshot.propertyType() == null) {
+            return;
+        }
+        double rent = snapshot.rent().doubleValue();
+        for (String key : keys(normalize(snapshot.city()), snapshot.propertyType().name())) {
+            QuantileSketch sketch = sketches.computeIfAbsent(key, k -> new QuantileSketch(relativeAccuracy));
+            if (add) {
+                sketch.add(rent);
+            } else {
+                sketch.remove(rent);
+            }
+        }
+    }
+    
+    private static String[] keys(String city, String type) {
+        return new String[]{city + "|" + type, city + "|" + ANY, ANY + "|" + type, ANY + "|" + ANY};
+    }
+    
+    private static String normalize(String city) {
+        return city != null ? city.trim().toLowerCase(Locale.ROOT) : "";
+    }
+    
+    private static BigDecimal round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,15 @@
+package com.homeheaven.service.analytics;
+
+/**
+ * Rolled-up counters and what their dimension holds
+ */
+public enum RollupMetric {
+    /** Detail views; dimension is "all" or the property id */
+    PROPERTY_VIEWS,
+    /** Detail views; dimension is "all" or the lower-cased city */
+    CITY_VIEWS,
+    /** New listings; dimension is "all" or the lower-cased city */
+    NEW_LISTINGS,
+    /** User registrations; dimension is "all" */
+    REGISTRATIONS
+}
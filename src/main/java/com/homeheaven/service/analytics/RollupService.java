@@ -0,0 +1,219 @@
+package com.homeheaven.service.analytics;
+
+import com.homeheaven.dto.response.TimeSeriesResponse;
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertyViewedEvent;
+import com.homeheaven.event.UserChangedEvent;
+import com.homeheaven.exception.BadRequestException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-aggregated time series (metric_rollups). Events are counted into
+ * minute, hour and day buckets in memory and merged into the table with
+ * additive upserts on a short interval. Fine buckets are dropped after
+ * their retention, so old history survives only at coarser granularity.
+ * Range queries read one index range of the rollup table plus the
+ * not-yet-flushed deltas.
+ */
+@Service
+@Slf4j
+public class RollupService {
+    
+    public static final String ALL = "all";
+    
+    private static final int MAX_POINTS = 5000;
+    
+    private static final String UPSERT_SQL =
+            "INSERT INTO metric_rollups (metric, dimension, granularity, bucket_start, value) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE value = value + VALUES(value)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration minuteRetention;
+    private final Duration hourRetention;
+    
+    private final ConcurrentHashMap<BucketKey, Long> pending = new ConcurrentHashMap<>();
+    
+    public RollupService(JdbcTemplate jdbcTemplate,
+                         @Value("${analytics.rollup.minute-retention-hours:48}") long minuteRetentionHours,
+                         @Value("${analytics.rollup.hour-retention-days:90}") long hourRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.minuteRetention = Duration.ofHours(minuteRetentionHours);
+        this.hourRetention = Duration.ofDays(hourRetentionDays);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyViewed(PropertyViewedEvent event) {
+        increment(RollupMetric.PROPERTY_VIEWS, ALL, event.viewedAt());
+        increment(RollupMetric.PROPERTY_VIEWS, String.valueOf(event.propertyId()), event.viewedAt());
+        increment(RollupMetric.CITY_VIEWS, ALL, event.viewedAt());
+        increment(RollupMetric.CITY_VIEWS, normalize(event.city()), event.viewedAt());
+    }
+    
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.type() == PropertyChangedEvent.ChangeType.CREATED) {
+            LocalDateTime now = LocalDateTime.now();
+            increment(RollupMetric.NEW_LISTINGS, ALL, now);
+            increment(RollupMetric.NEW_LISTINGS, normalize(event.after().city()), now);
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        batch.changes().forEach(this::onPropertyChanged);
+    }
+    
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.ChangeType.REGISTERED) {
+            increment(RollupMetric.REGISTRATIONS, ALL, event.occurredAt());
+        }
+    }
+    
+    public void increment(RollupMetric metric, String dimension, LocalDateTime time) {
+        for (Granularity granularity : Granularity.values()) {
+            pending.merge(new BucketKey(metric, dimension, granularity, granularity.bucketStart(time)), 1L, Long::sum);
+        }
+    }
+    
+    /**
+     * Merge pending deltas into metric_rollups
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.flush-interval:10000}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // remove() is atomic per key, so increments racing with the drain
+        // start a new entry and are picked up by the next flush
+        List<Object[]> batch = new ArrayList<>();
+        for (BucketKey key : pending.keySet()) {
+            Long delta = pending.remove(key);
+            if (delta != null) {
+                batch.add(new Object[]{key.metric().name(), key.dimension(), key.granularity().name(),
+                        Timestamp.valueOf(key.bucketStart()), delta});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+            log.debug("Flushed {} rollup buckets", batch.size());
+        } catch (Exception e) {
+            log.error("Rollup flush failed; re-queueing {} buckets", batch.size(), e);
+            for (Object[] row : batch) {
+                BucketKey key = new BucketKey(RollupMetric.valueOf((String) row[0]), (String) row[1],
+                        Granularity.valueOf((String) row[2]), ((Timestamp) row[3]).toLocalDateTime());
+                pending.merge(key, (Long) row[4], Long::sum);
+            }
+        }
+    }
+    
+    /**
+     * Drop minute and hour buckets past their retention (day buckets are kept)
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.compact-interval:3600000}")
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now();
+        int minutes = deleteBefore(Granularity.MINUTE, now.minus(minuteRetention));
+        int hours = deleteBefore(Granularity.HOUR, now.minus(hourRetention));
+        log.info("Rollup compaction removed {} minute and {} hour buckets", minutes, hours);
+    }
+    
+    /**
+     * Zero-filled series for [from, to). Granularity is chosen from the range when null.
+     */
+    public TimeSeriesResponse query(RollupMetric metric, String dimension, LocalDateTime from, LocalDateTime to,
+                                    Granularity granularity) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        Granularity resolved = granularity != null ? granularity : chooseGranularity(from, to);
+        LocalDateTime start = resolved.bucketStart(from);
+        if (Duration.between(start, to).dividedBy(resolved.duration()) > MAX_POINTS) {
+            throw new BadRequestException("Range too large for " + resolved + " granularity");
+        }
+        String key = normalizeDimension(metric, dimension);
+        
+        Map<LocalDateTime, Long> values = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT bucket_start, value FROM metric_rollups " +
+                "WHERE metric = ? AND dimension = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ?",
+                rs -> {
+                    values.merge(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2), Long::sum);
+                },
+                metric.name(), key, resolved.name(), Timestamp.valueOf(start), Timestamp.valueOf(to));
+        pending.forEach((bucket, delta) -> {
+            if (bucket.metric() == metric && bucket.granularity() == resolved && bucket.dimension().equals(key)
+                    && !bucket.bucketStart().isBefore(start) && bucket.bucketStart().isBefore(to)) {
+                values.merge(bucket.bucketStart(), delta, Long::sum);
+            }
+        });
+        
+        List<TimeSeriesResponse.Point> points = new ArrayList<>();
+        long total = 0;
+        for (LocalDateTime bucket = start; bucket.isBefore(to); bucket = resolved.next(bucket)) {
+            long value = values.getOrDefault(bucket, 0L);
+            total += value;
+            points.add(TimeSeriesResponse.Point.builder().bucket(bucket).value(value).build());
+        }
+        
+        return TimeSeriesResponse.builder()
+                .metric(metric.name())
+                .dimension(key)
+                .granularity(resolved.name())
+                .from(start)
+                .to(to)
+                .total(total)
+                .points(points)
+                .build();
+    }
+    
+    private Granularity chooseGranularity(LocalDateTime from, LocalDateTime to) {
+        Duration range = Duration.between(from, to);
+        LocalDateTime now = LocalDateTime.now();
+        if (range.compareTo(Duration.ofHours(6)) <= 0 && from.isAfter(now.minus(minuteRetention))) {
+            return Granularity.MINUTE;
+        }
+        if (range.compareTo(Duration.ofDays(31)) <= 0 && from.isAfter(now.minus(hourRetention))) {
+            return Granularity.HOUR;
+        }
+        return Granularity.DAY;
+    }
+    
+    private int deleteBefore(Granularity granularity, LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM metric_rollups WHERE granularity = ? AND bucket_start < ?",
+                granularity.name(), Timestamp.valueOf(cutoff));
+    }
+    
+    private String normalizeDimension(RollupMetric metric, String dimension) {
+        if (dimension == null || dimension.isBlank()) {
+            return ALL;
+        }
+        return metric == RollupMetric.PROPERTY_VIEWS ? dimension.trim() : normalize(dimension);
+    }
+    
+    private String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : ALL;
+    }
+    
+    private record BucketKey(RollupMetric metric, String dimension, Granularity granularity,
+                             LocalDateTime bucketStart) {
+    }
+}
@@ -0,0 +1,323 @@
+package com.homeheaven.service.analytics;
+
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.event.PropertyViewedEvent;
+import com.homeheaven.model.Property;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Trending listings ranked by exponentially time-decayed view counts.
+ * <p>
+ * Scores use forward decay: a view at time t adds exp(lambda * (t - landmark)),
+ * so scores only grow and never need a decay pass; dividing by
+ * exp(lambda * (now - landmark)) gives the decayed value. The landmark is
+ * moved forward (and all scores rescaled) before the exponent gets large.
+ * Because scores only grow, each leaderboard (overall, per city, per type,
+ * per city and type) is an exact bounded top-K set updated in O(log K) per
+ * view. Periodically each node adds the decayed score it gained since its
+ * last flush to property_trending, where the stored score is decayed to the
+ * flush time first, so the table holds the merged score of all nodes.
+ */
+@Service
+@Slf4j
+public class TrendingService {
+    
+    public static final String ALL = "all";
+    
+    private static final double MAX_EXPONENT = 30;
+    private static final double MIN_SCORE = 0.001;
+    
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingDouble((Entry e) -> e.score).reversed()
+            .thenComparing(e -> e.propertyId);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final double lambda;
+    private final int topK;
+    
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Leaderboard> boards = new HashMap<>();
+    private final Set<Long> dirty = new HashSet<>();
+    private final Set<Long> removed = new HashSet<>();
+    private long landmarkMillis = System.currentTimeMillis();
+    private boolean pruneDecayed;
+    
+    public TrendingService(JdbcTemplate jdbcTemplate,
+                           @Value("${trending.half-life-hours:24}") double halfLifeHours,
+                           @Value("${trending.top-k:50}") int topK) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lambda = Math.log(2) / (halfLifeHours * 3_600_000d);
+        this.topK = topK;
+    }
+    
+    /**
+     * Load persisted scores, dropping deleted and unavailable listings
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long now = System.currentTimeMillis();
+        landmarkMillis = now;
+        jdbcTemplate.query(
+                "SELECT t.property_id, t.score, t.scored_at, l.city, l.property_type, l.is_available " +
+                "FROM property_trending t JOIN property_listings l ON l.property_id = t.property_id",
+                rs -> {
+                    long age = now - rs.getTimestamp(3).getTime();
+                    double score = rs.getDouble(2) * Math.exp(-lambda * age);
+                    if (score >= MIN_SCORE) {
+                        Entry entry = new Entry(rs.getLong(1), normalize(rs.getString(4)),
+                                Property.PropertyType.valueOf(rs.getString(5)), rs.getBoolean(6));
+                        entry.score = score;
+                        entries.put(entry.propertyId, entry);
+                    }
+                });
+        rebuildBoards();
+        log.info("Trending scores loaded for {} properties", entries.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPropertyViewed(PropertyViewedEvent event) {
+        long time = event.viewedAt() != null
+                ? Timestamp.valueOf(event.viewedAt()).getTime()
+                : System.currentTimeMillis();
+        Entry entry = entries.computeIfAbsent(event.propertyId(),
+                id -> new Entry(id, normalize(event.city()), event.propertyType(), event.available()));
+        
+        List<Leaderboard> entryBoards = entry.available ? boardsFor(entry) : List.of();
+        entryBoards.forEach(board -> board.remove(entry));
+        double added = Math.exp(lambda * (time - landmarkMillis));
+        entry.score += added;
+        entry.unpersisted += added;
+        entryBoards.forEach(board -> board.offer(entry));
+        dirty.add(entry.propertyId);
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertyChanged(PropertyChangedEvent event) {
+        Entry entry = entries.get(event.propertyId());
+        if (entry == null) {
+            return;
+        }
+        if (event.type() == PropertyChangedEvent.ChangeType.DELETED) {
+            withdraw(entry);
+            entries.remove(entry.propertyId);
+            dirty.remove(entry.propertyId);
+            removed.add(entry.propertyId);
+            return;
+        }
+        
+        PropertySnapshot after = event.after();
+        String city = normalize(after.city());
+        if (entry.available != after.available() || !entry.city.equals(city) || entry.type != after.propertyType()) {
+            withdraw(entry);
+            entry.city = city;
+            entry.type = after.propertyType();
+            entry.available = after.available();
+            if (entry.available) {
+                boardsFor(entry).forEach(board -> board.offer(entry));
+            }
+        }
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        batch.changes().forEach(this::onPropertyChanged);
+    }
+    
+    /**
+     * Property ids with their decayed scores, best first
+     */
+    public synchronized List<Map.Entry<Long, Double>> top(String city, Property.PropertyType type, int limit) {
+        Leaderboard board = boards.get(boardKey(city != null ? normalize(city) : null, type));
+        if (board == null) {
+            return List.of();
+        }
+        double scale = Math.exp(-lambda * (System.currentTimeMillis() - landmarkMillis));
+        List<Map.Entry<Long, Double>> result = new ArrayList<>();
+        for (Entry entry : board.members) {
+            if (result.size() >= Math.min(limit, topK)) {
+                break;
+            }
+            result.add(Map.entry(entry.propertyId, entry.score * scale));
+        }
+        return result;
+    }
+    
+    /**
+     * Add the score gained since the last flush (decayed to now) to the
+     * stored rows, and rescale if needed
+     */
+    @Scheduled(fixedDelayString = "${trending.persist-interval:60000}")
+    @PreDestroy
+    public void persist() {
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        boolean prune;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (lambda * (now - landmarkMillis) > MAX_EXPONENT) {
+                rescale(now);
+            }
+            double scale = Math.exp(-lambda * (now - landmarkMillis));
+            Timestamp scoredAt = new Timestamp(now);
+            for (Long id : dirty) {
+                Entry entry = entries.get(id);
+                if (entry != null && entry.unpersisted > 0) {
+                    upserts.add(new Object[]{id, entry.unpersisted * scale, scoredAt, lambda});
+                    entry.unpersisted = 0;
+                }
+            }
+            removed.forEach(id -> deletes.add(new Object[]{id}));
+            dirty.clear();
+            removed.clear();
+            prune = pruneDecayed;
+            pruneDecayed = false;
+        }
+        if (!upserts.isEmpty()) {
+            // score is assigned before scored_at, so it is decayed from the previous flush time
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO property_trending (property_id, score, scored_at) VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "score = score * EXP(-? * GREATEST(TIMESTAMPDIFF(MICROSECOND, scored_at, VALUES(scored_at)), 0) " +
+                    "/ 1000) + VALUES(score), " +
+                    "scored_at = GREATEST(scored_at, VALUES(scored_at))", upserts);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM property_trending WHERE property_id = ?", deletes);
+        }
+        if (prune) {
+            jdbcTemplate.update("DELETE FROM property_trending " +
+                    "WHERE score * EXP(-? * TIMESTAMPDIFF(MICROSECOND, scored_at, NOW()) / 1000) < ?",
+                    lambda, MIN_SCORE);
+        }
+        log.debug("Trending scores persisted: {} updated, {} removed", upserts.size(), deletes.size());
+    }
+    
+    /**
+     * Move the landmark to now, dropping scores that have decayed to nothing.
+     * Stored rows may hold other nodes' views, so they are pruned by their
+     * own decayed score rather than by this node's.
+     */
+    private void rescale(long now) {
+        double factor = Math.exp(-lambda * (now - landmarkMillis));
+        entries.values().removeIf(entry -> {
+            entry.score *= factor;
+            entry.unpersisted *= factor;
+            return entry.score < MIN_SCORE;
+        });
+        landmarkMillis = now;
+        pruneDecayed = true;
+        rebuildBoards();
+        log.info("Trending landmark moved; {} properties retained", entries.size());
+    }
+    
+    private void rebuildBoards() {
+        boards.clear();
+        entries.values().stream()
+                .filter(entry -> entry.available)
+                .forEach(entry -> boardsFor(entry).forEach(board -> board.offer(entry)));
+    }
+    
+    /**
+     * Take an entry off its boards and refill any board it was a member of
+     */
+    private void withdraw(Entry entry) {
+        for (Leaderboard board : boardsFor(entry)) {
+            if (board.remove(entry)) {
+                entries.values().stream()
+                        .filter(candidate -> candidate != entry && candidate.available
+                                && board.key.equals(boardKeyMatching(board.key, candidate)))
+                        .forEach(board::offer);
+            }
+        }
+    }
+    
+    private List<Leaderboard> boardsFor(Entry entry) {
+        List<Leaderboard> result = new ArrayList<>(4);
+        for (String key : List.of(boardKey(null, null), boardKey(entry.city, null),
+                boardKey(null, entry.type), boardKey(entry.city, entry.type))) {
+            result.add(boards.computeIfAbsent(key, Leaderboard::new));
+        }
+        return result;
+    }
+    
+    /**
+     * The key of the board of the same shape as boardKey that the candidate belongs to
+     */
+    private String boardKeyMatching(String boardKey, Entry candidate) {
+        boolean byCity = boardKey.contains("city:");
+        boolean byType = boardKey.contains("type:");
+        return boardKey(byCity ? candidate.city : null, byType ? candidate.type : null);
+    }
+    
+    private static String boardKey(String city, Property.PropertyType type) {
+        if (city == null && type == null) {
+            return ALL;
+        }
+        return (city != null ? "city:" + city : "") + (type != null ? "|type:" + type.name() : "");
+    }
+    
+    private static String normalize(String city) {
+        return city != null ? city.trim().toLowerCase(Locale.ROOT) : "";
+    }
+    
+    private static class Entry {
+        private final long propertyId;
+        private String city;
+        private Property.PropertyType type;
+        private boolean available;
+        private double score;
+        /** Score added since the last flush, in the same forward-decayed units */
+        private double unpersisted;
+        
+        Entry(long propertyId, String city, Property.PropertyType type, boolean available) {
+            this.propertyId = propertyId;
+            this.city = city;
+            this.type = type;
+            this.available = available;
+        }
+    }
+    
+    private class Leaderboard {
+        private final String key;
+        private final TreeSet<Entry> members = new TreeSet<>(RANKING);
+        
+        Leaderboard(String key) {
+            this.key = key;
+        }
+        
+        void offer(Entry entry) {
+            if (members.size() < topK) {
+                members.add(entry);
+            } else if (RANKING.compare(entry, members.last()) < 0) {
+                members.add(entry);
+                members.pollLast();
+            }
+        }
+        
+        boolean remove(Entry entry) {
+            return members.remove(entry);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.homeheaven.service.analytics;
+
+import com.homeheaven.dto.response.UniqueViewersResponse;
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertyViewedEvent;
+import com.homeheaven.exception.BadRequestException;
+import com.homeheaven.util.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Unique viewers per property per day, kept as HyperLogLog sketches in
+ * property_unique_viewers. Views are added to in-memory sketches and
+ * periodically merged into the stored ones (read, merge, write under a
+ * row lock), so several nodes can feed the same day. A day range is
+ * answered by merging the daily sketches.
+ */
+@Service
+@Slf4j
+public class UniqueViewerService {
+    
+    private static final int MAX_RANGE_DAYS = 366;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int precision;
+    
+    private final ConcurrentHashMap<SketchKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+    
+    public UniqueViewerService(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${analytics.unique-viewers.precision:12}") int precision) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.precision = precision;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyViewed(PropertyViewedEvent event) {
+        if (event.viewerKey() == null) {
+            return;
+        }
+        SketchKey key = new SketchKey(event.propertyId(), event.viewedAt().toLocalDate());
+        pending.compute(key, (k, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog(precision);
+            target.add(event.viewerKey());
+            return target;
+        });
+    }
+    
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        removeDeleted(List.of(event));
+    }
+    
+    @TransactionalEventListener
+    public void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        removeDeleted(batch.changes());
+    }
+    
+    private void removeDeleted(List<PropertyChangedEvent> events) {
+        Set<Long> deleted = events.stream()
+                .filter(event -> event.type() == PropertyChangedEvent.ChangeType.DELETED)
+                .map(PropertyChangedEvent::propertyId)
+                .collect(Collectors.toSet());
+        if (deleted.isEmpty()) {
+            return;
+        }
+        pending.keySet().removeIf(key -> deleted.contains(key.propertyId()));
+        jdbcTemplate.batchUpdate("DELETE FROM property_unique_viewers WHERE property_id = ?",
+                deleted.stream().map(id -> new Object[]{id}).toList());
+    }
+    
+    /**
+     * Merge pending sketches into the stored daily sketches
+     */
+    @Scheduled(fixedDelayString = "${analytics.unique-viewers.flush-interval:60000}")
+    @PreDestroy
+    public void flush() {
+        int flushed = 0;
+        for (SketchKey key : pending.keySet()) {
+            HyperLogLog sketch = pending.remove(key);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeIntoStore(key, sketch));
+                flushed++;
+            } catch (Exception e) {
+                log.error("Could not persist unique viewers for property {} on {}", key.propertyId(), key.day(), e);
+                // Merging is idempotent, so re-queueing cannot double count
+                pending.merge(key, sketch, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                });
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Persisted {} unique viewer sketches", flushed);
+        }
+    }
+    
+    public UniqueViewersResponse query(Long propertyId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new BadRequestException("Range must be at most " + MAX_RANGE_DAYS + " days");
+        }
+        
+        Map<LocalDate, HyperLogLog> daily = new TreeMap<>();
+        jdbcTemplate.query(
+                "SELECT day, sketch FROM property_unique_viewers WHERE property_id = ? AND day BETWEEN ? AND ?",
+                rs -> {
+                    daily.put(rs.getDate(1).toLocalDate(), HyperLogLog.fromBytes(rs.getBytes(2)));
+                },
+                propertyId, Date.valueOf(from), Date.valueOf(to));
+        pending.forEach((key, sketch) -> {
+            if (key.propertyId() == propertyId && !key.day().isBefore(from) && !key.day().isAfter(to)) {
+                // Registers only grow, so copying while a view is being added is harmless
+                HyperLogLog copy = new HyperLogLog(precision);
+                copy.merge(sketch);
+                daily.merge(key.day(), copy, (stored, fresh) -> {
+                    stored.merge(fresh);
+                    return stored;
+                });
+            }
+        });
+        
+        HyperLogLog range = new HyperLogLog(precision);
+        List<UniqueViewersResponse.Day> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            HyperLogLog sketch = daily.get(day);
+            long estimate = 0;
+            if (sketch != null) {
+                range.merge(sketch);
+                estimate = sketch.estimate();
+            }
+            days.add(UniqueViewersResponse.Day.builder().day(day).uniqueViewers(estimate).build());
+        }
+        
+        return UniqueViewersResponse.builder()
+                .propertyId(propertyId)
+                .from(from)
+                .to(to)
+                .uniqueViewers(range.estimate())
+                .standardError(1.04 / Math.sqrt(1 << precision))
+                .days(days)
+                .build();
+    }
+    
+    private void mergeIntoStore(SketchKey key, HyperLogLog sketch) {
+        List<byte[]> stored = jdbcTemplate.query(
+                "SELECT sketch FROM property_unique_viewers WHERE property_id = ? AND day = ? FOR UPDATE",
+                (rs, rowNum) -> rs.getBytes(1),
+                key.propertyId(), Date.valueOf(key.day()));
+        HyperLogLog merged = new HyperLogLog(precision);
+        if (!stored.isEmpty()) {
+            merged.merge(HyperLogLog.fromBytes(stored.get(0)));
+        }
+        merged.merge(sketch);
+        jdbcTemplate.update(
+                "INSERT INTO property_unique_viewers (property_id, day, sketch) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE sketch = VALUES(sketch)",
+                key.propertyId(), Date.valueOf(key.day()), merged.toBytes());
+    }
+    
+    private record SketchKey(long propertyId, LocalDate day) {
+    }
+}
@@ -0,0 +1,624 @@
+package com.homeheaven.service.duplicate;
+
+import com.homeheaven.dto.response.DuplicateClusterResponse;
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.exception.BadRequestException;
+import com.homeheaven.model.PropertyListing;
+import com.homeheaven.repository.PropertyListingRepository;
+import com.homeheaven.service.FileStorageService;
+import com.homeheaven.util.HammingIndex;
+import com.homeheaven.util.MinHash;
+import com.homeheaven.util.MinHashLshIndex;
+import com.homeheaven.util.PerceptualHash;
+import com.homeheaven.util.RebuildableIndex;
+import com.homeheaven.util.TextTerms;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Near-duplicate listing detection. Each listing's fingerprint is a MinHash
+ * signature of its name and description word pairs plus a dHash per image.
+ * Signatures are banded into an LSH index and image hashes into a Hamming
+ * multi-index, so checking a new or edited listing only looks at the few
+ * listings that share a band or an image hash chunk, never the whole table.
+ * <p>
+ * A listing is a duplicate of another when their estimated text similarity
+ * reaches text-threshold, or when an image matches (Hamming distance up to
+ * image-max-distance) and the text similarity reaches
+ * image-text-threshold. Depending on duplicates.action the create/update is
+ * rejected (BLOCK) or saved with duplicate_of set (FLAG). Fingerprints are
+ * stored in property_fingerprints. The in-memory indexes are loaded from
+ * there, kept current from this node's property events, and pick up rows
+ * written on other nodes by polling updated_at (re-read until past the
+ * settle window, as in SavedSearchPercolator).
+ * <p>
+ * The index only narrows down the candidates: check() compares the stored
+ * rows of the candidates, plus the rows written since the last poll, so a
+ * listing saved on another node moments ago is still seen and deleted
+ * listings drop out. With BLOCK, checks also take a lock row that is held
+ * until the caller's transaction ends, so two identical listings saved at
+ * the same time are checked one after the other.
+ */
+@Service
+@Slf4j
+public class DuplicateDetectionService {
+    
+    public enum Action {
+        FLAG, BLOCK
+    }
+    
+    private static final int SIGNATURE_SIZE = 64;
+    private static final int BANDS = 16;
+    private static final int BATCH_SIZE = 500;
+    private static final int HASH_SOURCE_SIZE = 256;
+    
+    private static final Comparator<DuplicateMatch> CLOSEST = Comparator
+            .comparingDouble(DuplicateMatch::textSimilarity)
+            .thenComparing(match -> match.imageDistance() != null ? -match.imageDistance() : -64);
+    
+    private static final String UPSERT_SQL =
+            "INSERT INTO property_fingerprints (property_id, text_signature, image_hashes, duplicate_of, " +
+            "duplicate_score) VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "text_signature = VALUES(text_signature), image_hashes = VALUES(image_hashes), " +
+            "duplicate_of = VALUES(duplicate_of), duplicate_score = VALUES(duplicate_score)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final FileStorageService fileStorageService;
+    private final PropertyListingRepository listingRepository;
+    private final Action action;
+    private final double textThreshold;
+    private final double imageTextThreshold;
+    private final int imageMaxDistance;
+    private final int maxCandidates;
+    private final int maxImages;
+    private final long maxImagePixels;
+    private final int settleSeconds;
+    
+    private final MinHash minHash = new MinHash(SIGNATURE_SIZE);
+    private final RebuildableIndex<Indexes> indexes = new RebuildableIndex<>(
+            new Indexes(new MinHashLshIndex(SIGNATURE_SIZE, BANDS), new HammingIndex()));
+    
+    /** updated_at of the newest row known to be indexed; null until the first rebuild */
+    private Timestamp polledThrough;
+    
+    public DuplicateDetectionService(JdbcTemplate jdbcTemplate,
+                                     FileStorageService fileStorageService,
+                                     PropertyListingRepository listingRepository,
+                                     @Value("${duplicates.action:FLAG}") Action action,
+                                     @Value("${duplicates.text-threshold:0.7}") double textThreshold,
+                                     @Value("${duplicates.image-text-threshold:0.3}") double imageTextThreshold,
+                                     @Value("${duplicates.image-max-distance:6}") int imageMaxDistance,
+                                     @Value("${duplicates.max-candidates:500}") int maxCandidates,
+                                     @Value("${duplicates.max-images:10}") int maxImages,
+                                     @Value("${duplicates.max-image-pixels:40000000}") long maxImagePixels,
+                                     @Value("${duplicates.settle-seconds:10}") int settleSeconds) {
+        if (imageMaxDistance < 0 || imageMaxDistance > 11) {
+            throw new IllegalArgumentException("duplicates.image-max-distance must be between 0 and 11");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.fileStorageService = fileStorageService;
+        this.listingRepository = listingRepository;
+        this.action = action;
+        this.textThreshold = textThreshold;
+        this.imageTextThreshold = imageTextThreshold;
+        this.imageMaxDistance = imageMaxDistance;
+        this.maxCandidates = maxCandidates;
+        this.maxImages = maxImages;
+        this.maxImagePixels = maxImagePixels;
+        this.settleSeconds = settleSeconds;
+    }
+    
+    /**
+     * Load all stored fingerprints into fresh indexes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${duplicates.rebuild-interval:21600000}",
+               fixedDelayString = "${duplicates.rebuild-interval:21600000}")
+    public void rebuild() {
+        // Rows in the settle window before the load are read again by the next poll
+        Timestamp cutoff = jdbcTemplate.queryForObject("SELECT TIMESTAMPADD(SECOND, -?, NOW(3))",
+                Timestamp.class, settleSeconds);
+        Indexes fresh = indexes.rebuild(this::load);
+        if (fresh != null) {
+            advancePolledThrough(cutoff);
+            log.info("Duplicate detection index loaded with {} listings", fresh.texts.size());
+        }
+    }
+    
+    /**
+     * Index fingerprints written since the last poll, including other nodes'
+     */
+    @Scheduled(initialDelayString = "${duplicates.poll-interval:5000}",
+               fixedDelayString = "${duplicates.poll-interval:5000}")
+    public void poll() {
+        Timestamp since;
+        synchronized (this) {
+            since = polledThrough;
+        }
+        if (since == null) {
+            return;
+        }
+        List<StoredFingerprint> rows = new ArrayList<>();
+        Timestamp[] settledThrough = {since};
+        jdbcTemplate.query("SELECT property_id, text_signature, image_hashes, updated_at, " +
+                "updated_at < TIMESTAMPADD(SECOND, -?, NOW(3)) FROM property_fingerprints " +
+                "WHERE updated_at >= ? ORDER BY updated_at", rs -> {
+            rows.add(new StoredFingerprint(rs.getLong(1), rs.getBytes(2), rs.getString(3)));
+            if (rs.getBoolean(5) && rs.getTimestamp(4).after(settledThrough[0])) {
+                settledThrough[0] = rs.getTimestamp(4);
+            }
+        }, settleSeconds, since);
+        
+        if (!rows.isEmpty()) {
+            indexes.apply(target -> rows.forEach(row ->
+                    index(target.texts, target.images, row.propertyId, row.signature, row.hashes)));
+        }
+        advancePolledThrough(settledThrough[0]);
+    }
+    
+    public Fingerprint fingerprint(String name, String description, long[] imageHashes) {
+        List<String> words = TextTerms.terms(name);
+        words.addAll(TextTerms.terms(description));
+        Set<String> shingles = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < words.size(); i++) {
+            shingles.add(words.get(i) + " " + words.get(i + 1));
+        }
+        if (words.size() == 1) {
+            shingles.add(words.get(0));
+        }
+        return new Fingerprint(minHash.signature(shingles), imageHashes);
+    }
+    
+    /**
+     * dHashes of uploaded images or archive entries (unreadable formats are skipped)
+     */
+    public long[] hashImages(List<? extends InputStreamSource> images) {
+        if (images == null) {
+            return new long[0];
+        }
+        List<Long> hashes = new ArrayList<>();
+        for (InputStreamSource image : images.subList(0, Math.min(maxImages, images.size()))) {
+            try (InputStream in = image.getInputStream()) {
+                hash(in).ifPresent(hashes::add);
+            } catch (IOException e) {
+                log.warn("Could not read an image for hashing", e);
+            }
+        }
+        return hashes.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    /**
+     * dHashes of images already in the upload directory
+     */
+    public long[] hashStoredImages(List<String> filenames) {
+        List<Long> hashes = new ArrayList<>();
+        for (String filename : filenames.subList(0, Math.min(maxImages, filenames.size()))) {
+            try (InputStream in = Files.newInputStream(fileStorageService.getFilePath(filename))) {
+                hash(in).ifPresent(hashes::add);
+            } catch (IOException e) {
+                log.warn("Could not read stored image {} for hashing", filename, e);
+            }
+        }
+        return hashes.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    /**
+     * Image hashes stored for a listing, read from its fingerprint row rather
+     * than the index (which may not have it yet on this node). A listing
+     * without a fingerprint has its stored images hashed instead.
+     */
+    public long[] imageHashesOf(Long propertyId) {
+        List<String> stored = jdbcTemplate.queryForList(
+                "SELECT image_hashes FROM property_fingerprints WHERE property_id = ?", String.class, propertyId);
+        if (!stored.isEmpty()) {
+            return decodeHashes(stored.get(0));
+        }
+        return hashStoredImages(jdbcTemplate.queryForList("SELECT image_path FROM property_images " +
+                "WHERE property_id = ? ORDER BY display_order", String.class, propertyId));
+    }
+    
+    /**
+     * Find the closest existing duplicate of a fingerprint, ignoring the
+     * listing itself. When the action is BLOCK a duplicate is rejected; call
+     * it inside the transaction that saves the listing, so the check lock is
+     * held until the listing's fingerprint is committed.
+     */
+    public Optional<DuplicateMatch> check(Fingerprint fingerprint, Long excludeId) {
+        if (action == Action.BLOCK) {
+            jdbcTemplate.queryForObject("SELECT id FROM duplicate_check_lock WHERE id = 1 FOR UPDATE",
+                    Integer.class);
+        }
+        Optional<DuplicateMatch> match = confirmDuplicate(fingerprint, excludeId);
+        if (match.isPresent() && action == Action.BLOCK) {
+            throw new BadRequestException("This listing looks like a duplicate of listing " +
+                    match.get().propertyId());
+        }
+        return match;
+    }
+    
+    /**
+     * Whether two fingerprints count as duplicates of each other, by the same
+     * thresholds as check() (used for rows not yet in the index)
+     */
+    public boolean isDuplicate(Fingerprint a, Fingerprint b) {
+        return qualifies(score(a, 0L, b.textSignature(), b.imageHashes()));
+    }
+    
+    /**
+     * Store a listing's fingerprint and duplicate flag (in the caller's
+     * transaction); the index picks it up after commit
+     */
+    public void record(Long propertyId, Fingerprint fingerprint, DuplicateMatch match) {
+        jdbcTemplate.update(UPSERT_SQL, propertyId, encode(fingerprint.textSignature()),
+                encode(fingerprint.imageHashes()),
+                match != null ? match.propertyId() : null,
+                match != null ? BigDecimal.valueOf(match.textSimilarity()).setScale(3, RoundingMode.HALF_UP) : null);
+        if (match != null) {
+            log.info("Property {} flagged as a duplicate of {} (text {}, image distance {})", propertyId,
+                    match.propertyId(), String.format("%.2f", match.textSimilarity()), match.imageDistance());
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        Long id = event.propertyId();
+        if (event.type() == PropertyChangedEvent.ChangeType.DELETED) {
+            indexes.apply(target -> {
+                target.texts.remove(id);
+                target.images.remove(id);
+            });
+            return;
+        }
+        if (event.type() == PropertyChangedEvent.ChangeType.AVAILABILITY_CHANGED) {
+            return;
+        }
+        jdbcTemplate.query("SELECT text_signature, image_hashes FROM property_fingerprints WHERE property_id = ?",
+                rs -> {
+                    byte[] signature = rs.getBytes(1);
+                    String hashes = rs.getString(2);
+                    indexes.apply(target -> index(target.texts, target.images, id, signature, hashes));
+                }, id);
+    }
+    
+    @TransactionalEventListener
+    public void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        batch.changes().forEach(this::onPropertyChanged);
+    }
+    
+    /**
+     * Groups of listings connected by duplicate matches, largest first.
+     * Works on its own copy of the indexes loaded from property_fingerprints,
+     * so creates and updates are not held up while the report runs.
+     */
+    public List<DuplicateClusterResponse> clusters(int limit) {
+        Indexes copy = load();
+        Map<Long, Long> parent = new HashMap<>();
+        copy.texts.similarPairs(textThreshold, maxCandidates, (a, b) -> union(parent, a, b));
+        for (Long id : copy.images.ids()) {
+            for (long hash : copy.images.get(id)) {
+                for (Long other : copy.images.within(hash, imageMaxDistance).keySet()) {
+                    if (!other.equals(id) && similarity(copy.texts.get(id), copy.texts.get(other))
+                            >= imageTextThreshold) {
+                        union(parent, id, other);
+                    }
+                }
+            }
+        }
+        
+        Map<Long, List<Long>> groups = new HashMap<>();
+        for (Long id : new ArrayList<>(parent.keySet())) {
+            groups.computeIfAbsent(find(parent, id), root -> new ArrayList<>()).add(id);
+        }
+        List<List<Long>> ranked = groups.values().stream()
+                .sorted(Comparator.comparingInt(List<Long>::size).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+        
+        Map<Long, PropertyListing> listings = listingRepository.findAllById(
+                ranked.stream().flatMap(List::stream).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(PropertyListing::getPropertyId, Function.identity()));
+        return ranked.stream()
+                .map(group -> group.stream()
+                        .map(listings::get)
+                        .filter(Objects::nonNull)
+                        .sorted(Comparator.comparing(PropertyListing::getCreatedAt,
+                                Comparator.nullsLast(Comparator.naturalOrder())))
+                        .map(this::toClusterListing)
+                        .collect(Collectors.toList()))
+                .filter(members -> members.size() > 1)
+                .map(members -> DuplicateClusterResponse.builder()
+                        .size(members.size())
+                        .listings(members)
+                        .build())
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Fingerprint existing properties that have none yet, in id order
+     * batches; returns the number of properties fingerprinted
+     */
+    public int backfill() {
+        long lastId = 0;
+        int fingerprinted = 0;
+        int scanned;
+        do {
+            List<Object[]> rows = jdbcTemplate.query("SELECT p.id, p.name, p.description FROM properties p " +
+                    "LEFT JOIN property_fingerprints f ON f.property_id = p.id " +
+                    "WHERE f.property_id IS NULL AND p.id > ? ORDER BY p.id LIMIT ?",
+                    (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3)}, lastId, BATCH_SIZE);
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                Fingerprint fingerprint = fingerprint((String) row[1], (String) row[2], imageHashesOf(id));
+                DuplicateMatch match = findDuplicate(fingerprint, id).orElse(null);
+                record(id, fingerprint, match);
+                byte[] signature = encode(fingerprint.textSignature());
+                String hashes = encode(fingerprint.imageHashes());
+                indexes.apply(target -> index(target.texts, target.images, id, signature, hashes));
+                lastId = id;
+            }
+            fingerprinted += rows.size();
+            scanned = rows.size();
+        } while (scanned == BATCH_SIZE);
+        
+        log.info("Fingerprinted {} properties", fingerprinted);
+        return fingerprinted;
+    }
+    
+    /**
+     * The closest duplicate by the in-memory indexes alone
+     */
+    private Optional<DuplicateMatch> findDuplicate(Fingerprint fingerprint, Long excludeId) {
+        return indexes.read(current -> candidates(current, fingerprint).stream()
+                .filter(id -> !id.equals(excludeId))
+                .map(id -> score(fingerprint, id, current.texts.get(id), current.images.get(id)))
+                .filter(this::qualifies)
+                .max(CLOSEST));
+    }
+    
+    /**
+     * The closest duplicate by the stored rows of the index candidates and of
+     * rows written since the last poll (not indexed yet). The locking read
+     * sees the latest committed rows even inside an older snapshot.
+     */
+    private Optional<DuplicateMatch> confirmDuplicate(Fingerprint fingerprint, Long excludeId) {
+        List<Long> ids = indexes.read(current -> new ArrayList<>(candidates(current, fingerprint)));
+        Timestamp since;
+        synchronized (this) {
+            since = polledThrough != null ? polledThrough : new Timestamp(0);
+        }
+        
+        List<Object> args = new ArrayList<>();
+        args.add(since);
+        args.addAll(ids);
+        String byId = ids.isEmpty() ? ""
+                : " OR property_id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+        List<StoredFingerprint> rows = jdbcTemplate.query("SELECT property_id, text_signature, image_hashes " +
+                "FROM property_fingerprints WHERE updated_at >= ?" + byId + " FOR SHARE",
+                (rs, i) -> new StoredFingerprint(rs.getLong(1), rs.getBytes(2), rs.getString(3)), args.toArray());
+        
+        return rows.stream()
+                .filter(row -> !Long.valueOf(row.propertyId).equals(excludeId))
+                .map(row -> score(fingerprint, row.propertyId, decodeSignature(row.signature),
+                        decodeHashes(row.hashes)))
+                .filter(this::qualifies)
+                .max(CLOSEST);
+    }
+    
+    /**
+     * Ids sharing an LSH band or an image hash chunk within range
+     */
+    private Set<Long> candidates(Indexes current, Fingerprint fingerprint) {
+        Set<Long> ids = new HashSet<>();
+        if (!isEmpty(fingerprint.textSignature())) {
+            double threshold = Math.min(textThreshold, imageTextThreshold);
+            for (MinHashLshIndex.Match match : current.texts.query(fingerprint.textSignature(), threshold,
+                    maxCandidates)) {
+                ids.add(match.id());
+            }
+        }
+        for (long hash : fingerprint.imageHashes()) {
+            ids.addAll(current.images.within(hash, imageMaxDistance).keySet());
+        }
+        return ids;
+    }
+    
+    /**
+     * Text similarity and closest image distance (null if none is in range) to another fingerprint
+     */
+    private DuplicateMatch score(Fingerprint fingerprint, Long otherId, int[] otherSignature, long[] otherHashes) {
+        Integer distance = null;
+        if (otherHashes != null) {
+            for (long hash : fingerprint.imageHashes()) {
+                for (long other : otherHashes) {
+                    int bits = Long.bitCount(hash ^ other);
+                    if (bits <= imageMaxDistance && (distance == null || bits < distance)) {
+                        distance = bits;
+                    }
+                }
+            }
+        }
+        return new DuplicateMatch(otherId, similarity(fingerprint.textSignature(), otherSignature), distance);
+    }
+    
+    private boolean qualifies(DuplicateMatch match) {
+        return match.textSimilarity() >= textThreshold
+                || (match.imageDistance() != null && match.textSimilarity() >= imageTextThreshold);
+    }
+    
+    private synchronized void advancePolledThrough(Timestamp through) {
+        if (polledThrough == null || through.after(polledThrough)) {
+            polledThrough = through;
+        }
+    }
+    
+    private static double similarity(int[] a, int[] b) {
+        return a != null && b != null && !isEmpty(a) ? MinHash.similarity(a, b) : 0;
+    }
+    
+    private Indexes load() {
+        Indexes loaded = new Indexes(new MinHashLshIndex(SIGNATURE_SIZE, BANDS), new HammingIndex());
+        jdbcTemplate.query("SELECT property_id, text_signature, image_hashes FROM property_fingerprints", rs -> {
+            index(loaded.texts, loaded.images, rs.getLong(1), rs.getBytes(2), rs.getString(3));
+        });
+        return loaded;
+    }
+    
+    /**
+     * Images are untrusted input: the header is read first and anything over
+     * max-image-pixels is skipped, and the rest is decoded subsampled to
+     * about HASH_SOURCE_SIZE pixels on the long side (plenty for a 9x8 dHash)
+     */
+    private Optional<Long> hash(InputStream in) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = stream != null ? ImageIO.getImageReaders(stream) : null;
+            if (readers == null || !readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxImagePixels) {
+                    log.warn("Skipping a {}x{} image for hashing (over {} pixels)", width, height, maxImagePixels);
+                    return Optional.empty();
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / HASH_SOURCE_SIZE);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return Optional.of(PerceptualHash.dHash(reader.read(0, param)));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    private DuplicateClusterResponse.Listing toClusterListing(PropertyListing listing) {
+        return DuplicateClusterResponse.Listing.builder()
+                .propertyId(listing.getPropertyId())
+                .name(listing.getName())
+                .city(listing.getCity())
+                .rent(listing.getRent())
+                .ownerUsername(listing.getOwnerUsername())
+                .isAvailable(listing.getIsAvailable())
+                .createdAt(listing.getCreatedAt())
+                .build();
+    }
+    
+    private static void index(MinHashLshIndex texts, HammingIndex images, long id, byte[] signature, String hashes) {
+        int[] decoded = decodeSignature(signature);
+        if (isEmpty(decoded)) {
+            texts.remove(id);
+        } else {
+            texts.put(id, decoded);
+        }
+        images.put(id, decodeHashes(hashes));
+    }
+    
+    /**
+     * A signature of an empty shingle set (no usable words)
+     */
+    private static boolean isEmpty(int[] signature) {
+        return Arrays.stream(signature).allMatch(value -> value == Integer.MAX_VALUE);
+    }
+    
+    private static byte[] encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        for (int value : signature) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+    
+    private static String encode(long[] hashes) {
+        if (hashes.length == 0) {
+            return null;
+        }
+        return Arrays.stream(hashes)
+                .mapToObj(Long::toHexString)
+                .collect(Collectors.joining(","));
+    }
+    
+    private static int[] decodeSignature(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int[] signature = new int[bytes.length / Integer.BYTES];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = buffer.getInt();
+        }
+        return signature;
+    }
+    
+    private static long[] decodeHashes(String hashes) {
+        if (hashes == null || hashes.isBlank()) {
+            return new long[0];
+        }
+        return Arrays.stream(hashes.split(","))
+                .mapToLong(hash -> Long.parseUnsignedLong(hash.trim(), 16))
+                .toArray();
+    }
+    
+    private static void union(Map<Long, Long> parent, long a, long b) {
+        long rootA = find(parent, a);
+        long rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent.put(rootA, rootB);
+        }
+    }
+    
+    private static long find(Map<Long, Long> parent, long id) {
+        long root = id;
+        Long next;
+        while ((next = parent.putIfAbsent(root, root)) != null && next != root) {
+            root = next;
+        }
+        // Path compression
+        long current = id;
+        while (current != root) {
+            long following = parent.get(current);
+            parent.put(current, root);
+            current = following;
+        }
+        return root;
+    }
+    
+    private record Indexes(MinHashLshIndex texts, HammingIndex images) {
+    }
+    
+    private record StoredFingerprint(long propertyId, byte[] signature, String hashes) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.homeheaven.service.duplicate;
+
+/**
+ * The closest existing listing to a fingerprint. imageDistance is the
+ * smallest Hamming distance between their image hashes, or null if no
+ * image matched.
+ */
+public record DuplicateMatch(Long propertyId, double textSimilarity, Integer imageDistance) {
+}
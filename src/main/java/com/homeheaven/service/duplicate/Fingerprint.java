@@ -0,0 +1,8 @@
+package com.homeheaven.service.duplicate;
+
+/**
+ * What a listing is compared by: the MinHash signature of its name and
+ * description shingles and the dHashes of its images
+ */
+public record Fingerprint(int[] textSignature, long[] imageHashes) {
+}
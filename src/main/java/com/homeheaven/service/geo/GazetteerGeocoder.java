@@ -0,0 +1,96 @@
+package com.homeheaven.service.geo;
+
+import com.homeheaven.util.CsvReader;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline geocoder over a bundled gazetteer (place, city, latitude, longitude).
+ * The city is resolved first (a place row whose name is the city also maps
+ * aliases such as Bengaluru); then the longest locality of that city named in
+ * the address wins, falling back to the city centre. No network calls.
+ */
+@Service
+@Slf4j
+public class GazetteerGeocoder {
+    
+    private final Resource gazetteer;
+    
+    /** Normalized place name -> place (city centres and aliases included) */
+    private final Map<String, Place> places = new HashMap<>();
+    
+    /** Canonical city -> its localities, longest name first */
+    private final Map<String, List<Place>> localities = new HashMap<>();
+    
+    public GazetteerGeocoder(@Value("${geo.gazetteer:classpath:geo/gazetteer.csv}") Resource gazetteer) {
+        this.gazetteer = gazetteer;
+    }
+    
+    @PostConstruct
+    void load() throws IOException {
+        try (Reader reader = new InputStreamReader(gazetteer.getInputStream(), StandardCharsets.UTF_8)) {
+            CsvReader csv = new CsvReader(reader);
+            csv.readRecord(); // header
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                if (record.size() < 4 || record.get(0).isBlank()) {
+                    continue;
+                }
+                Place place = new Place(normalize(record.get(0)), normalize(record.get(1)),
+                        new GeoPoint(Double.parseDouble(record.get(2).trim()), Double.parseDouble(record.get(3).trim())));
+                places.putIfAbsent(place.name, place);
+                if (!place.name.equals(place.city)) {
+                    localities.computeIfAbsent(place.city, c -> new ArrayList<>()).add(place);
+                }
+            }
+        }
+        localities.values().forEach(list -> list.sort(Comparator.comparingInt((Place p) -> p.name.length()).reversed()));
+        log.info("Gazetteer loaded with {} places in {} cities", places.size(), localities.size());
+    }
+    
+    /**
+     * Coordinates for an address in a city, or empty if the city is unknown
+     */
+    public Optional<GeoPoint> geocode(String address, String city) {
+        if (city == null || city.isBlank()) {
+            return Optional.empty();
+        }
+        String cityKey = normalize(city);
+        Place cityPlace = places.get(cityKey);
+        String canonicalCity = cityPlace != null ? cityPlace.city : cityKey;
+        
+        if (address != null) {
+            String text = " " + normalize(address) + " ";
+            for (Place locality : localities.getOrDefault(canonicalCity, List.of())) {
+                if (text.contains(" " + locality.name + " ")) {
+                    return Optional.of(locality.point);
+                }
+            }
+        }
+        
+        Place centre = places.get(canonicalCity);
+        return centre != null ? Optional.of(centre.point) : Optional.empty();
+    }
+    
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+    
+    private record Place(String name, String city, GeoPoint point) {
+    }
+}
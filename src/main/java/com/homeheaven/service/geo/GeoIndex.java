@@ -0,0 +1,163 @@
+package com.homeheaven.service.geo;
+
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.model.Property;
+import com.homeheaven.service.ChangeFeedService;
+import com.homeheaven.util.GeoGrid;
+import com.homeheaven.util.RebuildableIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * In-memory spatial index of listings with coordinates, on a uniform
+ * lat/lon grid. Entries carry the search filter fields (city, type, rent),
+ * so a radius or box search is answered entirely from memory and only the
+ * resulting page of cards is read from property_listings. Built from the
+ * properties table at startup and periodically (see RebuildableIndex), and
+ * kept current from this node's property events and from the
+ * listing_changes feed, which brings in changes made on other nodes.
+ */
+@Service
+@Slf4j
+public class GeoIndex {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeFeedService changeFeedService;
+    private final double cellDegrees;
+    
+    private final RebuildableIndex<GeoGrid<Listing>> grid;
+    
+    /** listing_changes position applied through; -1 until the first rebuild */
+    private volatile long feedPosition = -1;
+    
+    public GeoIndex(JdbcTemplate jdbcTemplate,
+                    ChangeFeedService changeFeedService,
+                    @Value("${geo.index.cell-degrees:0.05}") double cellDegrees) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeFeedService = changeFeedService;
+        this.cellDegrees = cellDegrees;
+        this.grid = new RebuildableIndex<>(new GeoGrid<>(cellDegrees));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${geo.index.rebuild-interval:21600000}",
+               fixedDelayString = "${geo.index.rebuild-interval:21600000}")
+    public void rebuild() {
+        // Taken before loading: changes positioned after it are applied again, harmlessly
+        long position = changeFeedService.lastPosition();
+        GeoGrid<Listing> fresh = grid.rebuild(() -> {
+            GeoGrid<Listing> loaded = new GeoGrid<>(cellDegrees);
+            jdbcTemplate.query("SELECT id, latitude, longitude, city, property_type, rent " +
+                    "FROM properties WHERE latitude IS NOT NULL AND longitude IS NOT NULL", rs -> {
+                loaded.put(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), new Listing(normalize(rs.getString(4)),
+                        Property.PropertyType.valueOf(rs.getString(5)), rs.getBigDecimal(6)));
+            });
+            return loaded;
+        });
+        if (fresh != null) {
+            if (feedPosition < 0) {
+                feedPosition = position;
+            }
+            log.info("Geo index rebuilt with {} listings", fresh.size());
+        }
+    }
+    
+    /**
+     * Apply changes from the listing_changes feed, including other nodes'
+     */
+    @Scheduled(initialDelayString = "${geo.index.feed-poll-interval:2000}",
+               fixedDelayString = "${geo.index.feed-poll-interval:2000}")
+    public void pollChanges() {
+        if (feedPosition < 0) {
+            return;
+        }
+        feedPosition = changeFeedService.follow(feedPosition,
+                events -> grid.apply(target -> events.forEach(event -> apply(target, event))));
+    }
+    
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        grid.apply(target -> apply(target, event));
+    }
+    
+    @TransactionalEventListener
+    public void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        grid.apply(target -> batch.changes().forEach(event -> apply(target, event)));
+    }
+    
+    private static void apply(GeoGrid<Listing> target, PropertyChangedEvent event) {
+        PropertySnapshot after = event.after();
+        if (event.type() == PropertyChangedEvent.ChangeType.DELETED || after == null
+                || !GeoPoint.isValid(after.latitude(), after.longitude())) {
+            target.remove(event.propertyId());
+            return;
+        }
+        target.put(after.id(), after.latitude(), after.longitude(),
+                new Listing(normalize(after.city()), after.propertyType(), after.rent()));
+    }
+    
+    /**
+     * Listings within radiusKm of the centre matching the filters, nearest first
+     */
+    public List<Hit> withinRadius(GeoPoint centre, double radiusKm, Filter filter, int limit) {
+        return grid.read(current -> current.withinRadius(centre.latitude(), centre.longitude(), radiusKm, limit,
+                        filter.asPredicate())
+                .stream()
+                .map(hit -> new Hit(hit.entry().id(), hit.distanceKm()))
+                .toList());
+    }
+    
+    /**
+     * Listings inside the box matching the filters, nearest to the given point first
+     */
+    public List<Hit> withinBox(double minLat, double minLon, double maxLat, double maxLon,
+                               GeoPoint sortFrom, Filter filter, int limit) {
+        List<Hit> hits = new ArrayList<>();
+        for (GeoGrid.Entry<Listing> entry : grid.read(current ->
+                current.withinBox(minLat, minLon, maxLat, maxLon, filter.asPredicate()))) {
+            hits.add(new Hit(entry.id(), GeoGrid.distanceKm(sortFrom.latitude(), sortFrom.longitude(),
+                    entry.latitude(), entry.longitude())));
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+    
+    private static String normalize(String city) {
+        return city != null ? city.trim().toLowerCase(Locale.ROOT) : "";
+    }
+    
+    public record Hit(long propertyId, double distanceKm) {
+    }
+    
+    /**
+     * Search filters with the same semantics as the listing search (city is a substring match)
+     */
+    public record Filter(String city, BigDecimal minRent, BigDecimal maxRent, Property.PropertyType type) {
+        
+        Predicate<Listing> asPredicate() {
+            String cityPart = city != null ? normalize(city) : null;
+            return listing -> (cityPart == null || listing.city.contains(cityPart))
+                    && (minRent == null || (listing.rent != null && listing.rent.compareTo(minRent) >= 0))
+                    && (maxRent == null || (listing.rent != null && listing.rent.compareTo(maxRent) <= 0))
+                    && (type == null || listing.type == type);
+        }
+    }
+    
+    private record Listing(String city, Property.PropertyType type, BigDecimal rent) {
+    }
+}
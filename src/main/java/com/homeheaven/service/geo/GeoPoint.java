@@ -0,0 +1,13 @@
+package com.homeheaven.service.geo;
+
+/**
+ * A latitude/longitude pair in decimal degrees
+ */
+public record GeoPoint(double latitude, double longitude) {
+    
+    public static boolean isValid(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90
+                && longitude >= -180 && longitude <= 180;
+    }
+}
@@ -0,0 +1,38 @@
+package com.homeheaven.service.geo;
+
+import com.homeheaven.exception.BadRequestException;
+
+/**
+ * Optional geo part of a listing search: a centre with a radius, a bounding
+ * box "minLat,minLng,maxLat,maxLng", or both (box filtered, sorted by
+ * distance from the centre)
+ */
+public record GeoQuery(Double latitude, Double longitude, Double radiusKm, String bbox) {
+    
+    public boolean isPresent() {
+        return latitude != null || longitude != null || radiusKm != null || (bbox != null && !bbox.isBlank());
+    }
+    
+    /**
+     * Parse "minLat,minLng,maxLat,maxLng" into {minLat, minLng, maxLat, maxLng}
+     */
+    public static double[] parseBoundingBox(String bbox) {
+        String[] parts = bbox != null ? bbox.split(",") : new String[0];
+        if (parts.length != 4) {
+            throw new BadRequestException("bbox must be minLat,minLng,maxLat,maxLng");
+        }
+        double[] box = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                box[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("bbox must be minLat,minLng,maxLat,maxLng");
+        }
+        if (!GeoPoint.isValid(box[0], box[1]) || !GeoPoint.isValid(box[2], box[3])
+                || box[0] > box[2] || box[1] > box[3]) {
+            throw new BadRequestException("Invalid bbox");
+        }
+        return box;
+    }
+}
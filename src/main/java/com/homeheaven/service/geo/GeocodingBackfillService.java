@@ -0,0 +1,82 @@
+package com.homeheaven.service.geo;
+
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.model.Property;
+import com.homeheaven.repository.PropertyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Geocodes existing properties that have no coordinates yet, in id order
+ * batches of one transaction each. Coordinates are set on the entities so
+ * the second-level cache stays current, and an update event is published
+ * per located property so the read model and the in-memory indexes follow.
+ */
+@Service
+@Slf4j
+public class GeocodingBackfillService {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private final PropertyRepository propertyRepository;
+    private final GazetteerGeocoder geocoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    public GeocodingBackfillService(PropertyRepository propertyRepository,
+                                    GazetteerGeocoder geocoder,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager) {
+        this.propertyRepository = propertyRepository;
+        this.geocoder = geocoder;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Returns the number of properties that received coordinates
+     */
+    public int backfill() {
+        long lastId = 0;
+        int located = 0;
+        Batch batch;
+        do {
+            long afterId = lastId;
+            batch = transactionTemplate.execute(status -> geocodeBatch(afterId));
+            located += batch.located();
+            lastId = batch.lastId();
+        } while (batch.scanned() == BATCH_SIZE);
+        
+        log.info("Geocoded {} properties", located);
+        return located;
+    }
+    
+    private Batch geocodeBatch(long afterId) {
+        List<Property> properties = propertyRepository.findUnlocatedAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+        long lastId = afterId;
+        int located = 0;
+        for (Property property : properties) {
+            lastId = property.getId();
+            GeoPoint point = geocoder.geocode(property.getAddress(), property.getCity()).orElse(null);
+            if (point == null) {
+                continue;
+            }
+            PropertySnapshot before = PropertySnapshot.of(property);
+            property.setLatitude(point.latitude());
+            property.setLongitude(point.longitude());
+            eventPublisher.publishEvent(PropertyChangedEvent.updated(before, PropertySnapshot.of(property)));
+            located++;
+        }
+        return new Batch(properties.size(), located, lastId);
+    }
+    
+    private record Batch(int scanned, int located, long lastId) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.homeheaven.service.geo;
+
+import com.homeheaven.dto.response.ClusterResponse;
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.service.ChangeFeedService;
+import com.homeheaven.util.ClusterGrid;
+import com.homeheaven.util.RebuildableIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.stream.Collectors;
+
+/**
+ * Map clusters of available listings for zoomed-out views. Listings are
+ * aggregated into a ClusterGrid across all zoom levels and kept current
+ * from property change events, so a request only reads the occupied cells
+ * of one level. Responses are capped at map.clusters.max-items by stepping
+ * to coarser levels. The grid is rebuilt from the properties table at
+ * startup and periodically; changes made on other nodes come in through
+ * the listing_changes feed.
+ */
+@Service
+@Slf4j
+public class MapClusterService {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeFeedService changeFeedService;
+    private final int minZoom;
+    private final int maxZoom;
+    private final int cellsPerTile;
+    private final int maxItems;
+    
+    private final RebuildableIndex<ClusterGrid> grid;
+    
+    /** listing_changes position applied through; -1 until the first rebuild */
+    private volatile long feedPosition = -1;
+    
+    public MapClusterService(JdbcTemplate jdbcTemplate,
+                             ChangeFeedService changeFeedService,
+                             @Value("${map.clusters.min-zoom:2}") int minZoom,
+                             @Value("${map.clusters.max-zoom:16}") int maxZoom,
+                             @Value("${map.clusters.cells-per-tile:4}") int cellsPerTile,
+                             @Value("${map.clusters.max-items:300}") int maxItems) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeFeedService = changeFeedService;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.cellsPerTile = cellsPerTile;
+        this.maxItems = maxItems;
+        this.grid = new RebuildableIndex<>(new ClusterGrid(minZoom, maxZoom, cellsPerTile));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${map.clusters.rebuild-interval:21600000}",
+               fixedDelayString = "${map.clusters.rebuild-interval:21600000}")
+    public void rebuild() {
+        long position = changeFeedService.lastPosition();
+        ClusterGrid fresh = grid.rebuild(() -> {
+            ClusterGrid loaded = new ClusterGrid(minZoom, maxZoom, cellsPerTile);
+            jdbcTemplate.query("SELECT id, latitude, longitude, rent FROM properties " +
+                    "WHERE is_available = TRUE AND latitude IS NOT NULL AND longitude IS NOT NULL", rs -> {
+                loaded.put(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getBigDecimal(4).doubleValue());
+            });
+            return loaded;
+        });
+        if (fresh != null) {
+            if (feedPosition < 0) {
+                feedPosition = position;
+            }
+            log.info("Map clusters rebuilt with {} listings", fresh.size());
+        }
+    }
+    
+    @Scheduled(initialDelayString = "${map.clusters.feed-poll-interval:2000}",
+               fixedDelayString = "${map.clusters.feed-poll-interval:2000}")
+    public void pollChanges() {
+        if (feedPosition < 0) {
+            return;
+        }
+        feedPosition = changeFeedService.follow(feedPosition,
+                events -> grid.apply(target -> events.forEach(event -> apply(target, event))));
+    }
+    
+    @TransactionalEventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        grid.apply(target -> apply(target, event));
+    }
+    
+    @TransactionalEventListener
+    public void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        grid.apply(target -> batch.changes().forEach(event -> apply(target, event)));
+    }
+    
+    private static void apply(ClusterGrid target, PropertyChangedEvent event) {
+        PropertySnapshot after = event.after();
+        if (event.type() == PropertyChangedEvent.ChangeType.DELETED || after == null || !after.available()
+                || after.rent() == null || !GeoPoint.isValid(after.latitude(), after.longitude())) {
+            target.remove(event.propertyId());
+            return;
+        }
+        target.put(after.id(), after.latitude(), after.longitude(), after.rent().doubleValue());
+    }
+    
+    public ClusterResponse getClusters(String bbox, int zoom) {
+        double[] box = GeoQuery.parseBoundingBox(bbox);
+        ClusterGrid.Result result = grid.read(current ->
+                current.clusters(box[0], box[1], box[2], box[3], zoom, maxItems));
+        
+        return ClusterResponse.builder()
+                .zoom(result.zoom())
+                .clusters(result.clusters().stream()
+                        .map(cluster -> ClusterResponse.Cluster.builder()
+                                .latitude(cluster.latitude())
+                                .longitude(cluster.longitude())
+                                .count(cluster.count())
+                                .minRent(rent(cluster.min()))
+                                .maxRent(rent(cluster.max()))
+                                .propertyId(cluster.singleId())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+    
+    private static BigDecimal rent(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,198 @@
+package com.homeheaven.service.otp;
+
+import com.homeheaven.exception.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-node OTP store. Expiry is driven by a hashed timing wheel: each
+ * entry is placed in the slot of its deadline tick, and every tick only the
+ * current slot is swept, giving O(1) insert and expiry. An entry lives
+ * until both its code and its lockout window have expired, carrying the
+ * attempt and issue counters across re-issues. The number of entries is
+ * capped.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOtpStore implements OtpStore {
+    
+    private final OtpMetrics metrics;
+    private final int maxAttempts;
+    private final int maxIssues;
+    private final long lockoutWindowMillis;
+    private final int maxEntries;
+    private final long tickMillis;
+    
+    // email -> pending OTP and its counters
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    // Timing wheel: slot -> emails whose deadline falls in that slot
+    private final Set<String>[] wheel;
+    private long lastTick;
+    
+    @SuppressWarnings("unchecked")
+    public InMemoryOtpStore(OtpMetrics metrics,
+                            @Value("${otp.max-attempts:5}") int maxAttempts,
+                            @Value("${otp.max-issues:5}") int maxIssues,
+                            @Value("${otp.lockout-window:900000}") long lockoutWindowMillis,
+                            @Value("${otp.memory.max-entries:100000}") int maxEntries,
+                            @Value("${otp.memory.wheel-size:1024}") int wheelSize,
+                            @Value("${otp.memory.tick-millis:1000}") long tickMillis) {
+        this.metrics = metrics;
+        this.maxAttempts = maxAttempts;
+        this.maxIssues = maxIssues;
+        this.lockoutWindowMillis = lockoutWindowMillis;
+        this.maxEntries = maxEntries;
+        this.tickMillis = tickMillis;
+        this.wheel = new Set[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.lastTick = System.currentTimeMillis() / tickMillis;
+    }
+    
+    @Override
+    public void save(String email, String code, Duration ttl) {
+        if (!entries.containsKey(email) && entries.size() >= maxEntries) {
+            log.warn("OTP store full ({} entries), rejecting request for {}", maxEntries, email);
+            throw new BadRequestException("Too many pending OTP requests. Please try again later.");
+        }
+        
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttl.toMillis();
+        Entry entry = entries.compute(email, (key, previous) -> {
+            if (previous == null || previous.windowEndsAt <= now) {
+                long windowEndsAt = now + lockoutWindowMillis;
+                return new Entry(code, expiresAt, windowEndsAt, slotOf(Math.max(expiresAt, windowEndsAt)),
+                        1, new AtomicInteger());
+            }
+            if (previous.attempts.get() >= maxAttempts || previous.issued >= maxIssues) {
+                log.warn("OTP request rejected for {}: locked out until the window ends", email);
+                throw new BadRequestException("Too many OTP requests. Please try again later.");
+            }
+            // Same window: the failed attempts carry over to the new code
+            return new Entry(code, expiresAt, previous.windowEndsAt,
+                    slotOf(Math.max(expiresAt, previous.windowEndsAt)), previous.issued + 1, previous.attempts);
+        });
+        wheel[entry.slot].add(email);
+    }
+    
+    @Override
+    public OtpVerificationResult verify(String email, String code) {
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            return OtpVerificationResult.NOT_FOUND;
+        }
+        
+        // Locked entries are kept (and refuse even the right code) until the sweep retires them
+        if (entry.attempts.get() >= maxAttempts) {
+            return OtpVerificationResult.TOO_MANY_ATTEMPTS;
+        }
+        
+        if (entry.isExpired(System.currentTimeMillis())) {
+            return OtpVerificationResult.EXPIRED;
+        }
+        
+        if (!MessageDigest.isEqual(entry.code.getBytes(StandardCharsets.UTF_8),
+                code.getBytes(StandardCharsets.UTF_8))) {
+            if (entry.attempts.incrementAndGet() >= maxAttempts) {
+                return OtpVerificationResult.TOO_MANY_ATTEMPTS;
+            }
+            return OtpVerificationResult.INVALID;
+        }
+        
+        // Only one concurrent verification may consume the OTP
+        return entries.remove(email, entry) ? OtpVerificationResult.VERIFIED : OtpVerificationResult.NOT_FOUND;
+    }
+    
+    @Override
+    public void remove(String email) {
+        entries.remove(email);
+    }
+    
+    @Override
+    public long activeCount() {
+        return entries.size();
+    }
+    
+    /**
+     * Advance the wheel, sweeping every slot passed since the last tick
+     */
+    @Scheduled(fixedRateString = "${otp.memory.tick-millis:1000}")
+    public synchronized void advance() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / tickMillis;
+        long ticks = Math.min(currentTick - lastTick, wheel.length);
+        long expired = 0;
+        
+        for (long t = currentTick - ticks + 1; t <= currentTick; t++) {
+            int slot = (int) (t % wheel.length);
+            Iterator<String> it = wheel[slot].iterator();
+            while (it.hasNext()) {
+                String email = it.next();
+                Entry entry = entries.get(email);
+                if (entry == null || entry.slot != slot) {
+                    // Consumed, or re-issued into another slot
+                    it.remove();
+                } else if (entry.isRetired(now)) {
+                    it.remove();
+                    if (entries.remove(email, entry)) {
+                        expired++;
+                    }
+                }
+                // Otherwise the deadline is a later revolution of the wheel
+            }
+        }
+        lastTick = currentTick;
+        
+        if (expired > 0) {
+            metrics.expired(expired);
+            log.debug("Expired {} OTPs", expired);
+        }
+    }
+    
+    // First tick that starts at or after the deadline
+    private int slotOf(long timeMillis) {
+        return (int) ((timeMillis / tickMillis + 1) % wheel.length);
+    }
+    
+    private static class Entry {
+        private final String code;
+        private final long expiresAt;
+        private final long windowEndsAt;
+        private final int slot;
+        private final int issued;
+        // Shared by the entries of one window
+        private final AtomicInteger attempts;
+        
+        Entry(String code, long expiresAt, long windowEndsAt, int slot, int issued, AtomicInteger attempts) {
+            this.code = code;
+            this.expiresAt = expiresAt;
+            this.windowEndsAt = windowEndsAt;
+            this.slot = slot;
+            this.issued = issued;
+            this.attempts = attempts;
+        }
+        
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+        
+        boolean isRetired(long now) {
+            return isExpired(now) && now >= windowEndsAt;
+        }
+    }
+}
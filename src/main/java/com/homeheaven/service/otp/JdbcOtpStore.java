@@ -0,0 +1,156 @@
+package com.homeheaven.service.otp;
+
+import com.homeheaven.exception.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared OTP store backed by the otp_tokens table, so any node can verify
+ * an OTP issued by another. A row keeps the email's attempt and issue
+ * counters until window_ends_at; rows whose code and window have both
+ * expired are purged periodically.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "jdbc")
+@Slf4j
+public class JdbcOtpStore implements OtpStore {
+    
+    private static final RowMapper<OtpRow> OTP_ROW_MAPPER = (rs, i) -> new OtpRow(rs.getString("code"),
+            rs.getTimestamp("expires_at"), rs.getInt("attempts"), rs.getInt("issued"),
+            rs.getTimestamp("window_ends_at"));
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final OtpMetrics metrics;
+    private final int maxAttempts;
+    private final int maxIssues;
+    private final long lockoutWindowMillis;
+    private final AtomicLong active = new AtomicLong();
+    
+    public JdbcOtpStore(JdbcTemplate jdbcTemplate,
+                        OtpMetrics metrics,
+                        @Value("${otp.max-attempts:5}") int maxAttempts,
+                        @Value("${otp.max-issues:5}") int maxIssues,
+                        @Value("${otp.lockout-window:900000}") long lockoutWindowMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.metrics = metrics;
+        this.maxAttempts = maxAttempts;
+        this.maxIssues = maxIssues;
+        this.lockoutWindowMillis = lockoutWindowMillis;
+    }
+    
+    /**
+     * Locks the email's row so concurrent requests count against the same window
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void save(String email, String code, Duration ttl) {
+        long now = System.currentTimeMillis();
+        Timestamp expiresAt = new Timestamp(now + ttl.toMillis());
+        List<OtpRow> rows = jdbcTemplate.query(
+                "SELECT code, expires_at, attempts, issued, window_ends_at FROM otp_tokens WHERE email = ? FOR UPDATE",
+                OTP_ROW_MAPPER, email);
+        
+        if (rows.isEmpty() || rows.get(0).windowEndsAt().getTime() <= now) {
+            jdbcTemplate.update(
+                    "INSERT INTO otp_tokens (email, code, expires_at, attempts, issued, window_ends_at) " +
+                    "VALUES (?, ?, ?, 0, 1, ?) " +
+                    "ON DUPLICATE KEY UPDATE code = VALUES(code), expires_at = VALUES(expires_at), attempts = 0, " +
+                    "issued = 1, window_ends_at = VALUES(window_ends_at)",
+                    email, code, expiresAt, new Timestamp(now + lockoutWindowMillis));
+            return;
+        }
+        
+        OtpRow row = rows.get(0);
+        if (row.attempts() >= maxAttempts || row.issued() >= maxIssues) {
+            log.warn("OTP request rejected for {}: locked out until the window ends", email);
+            throw new BadRequestException("Too many OTP requests. Please try again later.");
+        }
+        // Same window: the failed attempts carry over to the new code
+        jdbcTemplate.update("UPDATE otp_tokens SET code = ?, expires_at = ?, issued = issued + 1 WHERE email = ?",
+                code, expiresAt, email);
+    }
+    
+    /**
+     * Runs in its own transaction so failed attempts are counted even when
+     * the caller rolls back
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public OtpVerificationResult verify(String email, String code) {
+        List<OtpRow> rows = jdbcTemplate.query(
+                "SELECT code, expires_at, attempts, issued, window_ends_at FROM otp_tokens WHERE email = ? FOR UPDATE",
+                OTP_ROW_MAPPER, email);
+        if (rows.isEmpty()) {
+            return OtpVerificationResult.NOT_FOUND;
+        }
+        
+        // Locked rows are kept (and refuse even the right code) until the purge removes them
+        OtpRow row = rows.get(0);
+        if (row.attempts() >= maxAttempts) {
+            return OtpVerificationResult.TOO_MANY_ATTEMPTS;
+        }
+        
+        if (row.expiresAt().getTime() <= System.currentTimeMillis()) {
+            return OtpVerificationResult.EXPIRED;
+        }
+        
+        if (!MessageDigest.isEqual(row.code().getBytes(StandardCharsets.UTF_8),
+                code.getBytes(StandardCharsets.UTF_8))) {
+            jdbcTemplate.update("UPDATE otp_tokens SET attempts = attempts + 1 WHERE email = ?", email);
+            return row.attempts() + 1 >= maxAttempts
+                    ? OtpVerificationResult.TOO_MANY_ATTEMPTS
+                    : OtpVerificationResult.INVALID;
+        }
+        
+        delete(email);
+        return OtpVerificationResult.VERIFIED;
+    }
+    
+    @Override
+    public void remove(String email) {
+        delete(email);
+    }
+    
+    @Override
+    public long activeCount() {
+        return active.get();
+    }
+    
+    /**
+     * Purge rows whose code and window have expired and refresh the active count
+     */
+    @Scheduled(fixedDelayString = "${otp.jdbc.purge-interval:60000}")
+    public void purgeExpired() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int purged = jdbcTemplate.update("DELETE FROM otp_tokens WHERE expires_at <= ? AND window_ends_at <= ?",
+                now, now);
+        if (purged > 0) {
+            metrics.expired(purged);
+            log.debug("Purged {} expired OTPs", purged);
+        }
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM otp_tokens WHERE expires_at > ? AND attempts < ?", Long.class, now, maxAttempts);
+        active.set(count != null ? count : 0);
+    }
+    
+    private void delete(String email) {
+        jdbcTemplate.update("DELETE FROM otp_tokens WHERE email = ?", email);
+    }
+    
+    private record OtpRow(String code, Timestamp expiresAt, int attempts, int issued, Timestamp windowEndsAt) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.homeheaven.service.otp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * OTP counters shared by all store implementations
+ */
+@Component
+public class OtpMetrics {
+    
+    private final Counter issued;
+    private final Counter verified;
+    private final Counter expired;
+    private final Counter rejected;
+    
+    public OtpMetrics(MeterRegistry registry) {
+        this.issued = registry.counter("otp.issued");
+        this.verified = registry.counter("otp.verified");
+        this.expired = registry.counter("otp.expired");
+        this.rejected = registry.counter("otp.rejected");
+    }
+    
+    public void issued() {
+        issued.increment();
+    }
+    
+    public void verified() {
+        verified.increment();
+    }
+    
+    public void expired(long count) {
+        expired.increment(count);
+    }
+    
+    public void rejected() {
+        rejected.increment();
+    }
+}
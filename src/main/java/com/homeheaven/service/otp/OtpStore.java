@@ -0,0 +1,36 @@
+package com.homeheaven.service.otp;
+
+import java.time.Duration;
+
+/**
+ * Storage for pending OTPs with expiry and per-email attempt counting.
+ * Failed attempts and issued codes are counted per email over a lockout
+ * window that re-issuing does not reset, so a short code cannot be brute
+ * forced by requesting a new one after every few guesses.
+ */
+public interface OtpStore {
+    
+    /**
+     * Store an OTP for the email, replacing any previous one. Throws
+     * BadRequestException if the email is locked out or has been issued too
+     * many codes in the current window.
+     */
+    void save(String email, String code, Duration ttl);
+    
+    /**
+     * Verify an OTP. A successful verification consumes it and clears the
+     * email's counters; too many failed attempts lock the email out until the
+     * window ends.
+     */
+    OtpVerificationResult verify(String email, String code);
+    
+    /**
+     * Remove any OTP for the email
+     */
+    void remove(String email);
+    
+    /**
+     * Number of OTPs currently pending
+     */
+    long activeCount();
+}
@@ -0,0 +1,12 @@
+package com.homeheaven.service.otp;
+
+/**
+ * Outcome of an OTP verification attempt
+ */
+public enum OtpVerificationResult {
+    VERIFIED,
+    INVALID,
+    EXPIRED,
+    NOT_FOUND,
+    TOO_MANY_ATTEMPTS
+}
@@ -0,0 +1,214 @@
+package com.homeheaven.service.recommend;
+
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertyViewedEvent;
+import com.homeheaven.util.SpaceSavingCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * "Viewers also viewed" from co-viewing sessions. A session is one viewer's
+ * run of detail-page views with no gap longer than session-gap; every pair
+ * of distinct listings viewed in the same session counts once as a
+ * co-view. Each listing keeps a bounded Space-Saving counter of its
+ * co-viewed neighbours, so the sparse item-item matrix is at most
+ * max-items x neighbours wide whatever the traffic, and a session only pairs
+ * a view with its last max-session-items listings.
+ * <p>
+ * Weights are decayed and pruned periodically, so old co-views fade and
+ * idle listings and sessions are dropped. Neighbours are ranked by
+ * co-views / sqrt(sessions(a) * sessions(b)) so that popular listings do
+ * not show up everywhere.
+ */
+@Service
+@Slf4j
+public class CoViewService {
+    
+    private final long sessionGapMillis;
+    private final int maxSessionItems;
+    private final int maxSessions;
+    private final int neighbours;
+    private final int maxItems;
+    private final float minCoViews;
+    private final double halfLifeMillis;
+    
+    private final Map<Long, Item> items = new HashMap<>();
+    private final LinkedHashMap<String, Session> sessions;
+    private long lastPrunedMillis = System.currentTimeMillis();
+    
+    public CoViewService(@Value("${recommend.also-viewed.session-gap:1800000}") long sessionGapMillis,
+                         @Value("${recommend.also-viewed.max-session-items:20}") int maxSessionItems,
+                         @Value("${recommend.also-viewed.max-sessions:200000}") int maxSessions,
+                         @Value("${recommend.also-viewed.neighbours:40}") int neighbours,
+                         @Value("${recommend.also-viewed.max-items:100000}") int maxItems,
+                         @Value("${recommend.also-viewed.min-co-views:2}") float minCoViews,
+                         @Value("${recommend.also-viewed.half-life-hours:168}") double halfLifeHours) {
+        this.sessionGapMillis = sessionGapMillis;
+        this.maxSessionItems = maxSessionItems;
+        this.maxSessions = maxSessions;
+        this.neighbours = neighbours;
+        this.maxItems = maxItems;
+        this.minCoViews = minCoViews;
+        this.halfLifeMillis = halfLifeHours * 3_600_000d;
+        this.sessions = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > CoViewService.this.maxSessions;
+            }
+        };
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPropertyViewed(PropertyViewedEvent event) {
+        if (event.viewerKey() == null) {
+            return;
+        }
+        long time = event.viewedAt() != null
+                ? Timestamp.valueOf(event.viewedAt()).getTime()
+                : System.currentTimeMillis();
+        Session session = sessions.get(event.viewerKey());
+        if (session == null || time - session.lastSeenMillis > sessionGapMillis) {
+            session = new Session(maxSessionItems);
+            sessions.put(event.viewerKey(), session);
+        }
+        session.lastSeenMillis = Math.max(session.lastSeenMillis, time);
+        
+        long propertyId = event.propertyId();
+        if (session.contains(propertyId)) {
+            return;
+        }
+        Item item = item(propertyId);
+        item.sessions++;
+        for (int i = 0; i < session.size; i++) {
+            long other = session.recent[i];
+            item.neighbours.add(other, 1);
+            item(other).neighbours.add(propertyId, 1);
+        }
+        session.add(propertyId);
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.type() != PropertyChangedEvent.ChangeType.DELETED) {
+            return;
+        }
+        Item item = items.remove(event.propertyId());
+        if (item != null) {
+            for (SpaceSavingCounter.Entry neighbour : item.neighbours.entries()) {
+                Item other = items.get(neighbour.key());
+                if (other != null) {
+                    other.neighbours.remove(event.propertyId());
+                }
+            }
+        }
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        batch.changes().forEach(this::onPropertyChanged);
+    }
+    
+    /**
+     * Ids of listings most often viewed in the same session as this one, best first
+     */
+    public synchronized List<Long> alsoViewed(Long propertyId, int limit) {
+        Item item = items.get(propertyId);
+        if (item == null) {
+            return List.of();
+        }
+        List<Map.Entry<Long, Double>> scored = new ArrayList<>();
+        for (SpaceSavingCounter.Entry neighbour : item.neighbours.entries()) {
+            Item other = items.get(neighbour.key());
+            if (other != null && neighbour.weight() >= minCoViews) {
+                scored.add(Map.entry(neighbour.key(),
+                        neighbour.weight() / Math.sqrt(Math.max(1, item.sessions) * Math.max(1, other.sessions))));
+            }
+        }
+        scored.sort(Map.Entry.<Long, Double>comparingByValue().reversed());
+        return scored.stream()
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+    
+    /**
+     * Decay all weights by the time since the last prune, drop what has
+     * faded, expire idle sessions and cap the number of listings tracked
+     */
+    @Scheduled(initialDelayString = "${recommend.also-viewed.prune-interval:3600000}",
+               fixedDelayString = "${recommend.also-viewed.prune-interval:3600000}")
+    public synchronized void prune() {
+        long now = System.currentTimeMillis();
+        float factor = (float) Math.pow(0.5, (now - lastPrunedMillis) / halfLifeMillis);
+        lastPrunedMillis = now;
+        
+        items.values().removeIf(item -> {
+            item.sessions *= factor;
+            item.neighbours.decay(factor, minCoViews / 2);
+            return item.neighbours.isEmpty() && item.sessions < 1;
+        });
+        if (items.size() > maxItems) {
+            List<Map.Entry<Long, Item>> ranked = new ArrayList<>(items.entrySet());
+            ranked.sort(Comparator.comparingDouble(entry -> entry.getValue().sessions));
+            ranked.subList(0, items.size() - maxItems).forEach(entry -> items.remove(entry.getKey()));
+            // Neighbour entries pointing at dropped listings are skipped when serving and fade out
+        }
+        sessions.values().removeIf(session -> now - session.lastSeenMillis > sessionGapMillis);
+        log.info("Co-view matrix pruned: {} listings, {} open sessions", items.size(), sessions.size());
+    }
+    
+    private Item item(long propertyId) {
+        return items.computeIfAbsent(propertyId, id -> new Item(neighbours));
+    }
+    
+    private static class Item {
+        /** Decayed number of sessions that viewed the listing */
+        private float sessions;
+        private final SpaceSavingCounter neighbours;
+        
+        Item(int capacity) {
+            this.neighbours = new SpaceSavingCounter(capacity);
+        }
+    }
+    
+    /**
+     * A viewer's current session: the last listings viewed, oldest overwritten first
+     */
+    private static class Session {
+        private final long[] recent;
+        private int size;
+        private int next;
+        private long lastSeenMillis;
+        
+        Session(int capacity) {
+            this.recent = new long[capacity];
+        }
+        
+        boolean contains(long propertyId) {
+            for (int i = 0; i < size; i++) {
+                if (recent[i] == propertyId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        void add(long propertyId) {
+            recent[next] = propertyId;
+            next = (next + 1) % recent.length;
+            size = Math.min(size + 1, recent.length);
+        }
+    }
+}
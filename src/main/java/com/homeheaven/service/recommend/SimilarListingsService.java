@@ -0,0 +1,299 @@
+package com.homeheaven.service.recommend;
+
+import com.homeheaven.event.PropertyBatchChangedEvent;
+import com.homeheaven.event.PropertyChangedEvent;
+import com.homeheaven.event.PropertySnapshot;
+import com.homeheaven.service.analytics.TrendingService;
+import com.homeheaven.util.RebuildableIndex;
+import com.homeheaven.util.SparseVectorIndex;
+import com.homeheaven.util.TextTerms;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Content-based "similar listings". Every available listing becomes a sparse
+ * vector of its type, sharing option, rent and sqft (log-scale buckets that
+ * also light up their neighbours, so close values overlap) and the TF-IDF
+ * weights of its name and description terms, L2-normalized so the dot
+ * product is the cosine similarity. Vectors live in a SparseVectorIndex
+ * blocked by city, updated from property change events and rebuilt
+ * periodically to refresh document frequencies.
+ *
+ * Neighbours of trending listings are precomputed on a schedule; others are
+ * computed on first request and kept in a bounded cache, so a request is
+ * normally a map lookup.
+ */
+@Service
+@Slf4j
+public class SimilarListingsService {
+    
+    private static final float TYPE_WEIGHT = 0.8f;
+    private static final float SHARING_WEIGHT = 0.4f;
+    private static final float RENT_WEIGHT = 0.8f;
+    private static final float SQFT_WEIGHT = 0.5f;
+    private static final float TEXT_WEIGHT = 1.2f;
+    private static final double RENT_BUCKET_RATIO = Math.log(1.15);
+    private static final double SQFT_BUCKET_RATIO = Math.log(1.2);
+    private static final int MAX_TERMS = 25;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TrendingService trendingService;
+    private final int maxResults;
+    private final int maxCandidates;
+    private final int hotListings;
+    private final long cacheTtlMillis;
+    
+    private final RebuildableIndex<State> state = new RebuildableIndex<>(new State());
+    
+    /** Neighbours of trending listings, replaced on every refresh */
+    private Map<Long, List<Long>> precomputed = new HashMap<>();
+    
+    /** Neighbours computed on demand, least recently used dropped */
+    private final LinkedHashMap<Long, Cached> cache;
+    
+    public SimilarListingsService(JdbcTemplate jdbcTemplate,
+                                  TrendingService trendingService,
+                                  @Value("${recommend.similar.max-results:20}") int maxResults,
+                                  @Value("${recommend.similar.max-candidates:2000}") int maxCandidates,
+                                  @Value("${recommend.similar.hot-listings:500}") int hotListings,
+                                  @Value("${recommend.similar.cache-size:10000}") int cacheSize,
+                                  @Value("${recommend.similar.refresh-interval:600000}") long cacheTtlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.trendingService = trendingService;
+        this.maxResults = maxResults;
+        this.maxCandidates = maxCandidates;
+        this.hotListings = hotListings;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+    
+    /**
+     * Rebuild all vectors with fresh document frequencies (two passes over the rows read)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${recommend.similar.rebuild-interval:21600000}",
+               fixedDelayString = "${recommend.similar.rebuild-interval:21600000}")
+    public void rebuild() {
+        List<Item> items = new ArrayList<>();
+        State fresh = state.rebuild(() -> {
+            jdbcTemplate.query("SELECT id, city, property_type, rent, sqft, sharing_option, name, description " +
+                    "FROM properties WHERE is_available = TRUE", rs -> {
+                items.add(new Item(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4),
+                        rs.getObject(5, Integer.class), rs.getString(6), terms(rs.getString(7), rs.getString(8))));
+            });
+            State loaded = new State();
+            items.forEach(loaded::countTerms);
+            items.forEach(loaded::index);
+            return loaded;
+        });
+        if (fresh == null) {
+            return;
+        }
+        synchronized (this) {
+            cache.clear();
+        }
+        log.info("Similar-listing index rebuilt with {} listings", items.size());
+        refreshHot();
+    }
+    
+    /**
+     * Precompute neighbours of the currently trending listings
+     */
+    @Scheduled(initialDelayString = "${recommend.similar.refresh-interval:600000}",
+               fixedDelayString = "${recommend.similar.refresh-interval:600000}")
+    public synchronized void refreshHot() {
+        Map<Long, List<Long>> fresh = new HashMap<>();
+        for (Map.Entry<Long, Double> hot : trendingService.top(null, null, hotListings)) {
+            fresh.put(hot.getKey(), compute(hot.getKey()));
+        }
+        precomputed = fresh;
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.expiresAt < now);
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertyChanged(PropertyChangedEvent event) {
+        state.apply(target -> apply(target, event));
+        cache.remove(event.propertyId());
+        precomputed.remove(event.propertyId());
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onPropertiesChanged(PropertyBatchChangedEvent batch) {
+        batch.changes().forEach(this::onPropertyChanged);
+    }
+    
+    private static void apply(State target, PropertyChangedEvent event) {
+        target.remove(event.propertyId());
+        PropertySnapshot after = event.after();
+        if (event.type() != PropertyChangedEvent.ChangeType.DELETED && after != null && after.available()) {
+            Item item = new Item(after.id(), after.city(),
+                    after.propertyType() != null ? after.propertyType().name() : null, after.rent(), after.sqft(),
+                    after.sharingOption(), terms(after.name(), after.description()));
+            target.countTerms(item);
+            target.index(item);
+        }
+    }
+    
+    /**
+     * Ids of the listings most similar to this one, best first (empty if it is
+     * not available). Neighbours may have become unavailable since they were
+     * computed, so callers filter on availability.
+     */
+    public synchronized List<Long> similar(Long propertyId, int limit) {
+        List<Long> ids = precomputed.get(propertyId);
+        if (ids == null) {
+            Cached cached = cache.get(propertyId);
+            if (cached == null || cached.expiresAt < System.currentTimeMillis()) {
+                cached = new Cached(compute(propertyId), System.currentTimeMillis() + cacheTtlMillis);
+                cache.put(propertyId, cached);
+            }
+            ids = cached.ids;
+        }
+        return ids.size() > limit ? ids.subList(0, limit) : ids;
+    }
+    
+    private List<Long> compute(Long propertyId) {
+        return state.read(current -> current.index.nearest(propertyId, maxResults, maxCandidates)).stream()
+                .map(SparseVectorIndex.Neighbour::id)
+                .toList();
+    }
+    
+    /**
+     * Feature dictionary, term document frequencies and the vector index
+     */
+    private static class State {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final Map<Integer, Integer> documentFrequency = new HashMap<>();
+        private final Map<Long, Set<Integer>> itemTerms = new HashMap<>();
+        private final SparseVectorIndex index = new SparseVectorIndex();
+        
+        void countTerms(Item item) {
+            Set<Integer> terms = new HashSet<>();
+            item.terms.forEach(term -> terms.add(feature("t:" + term)));
+            terms.forEach(term -> documentFrequency.merge(term, 1, Integer::sum));
+            itemTerms.put(item.id, terms);
+        }
+        
+        void index(Item item) {
+            Map<Integer, Float> vector = new HashMap<>();
+            List<Integer> indexed = new ArrayList<>();
+            
+            if (item.type != null) {
+                int type = feature("type:" + item.type);
+                vector.put(type, TYPE_WEIGHT);
+                indexed.add(type);
+            }
+            if (item.sharing != null && !item.sharing.isBlank()) {
+                vector.put(feature("share:" + normalize(item.sharing)), SHARING_WEIGHT);
+            }
+            if (item.rent != null && item.rent.signum() > 0) {
+                indexed.add(addBuckets(vector, "rent:", Math.log(item.rent.doubleValue()) / RENT_BUCKET_RATIO,
+                        RENT_WEIGHT));
+            }
+            if (item.sqft != null && item.sqft > 0) {
+                indexed.add(addBuckets(vector, "sqft:", Math.log(item.sqft) / SQFT_BUCKET_RATIO, SQFT_WEIGHT));
+            }
+            addTerms(vector, indexed, item);
+            
+            int[] features = vector.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            float[] weights = new float[features.length];
+            double norm = 0;
+            for (int i = 0; i < features.length; i++) {
+                weights[i] = vector.get(features[i]);
+                norm += weights[i] * weights[i];
+            }
+            norm = Math.sqrt(norm);
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] /= (float) norm;
+            }
+            index.put(item.id, feature("city:" + normalize(item.city)), features, weights,
+                    indexed.stream().mapToInt(Integer::intValue).toArray());
+        }
+        
+        void remove(long id) {
+            index.remove(id);
+            Set<Integer> terms = itemTerms.remove(id);
+            if (terms != null) {
+                terms.forEach(term -> documentFrequency.computeIfPresent(term, (t, df) -> df > 1 ? df - 1 : null));
+            }
+        }
+        
+        /**
+         * Weight the bucket of a log-scaled value fully and its two neighbours by half; returns the centre bucket
+         */
+        private int addBuckets(Map<Integer, Float> vector, String prefix, double scaled, float weight) {
+            long bucket = (long) Math.floor(scaled);
+            int centre = feature(prefix + bucket);
+            vector.merge(centre, weight, Float::sum);
+            vector.merge(feature(prefix + (bucket - 1)), weight / 2, Float::sum);
+            vector.merge(feature(prefix + (bucket + 1)), weight / 2, Float::sum);
+            return centre;
+        }
+        
+        /**
+         * Top TF-IDF terms, scaled so the text block has norm TEXT_WEIGHT
+         */
+        private void addTerms(Map<Integer, Float> vector, List<Integer> indexed, Item item) {
+            Map<Integer, Integer> termFrequency = new HashMap<>();
+            item.terms.forEach(term -> termFrequency.merge(feature("t:" + term), 1, Integer::sum));
+            
+            int documents = Math.max(1, itemTerms.size());
+            List<Map.Entry<Integer, Double>> weighted = new ArrayList<>();
+            termFrequency.forEach((term, tf) -> {
+                double idf = Math.log((documents + 1.0) / (documentFrequency.getOrDefault(term, 0) + 1.0)) + 1;
+                weighted.add(Map.entry(term, (1 + Math.log(tf)) * idf));
+            });
+            weighted.sort(Map.Entry.<Integer, Double>comparingByValue().reversed());
+            List<Map.Entry<Integer, Double>> top = weighted.subList(0, Math.min(MAX_TERMS, weighted.size()));
+            
+            double norm = Math.sqrt(top.stream().mapToDouble(e -> e.getValue() * e.getValue()).sum());
+            for (Map.Entry<Integer, Double> term : top) {
+                vector.put(term.getKey(), (float) (TEXT_WEIGHT * term.getValue() / norm));
+                indexed.add(term.getKey());
+            }
+        }
+        
+        private int feature(String name) {
+            return dictionary.computeIfAbsent(name, n -> dictionary.size());
+        }
+    }
+    
+    private static List<String> terms(String name, String description) {
+        List<String> terms = TextTerms.terms(name);
+        terms.addAll(TextTerms.terms(description));
+        return terms;
+    }
+    
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+    
+    private record Item(long id, String city, String type, BigDecimal rent, Integer sqft, String sharing,
+                        List<String> terms) {
+    }
+    
+    private record Cached(List<Long> ids, long expiresAt) {
+    }
+}
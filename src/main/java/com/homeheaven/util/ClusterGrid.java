@@ -0,0 +1,266 @@
+package com.homeheaven.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical grid aggregation of points for map clustering. Every zoom
+ * level from minZoom to maxZoom has a grid whose cells are half the size of
+ * the level above, so each cell has exactly four children. A point is
+ * counted in one cell per level; cells keep count, coordinate sums (for the
+ * centroid) and min/max value. Insert and remove are O(levels). When a
+ * removal takes away a cell's min or max, the cell is marked dirty and
+ * recomputed lazily from its children (members at the finest level).
+ * Not thread-safe.
+ */
+public class ClusterGrid {
+    
+    private final int minZoom;
+    private final int maxZoom;
+    private final int cellsPerTile;
+    private final List<Map<Long, Cell>> levels = new ArrayList<>();
+    private final Map<Long, Point> points = new HashMap<>();
+    
+    /**
+     * @param cellsPerTile grid cells across one 256px map tile at every zoom
+     */
+    public ClusterGrid(int minZoom, int maxZoom, int cellsPerTile) {
+        if (minZoom < 0 || maxZoom < minZoom || maxZoom > 24 || cellsPerTile < 1) {
+            throw new IllegalArgumentException("Invalid zoom range or cells per tile");
+        }
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.cellsPerTile = cellsPerTile;
+        for (int z = minZoom; z <= maxZoom; z++) {
+            levels.add(new HashMap<>());
+        }
+    }
+    
+    public int size() {
+        return points.size();
+    }
+    
+    public int getMinZoom() {
+        return minZoom;
+    }
+    
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+    
+    /**
+     * Insert or move a point
+     */
+    public void put(long id, double latitude, double longitude, double value) {
+        remove(id);
+        points.put(id, new Point(latitude, longitude, value));
+        for (int z = minZoom; z <= maxZoom; z++) {
+            Cell cell = level(z).computeIfAbsent(key(z, latitude, longitude), k -> new Cell());
+            cell.count++;
+            cell.sumLat += latitude;
+            cell.sumLon += longitude;
+            if (cell.count == 1) {
+                cell.min = value;
+                cell.max = value;
+            } else if (!cell.dirty) {
+                cell.min = Math.min(cell.min, value);
+                cell.max = Math.max(cell.max, value);
+            }
+            if (z == maxZoom) {
+                if (cell.members == null) {
+                    cell.members = new HashMap<>();
+                }
+                cell.members.put(id, value);
+            }
+        }
+    }
+    
+    public boolean remove(long id) {
+        Point point = points.remove(id);
+        if (point == null) {
+            return false;
+        }
+        for (int z = minZoom; z <= maxZoom; z++) {
+            Map<Long, Cell> level = level(z);
+            long key = key(z, point.latitude, point.longitude);
+            Cell cell = level.get(key);
+            cell.count--;
+            if (cell.count == 0) {
+                level.remove(key);
+                continue;
+            }
+            cell.sumLat -= point.latitude;
+            cell.sumLon -= point.longitude;
+            if (z == maxZoom) {
+                cell.members.remove(id);
+            }
+            if (point.value <= cell.min || point.value >= cell.max) {
+                cell.dirty = true;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Clusters inside the box at the given zoom. If there would be more than
+     * maxClusters, coarser levels are used until the result fits.
+     */
+    public Result clusters(double minLat, double minLon, double maxLat, double maxLon, int zoom, int maxClusters) {
+        int z = Math.max(minZoom, Math.min(maxZoom, zoom));
+        List<long[]> cells = cellsInBox(z, minLat, minLon, maxLat, maxLon, maxClusters);
+        while (cells == null && z > minZoom) {
+            z--;
+            cells = cellsInBox(z, minLat, minLon, maxLat, maxLon, maxClusters);
+        }
+        if (cells == null) {
+            // Even the coarsest level is too dense for the cap: return its first maxClusters cells
+            cells = cellsInBox(z, minLat, minLon, maxLat, maxLon, Integer.MAX_VALUE).subList(0, maxClusters);
+        }
+        
+        List<Cluster> clusters = new ArrayList<>(cells.size());
+        for (long[] rowColumn : cells) {
+            long key = pack(rowColumn[0], rowColumn[1]);
+            Cell cell = level(z).get(key);
+            fix(z, rowColumn[0], rowColumn[1], cell);
+            clusters.add(new Cluster(cell.sumLat / cell.count, cell.sumLon / cell.count, cell.count,
+                    cell.min, cell.max, cell.count == 1 ? singleId(z, rowColumn[0], rowColumn[1]) : null));
+        }
+        return new Result(z, clusters);
+    }
+    
+    /**
+     * Occupied cells of the level overlapping the box, or null if there are more than limit
+     */
+    private List<long[]> cellsInBox(int z, double minLat, double minLon, double maxLat, double maxLon, int limit) {
+        long minRow = index(z, minLat + 90);
+        long maxRow = index(z, maxLat + 90);
+        long minColumn = index(z, minLon + 180);
+        long maxColumn = index(z, maxLon + 180);
+        Map<Long, Cell> level = level(z);
+        List<long[]> result = new ArrayList<>();
+        
+        if ((maxRow - minRow + 1) * (maxColumn - minColumn + 1) > level.size()) {
+            for (Long key : level.keySet()) {
+                long row = key >>> 32;
+                long column = key & 0xffffffffL;
+                if (row >= minRow && row <= maxRow && column >= minColumn && column <= maxColumn) {
+                    if (result.size() == limit) {
+                        return null;
+                    }
+                    result.add(new long[]{row, column});
+                }
+            }
+            return result;
+        }
+        
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long column = minColumn; column <= maxColumn; column++) {
+                if (level.containsKey(pack(row, column))) {
+                    if (result.size() == limit) {
+                        return null;
+                    }
+                    result.add(new long[]{row, column});
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Recompute a dirty cell's min/max from its children (or members at the finest level)
+     */
+    private void fix(int z, long row, long column, Cell cell) {
+        if (!cell.dirty) {
+            return;
+        }
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        if (z == maxZoom) {
+            for (double value : cell.members.values()) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        } else {
+            for (int i = 0; i < 4; i++) {
+                long childRow = row * 2 + (i >> 1);
+                long childColumn = column * 2 + (i & 1);
+                Cell child = level(z + 1).get(pack(childRow, childColumn));
+                if (child != null) {
+                    fix(z + 1, childRow, childColumn, child);
+                    min = Math.min(min, child.min);
+                    max = Math.max(max, child.max);
+                }
+            }
+        }
+        cell.min = min;
+        cell.max = max;
+        cell.dirty = false;
+    }
+    
+    /**
+     * Id of the only point in a cell, found by descending to the finest level
+     */
+    private Long singleId(int z, long row, long column) {
+        while (z < maxZoom) {
+            boolean found = false;
+            for (int i = 0; i < 4 && !found; i++) {
+                long childRow = row * 2 + (i >> 1);
+                long childColumn = column * 2 + (i & 1);
+                if (level(z + 1).containsKey(pack(childRow, childColumn))) {
+                    row = childRow;
+                    column = childColumn;
+                    found = true;
+                }
+            }
+            if (!found) {
+                return null;
+            }
+            z++;
+        }
+        Cell cell = level(z).get(pack(row, column));
+        return cell != null && !cell.members.isEmpty() ? cell.members.keySet().iterator().next() : null;
+    }
+    
+    private Map<Long, Cell> level(int z) {
+        return levels.get(z - minZoom);
+    }
+    
+    /**
+     * Cell index along one axis for an offset in [0, 360) degrees
+     */
+    private long index(int z, double offsetDegrees) {
+        double cellDegrees = 360.0 / ((1L << z) * cellsPerTile);
+        long max = (long) Math.ceil(360.0 / cellDegrees) - 1;
+        return Math.max(0, Math.min(max, (long) Math.floor(offsetDegrees / cellDegrees)));
+    }
+    
+    private long key(int z, double latitude, double longitude) {
+        return pack(index(z, latitude + 90), index(z, longitude + 180));
+    }
+    
+    private static long pack(long row, long column) {
+        return (row << 32) | column;
+    }
+    
+    private static class Cell {
+        private int count;
+        private double sumLat;
+        private double sumLon;
+        private double min;
+        private double max;
+        private boolean dirty;
+        /** Point id -> value, finest level only */
+        private Map<Long, Double> members;
+    }
+    
+    private record Point(double latitude, double longitude, double value) {
+    }
+    
+    public record Cluster(double latitude, double longitude, int count, double min, double max, Long singleId) {
+    }
+    
+    public record Result(int zoom, List<Cluster> clusters) {
+    }
+}
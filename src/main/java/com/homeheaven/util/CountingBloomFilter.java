@@ -0,0 +1,69 @@
+package com.homeheaven.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Counting Bloom filter with 8-bit saturating counters.
+ * Unlike a plain Bloom filter it supports removal, so it can track a set
+ * that shrinks (e.g. when users are deleted). A negative answer is exact;
+ * a positive answer means "maybe present".
+ */
+public class CountingBloomFilter {
+    
+    private static final int MAX_COUNT = 255;
+    
+    private final byte[] counters;
+    private final int numHashes;
+    
+    /**
+     * Size the filter for the expected number of entries and false positive rate
+     */
+    public CountingBloomFilter(int expectedEntries, double falsePositiveRate) {
+        int entries = Math.max(expectedEntries, 1);
+        long size = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.counters = new byte[(int) Math.min(Math.max(size, 64), Integer.MAX_VALUE - 8)];
+        this.numHashes = Math.max(1, (int) Math.round((double) counters.length / entries * Math.log(2)));
+    }
+    
+    public synchronized void add(String value) {
+        for (int index : indexes(value)) {
+            int count = counters[index] & 0xff;
+            if (count < MAX_COUNT) {
+                counters[index] = (byte) (count + 1);
+            }
+        }
+    }
+    
+    public synchronized void remove(String value) {
+        if (!mightContain(value)) {
+            return;
+        }
+        for (int index : indexes(value)) {
+            int count = counters[index] & 0xff;
+            // Saturated counters stay put: their true count is unknown
+            if (count > 0 && count < MAX_COUNT) {
+                counters[index] = (byte) (count - 1);
+            }
+        }
+    }
+    
+    public synchronized boolean mightContain(String value) {
+        for (int index : indexes(value)) {
+            if (counters[index] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private int[] indexes(String value) {
+        long[] hash = Hashing.murmur3_128(value.getBytes(StandardCharsets.UTF_8), 0);
+        int[] result = new int[numHashes];
+        long combined = hash[0];
+        for (int i = 0; i < numHashes; i++) {
+            result[i] = (int) ((combined & Long.MAX_VALUE) % counters.length);
+            combined += hash[1];
+        }
+        return result;
+    }
+}
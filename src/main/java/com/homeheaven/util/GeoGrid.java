@@ -0,0 +1,174 @@
+package com.homeheaven.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Uniform latitude/longitude grid of points. Each point lives in one cell
+ * of cellDegrees x cellDegrees; box and radius queries visit only the cells
+ * overlapping the query box (or every point when that is fewer) and then
+ * test exact coordinates. Not thread-safe.
+ */
+public class GeoGrid<T> {
+    
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    
+    private final double cellDegrees;
+    private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+    private final Map<Long, Entry<T>> byId = new HashMap<>();
+    
+    public GeoGrid(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("cellDegrees must be in (0, 90]");
+        }
+        this.cellDegrees = cellDegrees;
+    }
+    
+    public int size() {
+        return byId.size();
+    }
+    
+    /**
+     * Insert or move a point
+     */
+    public void put(long id, double latitude, double longitude, T value) {
+        remove(id);
+        Entry<T> entry = new Entry<>(id, latitude, longitude, value);
+        byId.put(id, entry);
+        cells.computeIfAbsent(cellKey(latitude, longitude), k -> new ArrayList<>()).add(entry);
+    }
+    
+    public boolean remove(long id) {
+        Entry<T> entry = byId.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        long key = cellKey(entry.latitude, entry.longitude);
+        List<Entry<T>> cell = cells.get(key);
+        cell.remove(entry);
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+        return true;
+    }
+    
+    public Entry<T> get(long id) {
+        return byId.get(id);
+    }
+    
+    /**
+     * Points inside the box (inclusive) that pass the filter, in no particular order
+     */
+    public List<Entry<T>> withinBox(double minLat, double minLon, double maxLat, double maxLon,
+                                    Predicate<T> filter) {
+        List<Entry<T>> result = new ArrayList<>();
+        scan(minLat, minLon, maxLat, maxLon, entry -> {
+            if (filter.test(entry.value)) {
+                result.add(entry);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Points within radiusKm of the center that pass the filter, nearest first, at most limit
+     */
+    public List<Hit<T>> withinRadius(double latitude, double longitude, double radiusKm, int limit,
+                                     Predicate<T> filter) {
+        double latDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double cos = Math.cos(Math.toRadians(latitude));
+        double lonDelta = cos < 1e-6 ? 180 : Math.min(180, latDelta / cos);
+        
+        List<Hit<T>> hits = new ArrayList<>();
+        scan(latitude - latDelta, longitude - lonDelta, latitude + latDelta, longitude + lonDelta, entry -> {
+            if (!filter.test(entry.value)) {
+                return;
+            }
+            double distance = distanceKm(latitude, longitude, entry.latitude, entry.longitude);
+            if (distance <= radiusKm) {
+                hits.add(new Hit<>(entry, distance));
+            }
+        });
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+    
+    /**
+     * Great-circle (haversine) distance in kilometres
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+    
+    private void scan(double minLat, double minLon, double maxLat, double maxLon,
+                      Consumer<Entry<T>> visitor) {
+        minLat = Math.max(-90, minLat);
+        maxLat = Math.min(90, maxLat);
+        minLon = Math.max(-180, minLon);
+        maxLon = Math.min(180, maxLon);
+        if (minLat > maxLat || minLon > maxLon) {
+            return;
+        }
+        
+        long rows = cellIndex(maxLat) - cellIndex(minLat) + 1;
+        long columns = cellIndex(maxLon) - cellIndex(minLon) + 1;
+        if (rows * columns > cells.size()) {
+            // Box covers more cells than are occupied: walk the occupied ones instead
+            for (List<Entry<T>> cell : cells.values()) {
+                for (Entry<T> entry : cell) {
+                    if (inside(entry, minLat, minLon, maxLat, maxLon)) {
+                        visitor.accept(entry);
+                    }
+                }
+            }
+            return;
+        }
+        
+        for (long row = cellIndex(minLat); row <= cellIndex(maxLat); row++) {
+            for (long column = cellIndex(minLon); column <= cellIndex(maxLon); column++) {
+                List<Entry<T>> cell = cells.get(pack(row, column));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry<T> entry : cell) {
+                    if (inside(entry, minLat, minLon, maxLat, maxLon)) {
+                        visitor.accept(entry);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static boolean inside(Entry<?> entry, double minLat, double minLon, double maxLat, double maxLon) {
+        return entry.latitude >= minLat && entry.latitude <= maxLat
+                && entry.longitude >= minLon && entry.longitude <= maxLon;
+    }
+    
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+    
+    private long cellKey(double latitude, double longitude) {
+        return pack(cellIndex(latitude), cellIndex(longitude));
+    }
+    
+    private static long pack(long row, long column) {
+        return (row << 32) ^ (column & 0xffffffffL);
+    }
+    
+    public record Entry<T>(long id, double latitude, double longitude, T value) {
+    }
+    
+    public record Hit<T>(Entry<T> entry, double distanceKm) {
+    }
+}
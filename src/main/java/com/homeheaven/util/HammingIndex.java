@@ -0,0 +1,122 @@
+package com.homeheaven.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Multi-index hashing for 64-bit hashes under Hamming distance (e.g.
+ * perceptual image hashes). Each hash is split into four 16-bit chunks and
+ * filed under every chunk value. Two hashes within distance d agree on at
+ * least one chunk to within d / 4 bits, so a query probes each of its
+ * chunks and their variants with up to d / 4 flipped bits, then checks the
+ * full distance. An item may have several hashes. Not thread-safe.
+ */
+public class HammingIndex {
+    
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+    private static final int MAX_CHUNK_RADIUS = 2;
+    
+    private final Map<Long, long[]> hashesById = new HashMap<>();
+    
+    /** chunk number << 16 | chunk value -> (id, hash) entries */
+    private final Map<Integer, List<Entry>> tables = new HashMap<>();
+    
+    public int size() {
+        return hashesById.size();
+    }
+    
+    public long[] get(long id) {
+        return hashesById.get(id);
+    }
+    
+    public Set<Long> ids() {
+        return Collections.unmodifiableSet(hashesById.keySet());
+    }
+    
+    /**
+     * Insert or replace an item's hashes
+     */
+    public void put(long id, long[] hashes) {
+        remove(id);
+        if (hashes.length == 0) {
+            return;
+        }
+        hashesById.put(id, hashes);
+        for (long hash : hashes) {
+            Entry entry = new Entry(id, hash);
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                tables.computeIfAbsent(key(chunk, chunk(hash, chunk)), k -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+    
+    public boolean remove(long id) {
+        long[] hashes = hashesById.remove(id);
+        if (hashes == null) {
+            return false;
+        }
+        for (long hash : hashes) {
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                int key = key(chunk, chunk(hash, chunk));
+                List<Entry> entries = tables.get(key);
+                entries.removeIf(entry -> entry.id == id);
+                if (entries.isEmpty()) {
+                    tables.remove(key);
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Items with a hash within maxDistance of the given one, with their
+     * smallest distance. maxDistance is at most 11.
+     */
+    public Map<Long, Integer> within(long hash, int maxDistance) {
+        if (maxDistance < 0 || maxDistance / CHUNKS > MAX_CHUNK_RADIUS) {
+            throw new IllegalArgumentException("maxDistance must be between 0 and 11");
+        }
+        int radius = maxDistance / CHUNKS;
+        Map<Long, Integer> result = new HashMap<>();
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            int value = chunk(hash, chunk);
+            probe(chunk, value, hash, maxDistance, result);
+            for (int i = 0; i < CHUNK_BITS && radius >= 1; i++) {
+                probe(chunk, value ^ (1 << i), hash, maxDistance, result);
+                for (int j = i + 1; j < CHUNK_BITS && radius >= 2; j++) {
+                    probe(chunk, value ^ (1 << i) ^ (1 << j), hash, maxDistance, result);
+                }
+            }
+        }
+        return result;
+    }
+    
+    private void probe(int chunk, int value, long hash, int maxDistance, Map<Long, Integer> result) {
+        List<Entry> entries = tables.get(key(chunk, value));
+        if (entries == null) {
+            return;
+        }
+        for (Entry entry : entries) {
+            int distance = Long.bitCount(entry.hash ^ hash);
+            if (distance <= maxDistance) {
+                result.merge(entry.id, distance, Math::min);
+            }
+        }
+    }
+    
+    private static int chunk(long hash, int chunk) {
+        return (int) (hash >>> (chunk * CHUNK_BITS)) & 0xffff;
+    }
+    
+    private static int key(int chunk, int value) {
+        return chunk << CHUNK_BITS | value;
+    }
+    
+    private record Entry(long id, long hash) {
+    }
+}
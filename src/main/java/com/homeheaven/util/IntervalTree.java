@@ -0,0 +1,168 @@
+package com.homeheaven.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Dynamic interval tree: a treap ordered by (low, id) where every node also
+ * stores the largest high in its subtree. Insert and remove are O(log n)
+ * expected; a stabbing query returns the k intervals containing a point in
+ * O(log n + k) by skipping subtrees whose max high is below the point and
+ * right subtrees whose lows are above it. Intervals are closed.
+ */
+public class IntervalTree<T> {
+    
+    private Node<T> root;
+    private int size;
+    
+    public int size() {
+        return size;
+    }
+    
+    public void insert(double low, double high, long id, T value) {
+        if (low > high) {
+            throw new IllegalArgumentException("low must not exceed high");
+        }
+        root = insert(root, new Node<>(low, high, id, value));
+        size++;
+    }
+    
+    /**
+     * Remove the interval with this low and id; returns false if absent
+     */
+    public boolean remove(double low, long id) {
+        int before = size;
+        root = remove(root, low, id);
+        return size < before;
+    }
+    
+    /**
+     * Values of all intervals with low &lt;= point &lt;= high
+     */
+    public List<T> stab(double point) {
+        List<T> result = new ArrayList<>();
+        stab(root, point, result::add);
+        return result;
+    }
+    
+    private Node<T> insert(Node<T> node, Node<T> fresh) {
+        if (node == null) {
+            return fresh;
+        }
+        if (compare(fresh.low, fresh.id, node) < 0) {
+            node.left = insert(node.left, fresh);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, fresh);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+    
+    private Node<T> remove(Node<T> node, double low, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(low, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, low, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, low, id);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+    
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+    
+    private void stab(Node<T> node, double point, Consumer<T> sink) {
+        if (node == null || node.maxHigh < point) {
+            return;
+        }
+        stab(node.left, point, sink);
+        if (node.low > point) {
+            return;
+        }
+        if (node.high >= point) {
+            sink.accept(node.value);
+        }
+        stab(node.right, point, sink);
+    }
+    
+    private static int compare(double low, long id, Node<?> node) {
+        int cmp = Double.compare(low, node.low);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+    
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+    
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+    
+    private static class Node<T> {
+        private final double low;
+        private final double high;
+        private final long id;
+        private final T value;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private double maxHigh;
+        private Node<T> left;
+        private Node<T> right;
+        
+        Node(double low, double high, long id, T value) {
+            this.low = low;
+            this.high = high;
+            this.id = id;
+            this.value = value;
+            this.maxHigh = high;
+        }
+        
+        void update() {
+            maxHigh = high;
+            if (left != null && left.maxHigh > maxHigh) {
+                maxHigh = left.maxHigh;
+            }
+            if (right != null && right.maxHigh > maxHigh) {
+                maxHigh = right.maxHigh;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.homeheaven.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * MinHash signatures of shingle sets. The fraction of positions at which
+ * two signatures agree estimates the Jaccard similarity of the sets (with
+ * 64 hashes, to within about 0.06). Each position uses the 64-bit shingle
+ * hash remixed with its own seed, keeping the upper 32 bits.
+ */
+public final class MinHash {
+    
+    private final long[] seeds;
+    
+    public MinHash(int numHashes) {
+        if (numHashes < 1) {
+            throw new IllegalArgumentException("numHashes must be positive");
+        }
+        this.seeds = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            seeds[i] = Hashing.hash64(0x9e3779b97f4a7c15L * (i + 1));
+        }
+    }
+    
+    public int size() {
+        return seeds.length;
+    }
+    
+    /**
+     * Signature of a shingle set; all Integer.MAX_VALUE if the set is empty
+     */
+    public int[] signature(Collection<String> shingles) {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String shingle : shingles) {
+            long hash = Hashing.hash64(shingle);
+            for (int i = 0; i < seeds.length; i++) {
+                int value = (int) (Hashing.hash64(hash ^ seeds[i]) >>> 32);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+    
+    /**
+     * Estimated Jaccard similarity of the sets behind two signatures of the same size
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+}
@@ -0,0 +1,141 @@
+package com.homeheaven.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Locality-sensitive hashing over MinHash signatures. A signature of n
+ * values is cut into bands of n / bands values; two items become candidates
+ * when any band is identical, which happens with probability
+ * 1 - (1 - s^rows)^bands for Jaccard similarity s (16 bands of 4 rows: 0.99
+ * at s = 0.7, 0.05 at s = 0.3). Candidates are then checked against the
+ * signature estimate, so a query never compares against the whole set.
+ * Not thread-safe.
+ */
+public class MinHashLshIndex {
+    
+    private final int bands;
+    private final int rows;
+    private final Map<Long, int[]> signatures = new HashMap<>();
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+    
+    public MinHashLshIndex(int signatureSize, int bands) {
+        if (bands < 1 || signatureSize % bands != 0) {
+            throw new IllegalArgumentException("signatureSize must be a multiple of bands");
+        }
+        this.bands = bands;
+        this.rows = signatureSize / bands;
+    }
+    
+    public int size() {
+        return signatures.size();
+    }
+    
+    public int[] get(long id) {
+        return signatures.get(id);
+    }
+    
+    /**
+     * Insert or replace an item's signature
+     */
+    public void put(long id, int[] signature) {
+        remove(id);
+        signatures.put(id, signature);
+        for (long key : bandKeys(signature)) {
+            buckets.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+    }
+    
+    public boolean remove(long id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null) {
+            return false;
+        }
+        for (long key : bandKeys(signature)) {
+            Set<Long> bucket = buckets.get(key);
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Items sharing a band with the signature whose estimated similarity is at
+     * least threshold, most similar first; at most maxCandidates are checked
+     */
+    public List<Match> query(int[] signature, double threshold, int maxCandidates) {
+        Set<Long> candidates = new HashSet<>();
+        for (long key : bandKeys(signature)) {
+            Set<Long> bucket = buckets.get(key);
+            if (bucket == null) {
+                continue;
+            }
+            for (Long id : bucket) {
+                if (candidates.size() >= maxCandidates) {
+                    break;
+                }
+                candidates.add(id);
+            }
+        }
+        
+        List<Match> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            double similarity = MinHash.similarity(signature, signatures.get(id));
+            if (similarity >= threshold) {
+                matches.add(new Match(id, similarity));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::similarity).reversed());
+        return matches;
+    }
+    
+    /**
+     * Visit every pair of items that share a band and reach the threshold
+     * (a pair may be visited more than once). Buckets larger than
+     * maxBucketSize only pair their members with the first of them.
+     */
+    public void similarPairs(double threshold, int maxBucketSize, BiConsumer<Long, Long> visitor) {
+        for (Set<Long> bucket : buckets.values()) {
+            if (bucket.size() < 2) {
+                continue;
+            }
+            List<Long> members = new ArrayList<>(bucket);
+            int pivots = members.size() > maxBucketSize ? 1 : members.size();
+            for (int i = 0; i < pivots; i++) {
+                for (int j = i + 1; j < members.size(); j++) {
+                    long a = members.get(i);
+                    long b = members.get(j);
+                    if (MinHash.similarity(signatures.get(a), signatures.get(b)) >= threshold) {
+                        visitor.accept(a, b);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * One key per band: the band's values hashed together with the band number
+     */
+    private long[] bandKeys(int[] signature) {
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long hash = band;
+            for (int i = band * rows; i < (band + 1) * rows; i++) {
+                hash = Hashing.hash64(hash * 31 + signature[i]);
+            }
+            keys[band] = hash;
+        }
+        return keys;
+    }
+    
+    public record Match(long id, double similarity) {
+    }
+}
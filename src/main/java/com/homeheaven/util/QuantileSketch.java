@@ -0,0 +1,111 @@
+package com.homeheaven.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DDSketch-style quantile sketch for positive values. Values are counted
+ * in logarithmic buckets, so any reported quantile is within the configured
+ * relative accuracy of a true sample value. Unlike t-digest or KLL the
+ * buckets are plain counters, so values can be removed as well as added,
+ * and two sketches merge by adding counts. Size grows with the log of the
+ * value range (a few hundred buckets for rents), not with the count.
+ */
+public class QuantileSketch {
+    
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long count;
+    private double sum;
+    
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy must be between 0 and 1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+    
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+    
+    public void add(double value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Only positive values are supported");
+        }
+        buckets.merge(index(value), 1L, Long::sum);
+        count++;
+        sum += value;
+    }
+    
+    /**
+     * Remove a previously added value (no-op if its bucket is empty)
+     */
+    public void remove(double value) {
+        if (value <= 0) {
+            return;
+        }
+        int index = index(value);
+        Long current = buckets.get(index);
+        if (current == null) {
+            return;
+        }
+        if (current == 1) {
+            buckets.remove(index);
+        } else {
+            buckets.put(index, current - 1);
+        }
+        count--;
+        sum -= value;
+    }
+    
+    public void merge(QuantileSketch other) {
+        if (other.gamma != gamma) {
+            throw new IllegalArgumentException("Cannot merge sketches of different accuracy");
+        }
+        other.buckets.forEach((index, bucketCount) -> buckets.merge(index, bucketCount, Long::sum));
+        count += other.count;
+        sum += other.sum;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+    
+    /**
+     * Value at quantile q in [0, 1], or NaN if the sketch is empty
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be between 0 and 1");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return value(bucket.getKey());
+            }
+        }
+        return value(buckets.lastKey());
+    }
+    
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+    
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+}
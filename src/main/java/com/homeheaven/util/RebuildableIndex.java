@@ -0,0 +1,81 @@
+package com.homeheaven.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holder for an in-memory structure that is updated in place and now and
+ * then rebuilt from the database into a fresh copy. Loading runs outside
+ * the lock; changes applied meanwhile go to the live copy and are also
+ * recorded, then replayed onto the fresh copy just before it is swapped in,
+ * so a rebuild never loses a change made while it was reading. Changes must
+ * therefore be safe to apply twice. All other access holds this object's
+ * lock.
+ */
+public class RebuildableIndex<T> {
+    
+    /** The live copy; null until the first rebuild if no initial copy was given */
+    private T current;
+    
+    /** Changes applied while a rebuild is loading; null when none is running */
+    private List<Consumer<T>> pending;
+    
+    public RebuildableIndex(T initial) {
+        this.current = initial;
+    }
+    
+    /**
+     * Apply a change to the live copy (if there is one yet), and record it
+     * for the rebuild in progress
+     */
+    public synchronized void apply(Consumer<T> change) {
+        if (current != null) {
+            change.accept(current);
+        }
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+    
+    /**
+     * Run a read against the live copy (null before the first rebuild if
+     * there was no initial copy)
+     */
+    public synchronized <R> R read(Function<T, R> reader) {
+        return reader.apply(current);
+    }
+    
+    /**
+     * Load a fresh copy, replay the changes made meanwhile and swap it in.
+     * Returns the new copy, or null if a rebuild was already running.
+     */
+    public T rebuild(Supplier<T> loader) {
+        synchronized (this) {
+            if (pending != null) {
+                return null;
+            }
+            pending = new ArrayList<>();
+        }
+        T fresh;
+        try {
+            fresh = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            try {
+                pending.forEach(change -> change.accept(fresh));
+                current = fresh;
+            } finally {
+                pending = null;
+            }
+        }
+        return fresh;
+    }
+}
@@ -0,0 +1,109 @@
+package com.homeheaven.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fixed-capacity weighted counter over long keys (Space-Saving). When a new
+ * key arrives and the counter is full, the lightest key is evicted and the
+ * new one takes over its weight plus the increment, so frequent keys are
+ * never lost and weights overestimate by at most the evicted weight.
+ * Keys and weights are kept in parallel arrays and scanned linearly, which
+ * is cheap for the small capacities this is meant for.
+ * Not thread-safe.
+ */
+public class SpaceSavingCounter {
+    
+    private final long[] keys;
+    private final float[] weights;
+    private int size;
+    
+    public SpaceSavingCounter(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.keys = new long[capacity];
+        this.weights = new float[capacity];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void add(long key, float weight) {
+        int min = 0;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                weights[i] += weight;
+                return;
+            }
+            if (weights[i] < weights[min]) {
+                min = i;
+            }
+        }
+        if (size < keys.length) {
+            keys[size] = key;
+            weights[size++] = weight;
+        } else {
+            keys[min] = key;
+            weights[min] += weight;
+        }
+    }
+    
+    public float get(long key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return weights[i];
+            }
+        }
+        return 0;
+    }
+    
+    public boolean remove(long key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Multiply every weight by factor and drop keys that fall below minWeight
+     */
+    public void decay(float factor, float minWeight) {
+        for (int i = size - 1; i >= 0; i--) {
+            weights[i] *= factor;
+            if (weights[i] < minWeight) {
+                removeAt(i);
+            }
+        }
+    }
+    
+    /**
+     * Keys with their weights, heaviest first
+     */
+    public List<Entry> entries() {
+        List<Entry> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Entry(keys[i], weights[i]));
+        }
+        result.sort(Comparator.comparingDouble(Entry::weight).reversed());
+        return result;
+    }
+    
+    private void removeAt(int i) {
+        size--;
+        keys[i] = keys[size];
+        weights[i] = weights[size];
+    }
+    
+    public record Entry(long key, float weight) {
+    }
+}
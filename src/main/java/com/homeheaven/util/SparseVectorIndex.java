@@ -0,0 +1,137 @@
+package com.homeheaven.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Approximate nearest-neighbour index over sparse, L2-normalized vectors
+ * (cosine similarity = dot product). Vectors are partitioned into blocks
+ * (only vectors of the same block are compared), and each vector lists the
+ * features it is indexed under. A query collects candidates from the
+ * posting lists of its indexed features, rarest first, up to a cap, and
+ * scores only those exactly. Insert and remove are O(features).
+ * Not thread-safe.
+ */
+public class SparseVectorIndex {
+    
+    private final Map<Long, Vector> vectors = new HashMap<>();
+    
+    /** (block, feature) -> ids */
+    private final Map<Long, Set<Long>> postings = new HashMap<>();
+    
+    public int size() {
+        return vectors.size();
+    }
+    
+    public boolean contains(long id) {
+        return vectors.containsKey(id);
+    }
+    
+    /**
+     * Insert or replace a vector; features must be sorted ascending and unique
+     */
+    public void put(long id, int block, int[] features, float[] weights, int[] indexed) {
+        remove(id);
+        vectors.put(id, new Vector(block, features, weights, indexed));
+        for (int feature : indexed) {
+            postings.computeIfAbsent(key(block, feature), k -> new HashSet<>()).add(id);
+        }
+    }
+    
+    public boolean remove(long id) {
+        Vector vector = vectors.remove(id);
+        if (vector == null) {
+            return false;
+        }
+        for (int feature : vector.indexed) {
+            long key = key(vector.block, feature);
+            Set<Long> ids = postings.get(key);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * The k most similar vectors to an indexed one, best first (empty if it is not indexed)
+     */
+    public List<Neighbour> nearest(long id, int k, int maxCandidates) {
+        Vector query = vectors.get(id);
+        if (query == null) {
+            return List.of();
+        }
+        
+        List<Set<Long>> lists = new ArrayList<>();
+        for (int feature : query.indexed) {
+            Set<Long> ids = postings.get(key(query.block, feature));
+            if (ids != null) {
+                lists.add(ids);
+            }
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        
+        Set<Long> candidates = new HashSet<>();
+        for (Set<Long> ids : lists) {
+            for (Long candidate : ids) {
+                if (candidates.size() >= maxCandidates) {
+                    break;
+                }
+                candidates.add(candidate);
+            }
+        }
+        candidates.remove(id);
+        
+        PriorityQueue<Neighbour> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbour::similarity));
+        for (Long candidate : candidates) {
+            double similarity = dot(query, vectors.get(candidate));
+            if (similarity <= 0) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(new Neighbour(candidate, similarity));
+            } else if (similarity > best.peek().similarity()) {
+                best.poll();
+                best.add(new Neighbour(candidate, similarity));
+            }
+        }
+        
+        Neighbour[] result = best.toArray(new Neighbour[0]);
+        Arrays.sort(result, Comparator.comparingDouble(Neighbour::similarity).reversed());
+        return Arrays.asList(result);
+    }
+    
+    private static double dot(Vector a, Vector b) {
+        double sum = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.features.length && j < b.features.length) {
+            if (a.features[i] == b.features[j]) {
+                sum += a.weights[i++] * b.weights[j++];
+            } else if (a.features[i] < b.features[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return sum;
+    }
+    
+    private static long key(int block, int feature) {
+        return ((long) block << 32) | (feature & 0xffffffffL);
+    }
+    
+    private record Vector(int block, int[] features, float[] weights, int[] indexed) {
+    }
+    
+    public record Neighbour(long id, double similarity) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.homeheaven.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits listing text into lower-case word terms, dropping very short words
+ * and common English and listing boilerplate stop words
+ */
+public final class TextTerms {
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "with", "are", "was", "this", "that", "from", "near", "has", "have",
+            "all", "our", "your", "you", "its", "who", "can", "will", "also", "very", "into", "per",
+            "available", "property", "rent", "room", "rooms", "located", "area");
+    
+    private TextTerms() {
+    }
+    
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= 3 && !STOP_WORDS.contains(word)) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,37 @@
+-- HomeHeaven Schema Update
+-- Version: 10.0
+-- Description: Saved searches and queued matches for digest emails
+
+-- ============================================
+-- Table: saved_searches
+-- Description: Search criteria saved by users (NULL = any)
+-- ============================================
+CREATE TABLE saved_searches (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    city VARCHAR(100),
+    property_type ENUM('PG', 'Hostel', 'Flat', 'House'),
+    min_rent DECIMAL(10, 2),
+    max_rent DECIMAL(10, 2),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_user_id (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================
+-- Table: saved_search_matches
+-- Description: Listings matched by the percolator, waiting for the next digest
+-- ============================================
+CREATE TABLE saved_search_matches (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    saved_search_id BIGINT NOT NULL,
+    property_id BIGINT NOT NULL,
+    matched_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (saved_search_id) REFERENCES saved_searches(id) ON DELETE CASCADE,
+    FOREIGN KEY (property_id) REFERENCES properties(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_search_property (saved_search_id, property_id),
+    INDEX idx_property_id (property_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,53 @@
+-- HomeHeaven Schema Update
+-- Version: 11.0
+-- Description: Append-only listing change log for incremental sync (GET /api/changes)
+
+-- ============================================
+-- Table: listing_changes
+-- Description: One entry per property change, written in the same transaction.
+--              UPSERT carries the listing as JSON; DELETE is a tombstone.
+-- ============================================
+CREATE TABLE listing_changes (
+    seq BIGINT PRIMARY KEY AUTO_INCREMENT,
+    property_id BIGINT NOT NULL,
+    change_type ENUM('UPSERT', 'DELETE') NOT NULL,
+    payload JSON NULL,
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    
+    INDEX idx_property_seq (property_id, seq),
+    INDEX idx_type_changed_at (change_type, changed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================
+-- Table: listing_change_meta
+-- Description: Compaction watermarks
+-- ============================================
+CREATE TABLE listing_change_meta (
+    name VARCHAR(64) PRIMARY KEY,
+    value BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO listing_change_meta (name, value) VALUES ('tombstones_purged_through', 0);
+
+-- Initial population: current state of every listing (field names match PropertySnapshot)
+INSERT INTO listing_changes (property_id, change_type, payload)
+SELECT p.id, 'UPSERT', JSON_OBJECT(
+    'id', p.id,
+    'ownerId', p.owner_id,
+    'ownerUsername', u.username,
+    'ownerPhone', u.phone,
+    'name', p.name,
+    'address', p.address,
+    'city', p.city,
+    'propertyType', p.property_type,
+    'rent', p.rent,
+    'sqft', p.sqft,
+    'sharingOption', p.sharing_option,
+    'description', p.description,
+    'available', CAST(IF(p.is_available, 'true', 'false') AS JSON),
+    'primaryImage', (SELECT i.image_path FROM property_images i WHERE i.property_id = p.id
+                     ORDER BY i.is_primary DESC, i.display_order, i.id LIMIT 1),
+    'createdAt', DATE_FORMAT(p.created_at, '%Y-%m-%dT%H:%i:%s'))
+FROM properties p
+JOIN users u ON u.id = p.owner_id
+ORDER BY p.id;
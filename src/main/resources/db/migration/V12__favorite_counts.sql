@@ -0,0 +1,17 @@
+-- HomeHeaven Schema Update
+-- Version: 12.0
+-- Description: Favorite counters on the listing read model
+
+-- ============================================
+-- Table: property_listings
+-- Description: favorite_count is incremented/decremented in the same transaction
+-- as the favorites row, so cards never need COUNT(*) over favorites
+-- ============================================
+ALTER TABLE property_listings
+    ADD COLUMN favorite_count INT NOT NULL DEFAULT 0;
+
+-- Initial population
+UPDATE property_listings l
+JOIN (SELECT property_id, COUNT(*) AS cnt FROM favorites GROUP BY property_id) f
+    ON f.property_id = l.property_id
+SET l.favorite_count = f.cnt;
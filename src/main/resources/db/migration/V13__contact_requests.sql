@@ -0,0 +1,62 @@
+-- HomeHeaven Schema Update
+-- Version: 13.0
+-- Description: Contact request inbox with per-owner counters and batched notifications
+
+-- ============================================
+-- Table: contact_requests
+-- Description: owner_id is copied from the property so the owner inbox is a
+--              single index range scan, keyset-paginated by (created_at, id)
+-- ============================================
+ALTER TABLE contact_requests
+    ADD COLUMN owner_id BIGINT NULL AFTER requester_id,
+    ADD COLUMN is_read BOOLEAN NOT NULL DEFAULT FALSE AFTER status;
+
+UPDATE contact_requests c
+JOIN properties p ON p.id = c.property_id
+SET c.owner_id = p.owner_id;
+
+ALTER TABLE contact_requests
+    MODIFY owner_id BIGINT NOT NULL,
+    MODIFY status ENUM('PENDING', 'CONTACTED', 'CLOSED') NOT NULL DEFAULT 'PENDING',
+    MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ADD CONSTRAINT fk_contact_owner FOREIGN KEY (owner_id) REFERENCES users(id) ON DELETE CASCADE,
+    ADD INDEX idx_contact_owner_created (owner_id, created_at, id),
+    ADD INDEX idx_contact_owner_status_created (owner_id, status, created_at, id),
+    ADD INDEX idx_contact_requester_created (requester_id, created_at, id);
+
+-- ============================================
+-- Table: contact_inbox_counters
+-- Description: Per-owner unread and status counts, adjusted in the same
+--              transaction as the contact request they count
+-- ============================================
+CREATE TABLE contact_inbox_counters (
+    owner_id BIGINT PRIMARY KEY,
+    unread INT NOT NULL DEFAULT 0,
+    pending INT NOT NULL DEFAULT 0,
+    contacted INT NOT NULL DEFAULT 0,
+    closed INT NOT NULL DEFAULT 0,
+    
+    FOREIGN KEY (owner_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Initial population
+INSERT INTO contact_inbox_counters (owner_id, unread, pending, contacted, closed)
+SELECT owner_id,
+    SUM(is_read = FALSE),
+    SUM(status = 'PENDING'),
+    SUM(status = 'CONTACTED'),
+    SUM(status = 'CLOSED')
+FROM contact_requests
+GROUP BY owner_id;
+
+-- ============================================
+-- Table: contact_request_notifications
+-- Description: New requests waiting to be emailed to their owner in the next batch
+-- ============================================
+CREATE TABLE contact_request_notifications (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    contact_request_id BIGINT NOT NULL,
+    queued_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (contact_request_id) REFERENCES contact_requests(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
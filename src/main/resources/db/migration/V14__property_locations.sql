@@ -0,0 +1,20 @@
+-- HomeHeaven Schema Update
+-- Version: 14.0
+-- Description: Property coordinates for radius and map search
+
+-- ============================================
+-- Table: properties
+-- Description: Coordinates set by the owner or by the offline gazetteer geocoder
+--              (existing rows: POST /api/admin/geocode)
+-- ============================================
+ALTER TABLE properties
+    ADD COLUMN latitude DOUBLE NULL AFTER view_count,
+    ADD COLUMN longitude DOUBLE NULL AFTER latitude;
+
+-- ============================================
+-- Table: property_listings
+-- Description: Copied coordinates; the in-memory geo index is loaded from here
+-- ============================================
+ALTER TABLE property_listings
+    ADD COLUMN latitude DOUBLE NULL,
+    ADD COLUMN longitude DOUBLE NULL;
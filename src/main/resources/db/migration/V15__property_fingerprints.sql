@@ -0,0 +1,25 @@
+-- HomeHeaven Schema Update
+-- Version: 15.0
+-- Description: Near-duplicate listing detection (MinHash text signatures and image dHashes)
+
+-- ============================================
+-- Table: property_fingerprints
+-- Description: One row per property, written in the same transaction as the
+--              create/update. text_signature is 64 MinHash values (4 bytes each,
+--              big-endian) of the name and description word shingles;
+--              image_hashes is a comma-separated list of 64-bit dHashes (hex).
+--              duplicate_of is the closest existing listing found when the row
+--              was written (not a foreign key: that listing may be deleted later).
+--              Existing properties: POST /api/admin/duplicates/backfill
+-- ============================================
+CREATE TABLE property_fingerprints (
+    property_id BIGINT PRIMARY KEY,
+    text_signature VARBINARY(256) NOT NULL,
+    image_hashes TEXT NULL,
+    duplicate_of BIGINT NULL,
+    duplicate_score DECIMAL(4, 3) NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (property_id) REFERENCES properties(id) ON DELETE CASCADE,
+    INDEX idx_fingerprints_duplicate_of (duplicate_of)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
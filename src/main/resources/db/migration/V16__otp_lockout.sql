@@ -0,0 +1,19 @@
+-- HomeHeaven Schema Update
+-- Version: 16.0
+-- Description: OTP lockout window and issuance limit
+
+-- ============================================
+-- Table: otp_tokens
+-- Description: Failed attempts and issued codes are counted per email until
+--              window_ends_at, so re-requesting a code does not reset them.
+--              Rows are kept until both the code and the window have expired.
+-- ============================================
+ALTER TABLE otp_tokens
+    ADD COLUMN issued INT NOT NULL DEFAULT 1 AFTER attempts,
+    ADD COLUMN window_ends_at TIMESTAMP(3) NULL AFTER issued;
+
+UPDATE otp_tokens SET window_ends_at = expires_at;
+
+ALTER TABLE otp_tokens
+    MODIFY COLUMN window_ends_at TIMESTAMP(3) NOT NULL,
+    ADD INDEX idx_window_ends_at (window_ends_at);
@@ -0,0 +1,17 @@
+-- HomeHeaven Schema Update
+-- Version: 17.0
+-- Description: Favorite change log for keeping per-node favorite caches in sync
+
+-- ============================================
+-- Table: favorite_changes
+-- Description: One row per favorite added or removed, written in the same
+--              transaction. Every node polls it and drops its cached
+--              favorites of the users listed. Rows older than a day are purged.
+-- ============================================
+CREATE TABLE favorite_changes (
+    seq BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    
+    INDEX idx_changed_at (changed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,26 @@
+-- HomeHeaven Schema Update
+-- Version: 18.0
+-- Description: Commit-order positions for the listing change log
+
+-- ============================================
+-- Table: listing_changes
+-- Description: position is assigned after commit by a single sequencer, in
+--              the order entries become visible, and is the feed cursor.
+--              seq (allocation order) can commit out of order, so paging by
+--              it could skip a slow transaction's entry.
+-- ============================================
+ALTER TABLE listing_changes
+    ADD COLUMN position BIGINT NULL AFTER seq,
+    ADD UNIQUE INDEX uk_position (position);
+
+-- Existing entries keep their seq as position, so cursors already handed out stay valid
+UPDATE listing_changes SET position = seq;
+
+INSERT INTO listing_change_meta (name, value)
+SELECT 'last_position', COALESCE(MAX(seq), 0) FROM listing_changes;
+
+-- The V11 seed stored availability as a JSON number (is_available = 1); make it a boolean
+UPDATE listing_changes
+SET payload = JSON_SET(payload, '$.available',
+                       CAST(IF(JSON_EXTRACT(payload, '$.available') = 1, 'true', 'false') AS JSON))
+WHERE payload IS NOT NULL AND JSON_TYPE(JSON_EXTRACT(payload, '$.available')) = 'INTEGER';
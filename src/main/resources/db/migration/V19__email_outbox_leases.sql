@@ -0,0 +1,13 @@
+-- HomeHeaven Schema Update
+-- Version: 19.0
+-- Description: Lease-based email outbox claims
+
+-- ============================================
+-- Table: email_outbox
+-- Description: A dispatcher claims due rows by setting them to SENDING with
+--              next_attempt_at as the lease expiry, and commits before it
+--              talks to SMTP. A SENDING row whose lease has run out (its
+--              node died mid-send) is due again.
+-- ============================================
+ALTER TABLE email_outbox
+    MODIFY COLUMN status ENUM('PENDING', 'SENDING', 'SENT', 'DEAD') NOT NULL DEFAULT 'PENDING';
@@ -0,0 +1,19 @@
+-- HomeHeaven Schema Update
+-- Version: 20.0
+-- Description: Persistent queue of image files to delete
+
+-- ============================================
+-- Table: file_cleanup_queue
+-- Description: Image files orphaned by a deletion, written in the deleting
+--              transaction so they survive a restart and vanish on rollback.
+--              FileCleanupWorker deletes the files and then the rows.
+-- ============================================
+CREATE TABLE file_cleanup_queue (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    image_path VARCHAR(500) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    
+    INDEX idx_next_attempt_at (next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
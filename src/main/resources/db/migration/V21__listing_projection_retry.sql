@@ -0,0 +1,18 @@
+-- HomeHeaven Schema Update
+-- Version: 21.0
+-- Description: Retry queue for failed listing read model projections
+
+-- ============================================
+-- Table: listing_projection_retry
+-- Description: Properties whose property_listings row could not be updated
+--              from an event. ListingProjectionService re-projects them from
+--              the source tables and then deletes the rows.
+-- ============================================
+CREATE TABLE listing_projection_retry (
+    property_id BIGINT PRIMARY KEY,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    
+    INDEX idx_next_attempt_at (next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
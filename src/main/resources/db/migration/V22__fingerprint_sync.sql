@@ -0,0 +1,24 @@
+-- HomeHeaven Schema Update
+-- Version: 22.0
+-- Description: Cross-node sync of duplicate detection indexes
+
+-- ============================================
+-- Table: property_fingerprints
+-- Description: updated_at gets millisecond precision and an index, so each
+--              node can poll for fingerprints written on other nodes.
+-- ============================================
+ALTER TABLE property_fingerprints
+    MODIFY COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_fingerprints_updated_at (updated_at);
+
+-- ============================================
+-- Table: duplicate_check_lock
+-- Description: A single row locked by duplicate checks when duplicates.action
+--              is BLOCK, so concurrent creates and edits are checked one at a
+--              time across all nodes.
+-- ============================================
+CREATE TABLE duplicate_check_lock (
+    id TINYINT PRIMARY KEY
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO duplicate_check_lock (id) VALUES (1);
@@ -0,0 +1,17 @@
+-- HomeHeaven Schema Update
+-- Version: 3.0
+-- Description: Shared OTP storage (used when otp.store=jdbc)
+
+-- ============================================
+-- Table: otp_tokens
+-- Description: Pending password reset OTPs with attempt counters
+-- ============================================
+CREATE TABLE otp_tokens (
+    email VARCHAR(100) PRIMARY KEY,
+    code VARCHAR(10) NOT NULL,
+    expires_at TIMESTAMP(3) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    INDEX idx_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
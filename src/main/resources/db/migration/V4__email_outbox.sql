@@ -0,0 +1,23 @@
+-- HomeHeaven Schema Update
+-- Version: 4.0
+-- Description: Transactional email outbox
+
+-- ============================================
+-- Table: email_outbox
+-- Description: Emails queued in the business transaction, delivered asynchronously
+-- ============================================
+CREATE TABLE email_outbox (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    recipient VARCHAR(100) NOT NULL,
+    subject VARCHAR(200) NOT NULL,
+    body TEXT NOT NULL,
+    status ENUM('PENDING', 'SENT', 'DEAD') NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP NULL,
+    
+    INDEX idx_status_next_attempt (status, next_attempt_at),
+    INDEX idx_sent_at (sent_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
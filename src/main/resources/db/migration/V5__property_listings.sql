@@ -0,0 +1,41 @@
+-- HomeHeaven Schema Update
+-- Version: 5.0
+-- Description: Denormalized listing read model
+
+-- ============================================
+-- Table: property_listings
+-- Description: One flat row per property for search and list cards,
+--              maintained from domain events (rebuild: POST /api/admin/listings/rebuild)
+-- ============================================
+CREATE TABLE property_listings (
+    property_id BIGINT PRIMARY KEY,
+    owner_id BIGINT NOT NULL,
+    owner_username VARCHAR(50) NOT NULL,
+    owner_phone VARCHAR(20),
+    name VARCHAR(200) NOT NULL,
+    city VARCHAR(100) NOT NULL,
+    property_type ENUM('PG', 'Hostel', 'Flat', 'House') NOT NULL,
+    rent DECIMAL(10, 2) NOT NULL,
+    sqft INT NULL,
+    sharing_option VARCHAR(50) NULL,
+    summary VARCHAR(255),
+    is_available BOOLEAN NOT NULL DEFAULT TRUE,
+    primary_image VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (property_id) REFERENCES properties(id) ON DELETE CASCADE,
+    INDEX idx_listing_owner (owner_id, created_at),
+    INDEX idx_listing_type_rent (property_type, rent),
+    INDEX idx_listing_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Initial population
+INSERT INTO property_listings (property_id, owner_id, owner_username, owner_phone, name, city,
+    property_type, rent, sqft, sharing_option, summary, is_available, primary_image, created_at)
+SELECT p.id, p.owner_id, u.username, u.phone, p.name, p.city, p.property_type, p.rent, p.sqft,
+    p.sharing_option, LEFT(p.description, 255), p.is_available,
+    (SELECT i.image_path FROM property_images i WHERE i.property_id = p.id
+     ORDER BY i.is_primary DESC, i.display_order, i.id LIMIT 1),
+    p.created_at
+FROM properties p
+JOIN users u ON u.id = p.owner_id;
@@ -0,0 +1,19 @@
+-- HomeHeaven Schema Update
+-- Version: 6.0
+-- Description: Table-backed id generators so bulk inserts can be JDBC-batched
+
+-- ============================================
+-- Table: id_generators
+-- Description: Hi/lo style sequence rows; Hibernate reserves ids in blocks of 100
+-- ============================================
+CREATE TABLE id_generators (
+    gen_name VARCHAR(64) PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Seed past the current AUTO_INCREMENT values (pooled optimizer hands out next_val - 100 + 1 upward)
+INSERT INTO id_generators (gen_name, next_val)
+SELECT 'properties', COALESCE(MAX(id), 0) + 1 + 100 FROM properties;
+
+INSERT INTO id_generators (gen_name, next_val)
+SELECT 'property_images', COALESCE(MAX(id), 0) + 1 + 100 FROM property_images;
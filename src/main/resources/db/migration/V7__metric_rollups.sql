@@ -0,0 +1,18 @@
+-- HomeHeaven Schema Update
+-- Version: 7.0
+-- Description: Pre-aggregated time series for views, listings and registrations
+
+-- ============================================
+-- Table: metric_rollups
+-- Description: One row per (metric, dimension, granularity, bucket); values are merged additively
+-- ============================================
+CREATE TABLE metric_rollups (
+    metric VARCHAR(32) NOT NULL,
+    dimension VARCHAR(100) NOT NULL,
+    granularity ENUM('MINUTE', 'HOUR', 'DAY') NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    value BIGINT NOT NULL DEFAULT 0,
+    
+    PRIMARY KEY (metric, dimension, granularity, bucket_start),
+    INDEX idx_granularity_bucket (granularity, bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
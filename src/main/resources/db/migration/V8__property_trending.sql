@@ -0,0 +1,14 @@
+-- HomeHeaven Schema Update
+-- Version: 8.0
+-- Description: Persisted time-decayed trending scores
+
+-- ============================================
+-- Table: property_trending
+-- Description: Decayed view score of a property as of scored_at.
+-- No foreign key: rows are written asynchronously; orphans are ignored on load and removed on delete events
+-- ============================================
+CREATE TABLE property_trending (
+    property_id BIGINT PRIMARY KEY,
+    score DOUBLE NOT NULL,
+    scored_at TIMESTAMP NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,16 @@
+-- HomeHeaven Schema Update
+-- Version: 9.0
+-- Description: Daily HyperLogLog sketches of distinct viewers per property
+
+-- ============================================
+-- Table: property_unique_viewers
+-- Description: Serialized sketch (sparse or dense, at most ~4 KB at precision 12) per property and day.
+-- No foreign key: rows are written asynchronously and removed on property delete events
+-- ============================================
+CREATE TABLE property_unique_viewers (
+    property_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    sketch BLOB NOT NULL,
+    
+    PRIMARY KEY (property_id, day)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;